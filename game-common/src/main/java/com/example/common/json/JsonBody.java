@@ -0,0 +1,10 @@
+package com.example.common.json;
+
+/**
+ * A response body that encodes itself as JSON, written to the response by {@link JsonBodyWriter}
+ * instead of being serialized by Jackson.
+ */
+public interface JsonBody {
+
+    void writeTo(JsonOutput out);
+}
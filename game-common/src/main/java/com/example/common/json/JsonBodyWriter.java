@@ -0,0 +1,34 @@
+package com.example.common.json;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes {@link JsonBody} entities to the response: the body is encoded into the request thread's
+ * {@link JsonOutput} and written to the response stream in one call.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+public class JsonBodyWriter implements MessageBodyWriter<JsonBody> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return JsonBody.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(JsonBody body, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        JsonOutput out = JsonOutput.forCurrentThread();
+        body.writeTo(out);
+        out.writeTo(entityStream);
+    }
+}
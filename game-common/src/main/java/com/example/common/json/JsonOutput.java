@@ -0,0 +1,135 @@
+package com.example.common.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer the flat JSON objects of the request path are encoded into byte by byte, without reflection
+ * or intermediate strings, and then written to the response in one call. Every request thread reuses
+ * its own buffer; a buffer grown by an unusually large body is dropped afterwards. Strings are escaped and
+ * characters outside ASCII are written as unicode escapes, so the output is ASCII and needs no charset encoder.
+ */
+public final class JsonOutput {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final ThreadLocal<JsonOutput> BUFFERS = ThreadLocal.withInitial(JsonOutput::new);
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    public JsonOutput() {
+    }
+
+    /**
+     * Returns the empty buffer of the calling thread.
+     */
+    public static JsonOutput forCurrentThread() {
+        JsonOutput out = BUFFERS.get();
+        out.length = 0;
+        if (out.bytes.length > MAX_RETAINED_CAPACITY) {
+            out.bytes = new byte[INITIAL_CAPACITY];
+        }
+        return out;
+    }
+
+    /**
+     * Encodes an object of the given keys and string values, e.g. a fixed error body, once.
+     *
+     * @param keysAndValues alternating keys and values
+     */
+    public static byte[] object(String... keysAndValues) {
+        JsonOutput out = new JsonOutput();
+        out.write('{');
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (i > 0) out.write(',');
+            out.writeString(keysAndValues[i]);
+            out.write(':');
+            out.writeString(keysAndValues[i + 1]);
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    public void write(int b) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) b;
+    }
+
+    /**
+     * Writes pre-encoded JSON, e.g. the constant part of a body.
+     */
+    public void write(byte[] json) {
+        ensureCapacity(json.length);
+        System.arraycopy(json, 0, bytes, length, json.length);
+        length += json.length;
+    }
+
+    /**
+     * Writes the given value as a quoted, escaped JSON string.
+     */
+    public void writeString(String value) {
+        ensureCapacity(value.length() + 2);
+        bytes[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                ensureCapacity(2 + value.length() - i);
+                bytes[length++] = '\\';
+                bytes[length++] = (byte) c;
+            } else if (c < 0x20 || c >= 0x7f) {
+                ensureCapacity(6 + value.length() - i);
+                bytes[length++] = '\\';
+                bytes[length++] = 'u';
+                bytes[length++] = HEX[c >>> 12];
+                bytes[length++] = HEX[(c >>> 8) & 0xf];
+                bytes[length++] = HEX[(c >>> 4) & 0xf];
+                bytes[length++] = HEX[c & 0xf];
+            } else {
+                bytes[length++] = (byte) c;
+            }
+        }
+        bytes[length++] = '"';
+    }
+
+    /**
+     * Writes the given value as a JSON number.
+     */
+    public void writeNumber(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            write('-');
+            value = -value;
+        }
+        ensureCapacity(19);
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private void ensureCapacity(int more) {
+        if (length + more > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.common.recording;
+
+/**
+ * The anonymized shape of a request: what was asked for and how it was answered, without the token,
+ * the player or the session.
+ *
+ * @param offsetMicros when the request started, in microseconds since the start of the recording
+ * @param endpoint the endpoint that was called
+ * @param gameId the requested game, null if the request named none
+ * @param outcome {@code ok} or the error code of the answer, e.g. {@code expired_token}
+ * @param status the HTTP status of the answer
+ * @param tokenBytes the length of the token received or handed out, 0 without one
+ * @param latencyMicros how long the request took to process
+ */
+public record RecordedRequest(long offsetMicros, Endpoint endpoint, String gameId, String outcome, int status,
+                              int tokenBytes, long latencyMicros) {
+
+    /**
+     * The recorded endpoints, with the code they are stored as.
+     */
+    public enum Endpoint {
+        PLAY(1),
+        ISSUE(2);
+
+        private static final Endpoint[] BY_CODE = new Endpoint[3];
+
+        static {
+            for (Endpoint endpoint : values()) {
+                BY_CODE[endpoint.code] = endpoint;
+            }
+        }
+
+        private final byte code;
+
+        Endpoint(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        /**
+         * Returns the endpoint stored as the given code, or null for an unknown code.
+         */
+        public static Endpoint of(int code) {
+            return (code > 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+        }
+    }
+}
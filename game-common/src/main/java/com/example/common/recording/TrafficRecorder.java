@@ -0,0 +1,187 @@
+package com.example.common.recording;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the shape and timing of requests, {@code /play} at the provider and {@code /issue} at the platform,
+ * so that production traffic can be replayed against a local build with {@code TrafficReplay} in the provider's
+ * test sources. Only the game, the outcome, the status, the token length and the latency are kept; tokens,
+ * players, sessions and issuers are not.
+ * Requests are put into a bounded queue and appended to a {@link TrafficRecording} file by a single
+ * daemon thread; when the queue is full, requests are dropped and counted instead of blocking. Every
+ * recorder begins a new file in the recording directory.
+ * A disabled recorder ignores requests at the cost of a field read.
+ */
+public class TrafficRecorder implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(TrafficRecorder.class);
+    private static final int BATCH_SIZE = 512;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String metricPrefix;
+    private final boolean enabled;
+    private final Path file;
+    private final long originNanos;
+    private final BlockingQueue<RecordedRequest> queue;
+    private final TrafficRecording.Encoder encoder;
+    private final Thread writerThread;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean inWrite;
+
+    /**
+     * Creates a disabled recorder.
+     */
+    public TrafficRecorder() {
+        this("recording", false, null, 1);
+    }
+
+    /**
+     * Creates a recorder writing a new recording to the given directory.
+     *
+     * @param metricPrefix the prefix of the recorder's metrics, e.g. {@code provider}
+     * @param enabled whether requests are recorded at all
+     * @param dir the directory of the recordings
+     * @param queueSize the number of requests buffered before requests are dropped
+     * @throws UncheckedIOException if the recording cannot be created
+     */
+    public TrafficRecorder(String metricPrefix, boolean enabled, Path dir, int queueSize) {
+        this.metricPrefix = metricPrefix;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        this.originNanos = System.nanoTime();
+        if (enabled) {
+            long start = System.currentTimeMillis();
+            file = dir.resolve(TrafficRecording.FILE_PREFIX + start + TrafficRecording.FILE_SUFFIX);
+            try {
+                Files.createDirectories(dir);
+                OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+                encoder = new TrafficRecording.Encoder(out, start);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot record traffic to " + dir, e);
+            }
+            writerThread = new Thread(this::writeLoop, "traffic-recorder");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            file = null;
+            encoder = null;
+            writerThread = null;
+        }
+    }
+
+    /**
+     * Records a request that has been answered.
+     *
+     * @param endpoint the endpoint that was called
+     * @param startNanos the start of the request as a {@link System#nanoTime()} value
+     * @param gameId the requested game, may be null
+     * @param outcome {@code ok} or the error code of the answer
+     * @param status the HTTP status of the answer
+     * @param tokenBytes the length of the token, 0 without one
+     */
+    public void record(RecordedRequest.Endpoint endpoint, long startNanos, String gameId, String outcome, int status,
+                       int tokenBytes) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        RecordedRequest request = new RecordedRequest((startNanos - originNanos) / 1000, endpoint, gameId, outcome,
+                status, tokenBytes, (now - startNanos) / 1000);
+        if (queue.offer(request)) {
+            accepted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the file of the current recording, null if disabled.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes all queued requests to the file, waiting at most the given time.
+     *
+     * @return true if the queue was drained
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        if (!enabled) return true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (recorded.sum() < accepted.sum() || inWrite) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerRequests(registry, "recorded", recorded);
+        registerRequests(registry, "dropped", dropped);
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            try {
+                RecordedRequest request = queue.poll(FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (request == null) continue;
+                inWrite = true;
+                int count = 0;
+                while (request != null) {
+                    encoder.write(request);
+                    count++;
+                    request = (count < BATCH_SIZE) ? queue.poll() : null;
+                }
+                recorded.add(count);
+                if (count < BATCH_SIZE || System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                    encoder.flush();
+                    lastFlush = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                LOG.warnf("Could not write to traffic recording %s, stopping: %s", file, e.getMessage());
+                return;
+            } finally {
+                inWrite = false;
+            }
+        }
+    }
+
+    private void registerRequests(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder(metricPrefix + ".recording.requests", adder, LongAdder::sum)
+                .description("Requests handed to the traffic recorder by result: recorded, or dropped because the queue was full")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.common.recording;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary layout of the traffic recordings of the platform and the provider. A recording starts
+ * with a 16-byte header: the magic number, the format version, two reserved bytes and the start of the
+ * recording in epoch milliseconds. Requests follow back to back, each as
+ * <pre>
+ * varint  microseconds since the start of the previous request, zigzag-encoded
+ * byte    endpoint code
+ * varint  game   (string reference)
+ * varint  outcome (string reference)
+ * varint  HTTP status
+ * varint  token length in bytes
+ * varint  latency in microseconds
+ * </pre>
+ * Strings are interned per recording: reference 0 is null, {@code n + 1} is the n-th string defined so
+ * far, and the next free reference is followed by the new string as an unsigned short byte length and
+ * UTF-8 bytes. Only the first {@value #MAX_INTERNED_STRINGS} strings are interned, so that a client
+ * requesting ever new game IDs cannot grow the table without bound; later ones are written in full each time
+ * as reference 1 followed by the length and the bytes. Version 1 recordings had no reference 1 and numbered
+ * the strings from 1. Varints are unsigned LEB128, the header is big-endian. A typical request takes about 10 bytes.
+ * A recording that ends within a request, e.g. after a crash, is read up to the last complete request.
+ */
+public final class TrafficRecording {
+
+    public static final int MAGIC = 0x47505452; // "GPTR"
+    public static final short VERSION = 2;
+    public static final int MAX_INTERNED_STRINGS = 1024;
+    public static final int HEADER_BYTES = 16;
+    public static final String FILE_PREFIX = "traffic-";
+    public static final String FILE_SUFFIX = ".rec";
+
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int INLINE_STRING = 1;
+    private static final int FIRST_STRING = 2;
+
+    private TrafficRecording() {
+    }
+
+    /**
+     * A recording read back.
+     *
+     * @param startEpochMillis when the recording was started
+     * @param requests the recorded requests, in the order in which they were written
+     */
+    public record Recording(long startEpochMillis, List<RecordedRequest> requests) {
+    }
+
+    /**
+     * Writes the header and then requests to a stream. Not thread-safe; used by the recorder's writer thread.
+     */
+    static final class Encoder {
+
+        private final OutputStream out;
+        private final int maxStrings;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private long previousOffsetMicros;
+
+        Encoder(OutputStream out, long startEpochMillis) throws IOException {
+            this(out, startEpochMillis, MAX_INTERNED_STRINGS);
+        }
+
+        Encoder(OutputStream out, long startEpochMillis, int maxStrings) throws IOException {
+            this.out = out;
+            this.maxStrings = maxStrings;
+            byte[] header = new byte[HEADER_BYTES];
+            putInt(header, 0, MAGIC);
+            header[4] = (byte) (VERSION >>> 8);
+            header[5] = (byte) VERSION;
+            putInt(header, 8, (int) (startEpochMillis >>> 32));
+            putInt(header, 12, (int) startEpochMillis);
+            out.write(header);
+        }
+
+        void write(RecordedRequest request) throws IOException {
+            long delta = request.offsetMicros() - previousOffsetMicros;
+            previousOffsetMicros = request.offsetMicros();
+            writeVarint((delta << 1) ^ (delta >> 63));
+            out.write(request.endpoint().code());
+            writeString(request.gameId());
+            writeString(request.outcome());
+            writeVarint(request.status());
+            writeVarint(request.tokenBytes());
+            writeVarint(Math.max(request.latencyMicros(), 0));
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.write(0);
+                return;
+            }
+            Integer ref = strings.get(value);
+            if (ref != null) {
+                writeVarint(ref);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, MAX_STRING_BYTES);
+            if (strings.size() < maxStrings) {
+                int next = strings.size() + FIRST_STRING;
+                strings.put(value, next);
+                writeVarint(next);
+            } else {
+                writeVarint(INLINE_STRING);
+            }
+            out.write(length >>> 8);
+            out.write(length);
+            out.write(bytes, 0, length);
+        }
+
+        private void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static void putInt(byte[] bytes, int index, int value) {
+            bytes[index] = (byte) (value >>> 24);
+            bytes[index + 1] = (byte) (value >>> 16);
+            bytes[index + 2] = (byte) (value >>> 8);
+            bytes[index + 3] = (byte) value;
+        }
+    }
+
+    /**
+     * Reads a recording.
+     *
+     * @throws IOException if the file cannot be read or is not a recording of a supported version
+     */
+    public static Recording read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            byte[] header = in.readNBytes(HEADER_BYTES);
+            short version = (header.length < HEADER_BYTES) ? 0 : (short) (((header[4] & 0xFF) << 8) | (header[5] & 0xFF));
+            if (header.length < HEADER_BYTES || getInt(header, 0) != MAGIC || version < 1 || version > VERSION) {
+                throw new IOException(file + " is not a traffic recording of version 1 to " + VERSION);
+            }
+            int firstString = (version == 1) ? 1 : FIRST_STRING;
+            long start = ((long) getInt(header, 8) << 32) | (getInt(header, 12) & 0xFFFFFFFFL);
+            List<RecordedRequest> requests = new ArrayList<>();
+            List<String> strings = new ArrayList<>();
+            long offset = 0;
+            try {
+                while (true) {
+                    int first = in.read();
+                    if (first < 0) break;
+                    long zigzag = readVarint(in, first);
+                    RecordedRequest.Endpoint endpoint = RecordedRequest.Endpoint.of(readByte(in));
+                    if (endpoint == null) break;
+                    String game = readString(in, strings, firstString);
+                    String outcome = readString(in, strings, firstString);
+                    int status = (int) readVarint(in, readByte(in));
+                    int tokenBytes = (int) readVarint(in, readByte(in));
+                    long latency = readVarint(in, readByte(in));
+                    offset += (zigzag >>> 1) ^ -(zigzag & 1);
+                    requests.add(new RecordedRequest(offset, endpoint, game, outcome, status, tokenBytes, latency));
+                }
+            } catch (EOFException | CorruptRecordingException e) {
+                // a request cut short, e.g. by a crash, ends the recording
+            }
+            return new Recording(start, requests);
+        }
+    }
+
+    /**
+     * Returns the recordings in the given directory, oldest first.
+     */
+    public static List<Path> recordings(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (var files = Files.list(dir)) {
+            return files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static String readString(InputStream in, List<String> strings, int firstString) throws IOException {
+        long ref = readVarint(in, readByte(in));
+        if (ref == 0) return null;
+        long index = ref - firstString;
+        if (index >= 0 && index < strings.size()) return strings.get((int) index);
+        boolean inline = (firstString == FIRST_STRING && ref == INLINE_STRING);
+        if (!inline && index != strings.size()) throw new CorruptRecordingException();
+        int length = (readByte(in) << 8) | readByte(in);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) throw new EOFException();
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if (!inline) strings.add(value);
+        return value;
+    }
+
+    private static long readVarint(InputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 63) throw new CorruptRecordingException();
+            b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        return b;
+    }
+
+    private static int getInt(byte[] bytes, int index) {
+        return ((bytes[index] & 0xFF) << 24) | ((bytes[index + 1] & 0xFF) << 16)
+                | ((bytes[index + 2] & 0xFF) << 8) | (bytes[index + 3] & 0xFF);
+    }
+
+    private static final class CorruptRecordingException extends IOException {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.common.time;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time source of the application: a daemon thread stores the system time in a volatile field once
+ * per resolution, so reading the time costs a field read. The time returned lags the system clock
+ * by up to the resolution, which is far below the seconds expiry checks work with.
+ * A zero resolution reads the system clock on every call and starts no thread.
+ */
+public class CoarseTimeSource implements TimeSource {
+
+    private final long resolutionNanos;
+    private final Thread ticker;
+    private volatile long millis = System.currentTimeMillis();
+
+    /**
+     * Creates a time source that updates the time once per the given resolution.
+     *
+     * @param resolution how often the time is updated, zero to read the system clock on every call
+     */
+    public CoarseTimeSource(Duration resolution) {
+        this.resolutionNanos = resolution.toNanos();
+        if (resolutionNanos > 0) {
+            ticker = new Thread(this::tick, "coarse-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+        } else {
+            ticker = null;
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return (ticker != null) ? millis : System.currentTimeMillis();
+    }
+
+    private void tick() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(resolutionNanos);
+            millis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Stops updating the time.
+     */
+    public void close() {
+        if (ticker != null) ticker.interrupt();
+    }
+}
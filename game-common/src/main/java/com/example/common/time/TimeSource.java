@@ -0,0 +1,28 @@
+package com.example.common.time;
+
+import java.time.Instant;
+
+/**
+ * Source of the wall-clock time used for expiry checks. Hot paths compare epoch milliseconds
+ * returned by {@link #currentTimeMillis()} instead of creating Instants, and tests replace the
+ * source to move time forward without sleeping.
+ */
+public interface TimeSource {
+
+    /**
+     * The system clock, read on every call.
+     */
+    TimeSource SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Returns the current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns the current time as an Instant, for code that is not on a hot path.
+     */
+    default Instant now() {
+        return Instant.ofEpochMilli(currentTimeMillis());
+    }
+}
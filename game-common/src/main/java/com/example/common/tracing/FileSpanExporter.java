@@ -0,0 +1,61 @@
+package com.example.common.tracing;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends exported spans to a file, one JSON object per line. Every batch is written with a single
+ * open, write and close, so the file can be rotated or truncated between batches.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger LOG = Logger.getLogger(FileSpanExporter.class);
+
+    private final Path file;
+    private final String service;
+
+    public FileSpanExporter(Path file, String service) {
+        this.file = file;
+        this.service = service;
+    }
+
+    @Override
+    public void export(List<SpanData> spans) {
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (SpanData span : spans) {
+                    out.write(toJson(span));
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            LOG.warnf("Could not write %d spans to %s: %s", spans.size(), file, e.getMessage());
+        }
+    }
+
+    String toJson(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("service", service);
+        json.put("traceId", span.traceId());
+        json.put("spanId", span.spanId());
+        if (span.parentSpanId() != null) json.put("parentSpanId", span.parentSpanId());
+        json.put("name", span.name());
+        json.put("startEpochMicros", span.startEpochMicros());
+        json.put("durationNanos", span.durationNanos());
+        if (!span.attributes().isEmpty()) json.put("attributes", span.attributes());
+        return JSONObjectUtils.toJSONString(json);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.tracing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps exported spans in memory, for tests and local debugging.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void export(List<SpanData> batch) {
+        spans.addAll(batch);
+    }
+
+    public List<SpanData> getSpans() {
+        return List.copyOf(spans);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.common.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A timed operation within a trace, created by the {@link Tracer}. While a span is open it is the
+ * current span of the thread that started it, and spans started on that thread without an explicit
+ * parent become its children; ending it makes the previous span current again. Spans are meant to be
+ * used with try-with-resources on a single thread.
+ * When tracing is disabled, or the trace is not sampled, the tracer hands out {@link #NOOP}, on which
+ * every method does nothing.
+ */
+public class Span implements AutoCloseable {
+
+    /**
+     * The span that records nothing.
+     */
+    public static final Span NOOP = new Span(null, null, null, null, null, 0, 0, null);
+
+    private final Tracer tracer;
+    private final String name;
+    private final String spanId;
+    private final long startNanos;
+    private final long startEpochMicros;
+    private final Span previous;
+    private String traceId;
+    private String parentSpanId;
+    private Map<String, String> attributes;
+    private boolean ended;
+
+    Span(Tracer tracer, String name, String traceId, String spanId, String parentSpanId,
+         long startNanos, long startEpochMicros, Span previous) {
+        this.tracer = tracer;
+        this.name = name;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.startNanos = startNanos;
+        this.startEpochMicros = startEpochMicros;
+        this.previous = previous;
+    }
+
+    /**
+     * Returns whether the span is recorded, i.e. is not {@link #NOOP}.
+     */
+    public boolean isRecording() {
+        return tracer != null;
+    }
+
+    /**
+     * Returns the context to propagate to other services, or null if the span is not recorded.
+     */
+    public TraceContext context() {
+        return isRecording() ? new TraceContext(traceId, spanId, true) : null;
+    }
+
+    /**
+     * Sets an attribute of the span. Null values are ignored.
+     *
+     * @return this span
+     */
+    public Span setAttribute(String key, String value) {
+        if (isRecording() && value != null) {
+            if (attributes == null) attributes = new LinkedHashMap<>();
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Moves a root span into the trace of the given remote parent, for a parent that is only known
+     * after the span was started, e.g. one read from a token. Has no effect on a span that already has
+     * a parent; spans started as children before the call keep the previous trace ID.
+     *
+     * @param parent the remote parent, may be null
+     */
+    public void continueTrace(TraceContext parent) {
+        if (isRecording() && parent != null && parentSpanId == null) {
+            traceId = parent.traceId();
+            parentSpanId = parent.spanId();
+        }
+    }
+
+    /**
+     * Ends the span now.
+     */
+    public void end() {
+        end(System.nanoTime());
+    }
+
+    /**
+     * Ends the span at the given time, e.g. for an operation that was timed before its span could be
+     * started. Ending a span twice has no effect.
+     *
+     * @param endNanos the end of the span as a {@link System#nanoTime()} value
+     */
+    public void end(long endNanos) {
+        if (!isRecording() || ended) return;
+        ended = true;
+        tracer.finish(this, previous, new SpanData(traceId, spanId, parentSpanId, name, startEpochMicros,
+                endNanos - startNanos, (attributes != null) ? attributes : Map.of()));
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    String spanId() {
+        return spanId;
+    }
+}
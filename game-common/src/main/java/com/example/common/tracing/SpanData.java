@@ -0,0 +1,18 @@
+package com.example.common.tracing;
+
+import java.util.Map;
+
+/**
+ * A finished span as handed to a {@link SpanExporter}.
+ *
+ * @param traceId the ID of the trace the span belongs to
+ * @param spanId the ID of the span
+ * @param parentSpanId the ID of the parent span, possibly in another service; null for a root span
+ * @param name the operation the span covers
+ * @param startEpochMicros the wall-clock start of the span in microseconds since the epoch
+ * @param durationNanos the duration of the span in nanoseconds
+ * @param attributes the attributes of the span
+ */
+public record SpanData(String traceId, String spanId, String parentSpanId, String name,
+                       long startEpochMicros, long durationNanos, Map<String, String> attributes) {
+}
@@ -0,0 +1,16 @@
+package com.example.common.tracing;
+
+import java.util.List;
+
+/**
+ * Receives finished spans in batches from the {@link Tracer}'s export thread.
+ */
+public interface SpanExporter {
+
+    /**
+     * Exports a batch of finished spans. Called from a single background thread.
+     *
+     * @param spans the spans, in the order in which they ended
+     */
+    void export(List<SpanData> spans);
+}
@@ -0,0 +1,50 @@
+package com.example.common.tracing;
+
+/**
+ * The identity of a span as carried between services, in the format of the W3C {@code traceparent}
+ * header: {@code 00-<32 hex trace id>-<16 hex span id>-<2 hex flags>}.
+ *
+ * @param traceId the 32 lowercase hex digit ID of the trace
+ * @param spanId the 16 lowercase hex digit ID of the span
+ * @param sampled whether the trace is recorded
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    private static final int LENGTH = 55;
+
+    /**
+     * Parses a {@code traceparent} value.
+     *
+     * @param traceparent the header or claim value, may be null
+     * @return the context; null if the value is absent or malformed
+     */
+    public static TraceContext parse(String traceparent) {
+        if (traceparent == null || traceparent.length() != LENGTH
+                || !traceparent.startsWith("00-") || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        String flags = traceparent.substring(53);
+        if (!isHex(traceId) || !isHex(spanId) || !isHex(flags)
+                || traceId.equals("00000000000000000000000000000000") || spanId.equals("0000000000000000")) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, (Character.digit(flags.charAt(1), 16) & 1) == 1);
+    }
+
+    /**
+     * Returns the context in the {@code traceparent} format.
+     */
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    private static boolean isHex(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+}
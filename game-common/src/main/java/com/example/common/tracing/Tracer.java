@@ -0,0 +1,235 @@
+package com.example.common.tracing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creates spans and exports them asynchronously. Finished spans are put into a bounded queue and
+ * handed to the {@link SpanExporter} in batches by a single daemon thread, either when a batch is full
+ * or after the flush interval; when the queue is full, spans are dropped and counted instead of
+ * blocking the request. Spans are written to a file as JSON lines when a file is configured and
+ * logged otherwise.
+ * Tracing is disabled by default; a disabled tracer hands out {@link Span#NOOP} and costs a field read
+ * per span. Each service produces its tracer from its own configuration and flushes it on shutdown.
+ */
+public class Tracer implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(Tracer.class);
+
+    private final String metricPrefix;
+    private final boolean enabled;
+    private final SpanExporter exporter;
+    private final BlockingQueue<SpanData> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread exportThread;
+    private volatile boolean inExport;
+
+    /**
+     * Creates a disabled tracer.
+     */
+    public Tracer() {
+        this("tracing", false, null, 1, 1, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Creates a tracer exporting to the given exporter.
+     *
+     * @param metricPrefix the prefix of the tracer's metrics, the service's configuration prefix
+     * @param enabled whether spans are recorded at all
+     * @param exporter the exporter receiving batches of finished spans; null logs them
+     * @param queueSize the number of finished spans buffered before spans are dropped
+     * @param batchSize the maximum number of spans per export
+     * @param flushInterval the maximum time a finished span waits for its export
+     */
+    public Tracer(String metricPrefix, boolean enabled, SpanExporter exporter, int queueSize, int batchSize,
+                  Duration flushInterval) {
+        this.metricPrefix = metricPrefix;
+        this.enabled = enabled;
+        this.exporter = (exporter != null) ? exporter : Tracer::log;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        this.batchSize = Math.max(batchSize, 1);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        if (enabled) {
+            exportThread = new Thread(this::exportLoop, "span-export");
+            exportThread.setDaemon(true);
+            exportThread.start();
+        } else {
+            exportThread = null;
+        }
+    }
+
+    /**
+     * Starts a span as a child of the given remote parent and makes it the current span of the thread.
+     *
+     * @param name the operation the span covers
+     * @param parent the parent propagated from another service, or null to start a new trace
+     * @return the span; {@link Span#NOOP} if tracing is disabled or the parent is not sampled
+     */
+    public Span startSpan(String name, TraceContext parent) {
+        return startSpan(name, parent, System.nanoTime());
+    }
+
+    /**
+     * Starts a span at the given time, for an operation that was timed before its parent was known.
+     *
+     * @param name the operation the span covers
+     * @param parent the parent propagated from another service, or null to start a new trace
+     * @param startNanos the start of the span as a {@link System#nanoTime()} value
+     * @return the span; {@link Span#NOOP} if tracing is disabled or the parent is not sampled
+     */
+    public Span startSpan(String name, TraceContext parent, long startNanos) {
+        if (!enabled || (parent != null && !parent.sampled())) return Span.NOOP;
+        String traceId = (parent != null) ? parent.traceId() : newTraceId();
+        return open(name, traceId, (parent != null) ? parent.spanId() : null, startNanos);
+    }
+
+    /**
+     * Starts a span as a child of the current span of the thread. Work done outside of a traced
+     * request, e.g. in background threads, is not traced.
+     *
+     * @param name the operation the span covers
+     * @return the span; {@link Span#NOOP} if the thread has no current span
+     */
+    public Span startChildSpan(String name) {
+        return startChildSpan(name, System.nanoTime());
+    }
+
+    /**
+     * Starts a span as a child of the current span of the thread at the given time, for an operation
+     * that was timed before its parent span was started.
+     *
+     * @param name the operation the span covers
+     * @param startNanos the start of the span as a {@link System#nanoTime()} value
+     * @return the span; {@link Span#NOOP} if the thread has no current span
+     */
+    public Span startChildSpan(String name, long startNanos) {
+        Span parent = enabled ? current.get() : null;
+        if (parent == null) return Span.NOOP;
+        return open(name, parent.traceId(), parent.spanId(), startNanos);
+    }
+
+    /**
+     * Returns the current span of the thread, or {@link Span#NOOP} if there is none.
+     */
+    public Span currentSpan() {
+        Span span = enabled ? current.get() : null;
+        return (span != null) ? span : Span.NOOP;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getExported() {
+        return exported.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Exports all finished spans that are still queued, waiting at most the given time.
+     *
+     * @return true if the queue was drained
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!queue.isEmpty() || inExport) {
+            if (System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(metricPrefix + ".tracing.spans.exported", exported, LongAdder::sum)
+                .description("Spans handed to the span exporter")
+                .register(registry);
+        FunctionCounter.builder(metricPrefix + ".tracing.spans.dropped", dropped, LongAdder::sum)
+                .description("Spans dropped because the export queue was full")
+                .register(registry);
+    }
+
+    void finish(Span span, Span previous, SpanData data) {
+        if (current.get() == span) {
+            if (previous != null) current.set(previous); else current.remove();
+        }
+        if (!queue.offer(data)) {
+            dropped.increment();
+        }
+    }
+
+    private Span open(String name, String traceId, String parentSpanId, long startNanos) {
+        long epochMicros = System.currentTimeMillis() * 1000 - (System.nanoTime() - startNanos) / 1000;
+        Span span = new Span(this, name, traceId, newSpanId(), parentSpanId, startNanos, epochMicros, current.get());
+        current.set(span);
+        return span;
+    }
+
+    private void exportLoop() {
+        List<SpanData> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                SpanData first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                inExport = true;
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    long left = deadline - System.nanoTime();
+                    SpanData next = (left > 0) ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                exporter.export(batch);
+                exported.add(batch.size());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                LOG.warnf("Span export failed, dropping %d spans: %s", batch.size(), e.getMessage());
+                dropped.add(batch.size());
+            } finally {
+                batch.clear();
+                inExport = false;
+            }
+        }
+    }
+
+    private static void log(List<SpanData> spans) {
+        for (SpanData span : spans) {
+            LOG.infof("span %s trace=%s id=%s parent=%s %.3f ms %s", span.name(), span.traceId(), span.spanId(),
+                    span.parentSpanId(), span.durationNanos() / 1e6, span.attributes());
+        }
+    }
+
+    private static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return hex(random.nextLong()) + hex(random.nextLong() | 1);
+    }
+
+    private static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong() | 1);
+    }
+
+    private static String hex(long value) {
+        String s = Long.toHexString(value);
+        return (s.length() == 16) ? s : "0000000000000000".substring(s.length()) + s;
+    }
+}
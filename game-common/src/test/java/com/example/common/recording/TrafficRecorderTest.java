@@ -0,0 +1,100 @@
+package com.example.common.recording;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRequestsAreRecordedAndReadBack() throws Exception {
+        TrafficRecorder recorder = new TrafficRecorder("test", true, dir, 16);
+        long start = System.nanoTime();
+
+        recorder.record(RecordedRequest.Endpoint.PLAY, start, "game-slots", "ok", 200, 620);
+        recorder.record(RecordedRequest.Endpoint.PLAY, start + 2_000_000, "game-slots", "expired_token", 401, 620);
+        recorder.record(RecordedRequest.Endpoint.PLAY, start + 1_000_000, null, "missing_token", 401, 0);
+        assertTrue(recorder.flush(Duration.ofSeconds(2)));
+
+        assertEquals(List.of(recorder.getFile()), TrafficRecording.recordings(dir));
+        TrafficRecording.Recording recording = TrafficRecording.read(recorder.getFile());
+        List<RecordedRequest> requests = recording.requests();
+        assertEquals(3, requests.size());
+        assertEquals(List.of("ok", "expired_token", "missing_token"),
+                requests.stream().map(RecordedRequest::outcome).toList());
+        assertEquals(Arrays.asList("game-slots", "game-slots", null),
+                requests.stream().map(RecordedRequest::gameId).toList());
+        assertEquals(2000, requests.get(1).offsetMicros() - requests.get(0).offsetMicros());
+        assertEquals(-1000, requests.get(2).offsetMicros() - requests.get(1).offsetMicros());
+        assertEquals(List.of(200, 401, 401), requests.stream().map(RecordedRequest::status).toList());
+        assertEquals(620, requests.get(0).tokenBytes());
+        assertTrue(requests.get(0).latencyMicros() >= 0);
+        assertEquals(3, recorder.getRecorded());
+        assertEquals(0, recorder.getDropped());
+    }
+
+    @Test
+    void testRecordingCutShortIsReadUpToLastCompleteRequest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrafficRecording.Encoder encoder = new TrafficRecording.Encoder(out, 1_000);
+        for (int i = 0; i < 10; i++) {
+            encoder.write(new RecordedRequest(i * 100_000L, RecordedRequest.Endpoint.ISSUE, "game-" + (i % 3), "ok",
+                    200, 640, 150));
+        }
+        encoder.flush();
+        byte[] bytes = out.toByteArray();
+        Path file = dir.resolve("cut.rec");
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        TrafficRecording.Recording recording = TrafficRecording.read(file);
+
+        assertEquals(1_000, recording.startEpochMillis());
+        assertEquals(9, recording.requests().size());
+        assertEquals(new RecordedRequest(800_000, RecordedRequest.Endpoint.ISSUE, "game-2", "ok", 200, 640, 150),
+                recording.requests().get(8));
+        assertTrue(bytes.length < TrafficRecording.HEADER_BYTES + 10 * 16, "Requests should take a few bytes each");
+    }
+
+    @Test
+    void testStringsBeyondInternedOnesAreWrittenInline() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrafficRecording.Encoder encoder = new TrafficRecording.Encoder(out, 1_000, 2);
+        List<RecordedRequest> written = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            written.add(new RecordedRequest(i * 1_000L, RecordedRequest.Endpoint.PLAY, "game-" + (i % 5), "ok",
+                    200, 640, 150));
+        }
+        for (RecordedRequest request : written) {
+            encoder.write(request);
+        }
+        encoder.flush();
+        Path file = dir.resolve("many-games.rec");
+        Files.write(file, out.toByteArray());
+
+        assertEquals(written, TrafficRecording.read(file).requests());
+    }
+
+    @Test
+    void testDisabledRecorderIgnoresRequests() throws Exception {
+        TrafficRecorder recorder = new TrafficRecorder();
+
+        recorder.record(RecordedRequest.Endpoint.PLAY, System.nanoTime(), "game-slots", "ok", 200, 620);
+
+        assertFalse(recorder.isEnabled());
+        assertNull(recorder.getFile());
+        assertTrue(recorder.flush(Duration.ofSeconds(1)));
+        assertEquals(0, recorder.getRecorded());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.common.time;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoarseTimeSourceTest {
+
+    @Test
+    void shouldFollowSystemClockWithinResolution() throws InterruptedException {
+        CoarseTimeSource time = new CoarseTimeSource(Duration.ofMillis(5));
+        try {
+            long start = time.currentTimeMillis();
+            assertTrue(Math.abs(System.currentTimeMillis() - start) < 1_000);
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (time.currentTimeMillis() < start + 50 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(time.currentTimeMillis() >= start + 50, "The cached time should advance");
+        } finally {
+            time.close();
+        }
+    }
+
+    @Test
+    void shouldReadSystemClockWithZeroResolution() {
+        CoarseTimeSource time = new CoarseTimeSource(Duration.ZERO);
+
+        long before = System.currentTimeMillis();
+        long now = time.currentTimeMillis();
+
+        assertTrue(now >= before && now <= System.currentTimeMillis());
+    }
+}
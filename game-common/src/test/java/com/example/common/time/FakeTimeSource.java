@@ -0,0 +1,32 @@
+package com.example.common.time;
+
+import java.time.Duration;
+
+/**
+ * Time source for tests whose time only moves when the test moves it.
+ */
+public class FakeTimeSource implements TimeSource {
+
+    private volatile long millis;
+
+    public FakeTimeSource() {
+        this(System.currentTimeMillis());
+    }
+
+    public FakeTimeSource(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return millis;
+    }
+
+    public void advance(Duration duration) {
+        millis += duration.toMillis();
+    }
+
+    public void set(long millis) {
+        this.millis = millis;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.common.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Test
+    void testTraceContextRoundTrip() {
+        TraceContext context = TraceContext.parse(TRACEPARENT);
+
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.traceId());
+        assertEquals("00f067aa0ba902b7", context.spanId());
+        assertTrue(context.sampled());
+        assertEquals(TRACEPARENT, context.traceparent());
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+    }
+
+    @Test
+    void testChildSpansContinueRemoteParentAndAreExportedInBatches() throws Exception {
+        InMemorySpanExporter exporter = new InMemorySpanExporter();
+        Tracer tracer = new Tracer("test", true, exporter, 16, 16, Duration.ofMillis(50));
+
+        try (Span request = tracer.startSpan("play", TraceContext.parse(TRACEPARENT))) {
+            request.setAttribute("game", "game-slots");
+            try (Span child = tracer.startChildSpan("signature.verify")) {
+                assertSame(child, tracer.currentSpan());
+            }
+            assertSame(request, tracer.currentSpan());
+        }
+        assertFalse(tracer.currentSpan().isRecording(), "Ending the request span should clear the current span");
+        assertTrue(tracer.flush(Duration.ofSeconds(2)));
+
+        List<SpanData> spans = exporter.getSpans();
+        assertEquals(2, spans.size());
+        SpanData child = spans.get(0);
+        SpanData request = spans.get(1);
+        assertEquals("signature.verify", child.name());
+        assertEquals(request.spanId(), child.parentSpanId());
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", request.traceId());
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", child.traceId());
+        assertEquals("00f067aa0ba902b7", request.parentSpanId());
+        assertEquals("game-slots", request.attributes().get("game"));
+        assertEquals(2, tracer.getExported());
+    }
+
+    @Test
+    void testDisabledTracerAndUnsampledParentsRecordNothing() {
+        Tracer disabled = new Tracer();
+        Tracer enabled = new Tracer("test", true, new InMemorySpanExporter(), 16, 16, Duration.ofMillis(50));
+
+        assertSame(Span.NOOP, disabled.startSpan("play", null));
+        assertSame(Span.NOOP, enabled.startChildSpan("signature.verify"), "Spans outside a request should not be recorded");
+        assertSame(Span.NOOP, enabled.startSpan("play",
+                TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00")));
+    }
+
+    @Test
+    void testFullQueueDropsSpans() {
+        Tracer tracer = new Tracer("test", true, spans -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2, 1, Duration.ofMillis(1));
+
+        for (int i = 0; i < 10; i++) {
+            tracer.startSpan("play", null).end();
+        }
+
+        assertTrue(tracer.getDropped() >= 7, "Spans beyond the queue capacity should be dropped");
+    }
+}
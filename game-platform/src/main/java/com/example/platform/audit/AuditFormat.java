@@ -0,0 +1,130 @@
+package com.example.platform.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary layout of audit segments. A segment starts with a 16-byte header: the magic number, the
+ * format version, two reserved bytes and the creation time in epoch milliseconds. Records follow
+ * back to back, each as
+ * <pre>
+ * int     length of the rest of the record
+ * byte    type code
+ * long    timestamp in epoch milliseconds
+ * 4 x     string: unsigned short byte length (0xFFFF for null) followed by UTF-8 bytes
+ *         (tenant, username, gameId, jti)
+ * </pre>
+ * A length of 0 marks the end of the written part of a segment; the rest of the file is zeroes.
+ * The length is written after the rest of the record, so a reader never sees a length whose record
+ * is incomplete. All numbers are big-endian.
+ */
+public final class AuditFormat {
+
+    public static final int MAGIC = 0x47504155; // "GPAU"
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final String SEGMENT_PREFIX = "audit-";
+    public static final String SEGMENT_SUFFIX = ".seg";
+
+    static final int MAX_STRING_BYTES = 0xFFFE;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private AuditFormat() {
+    }
+
+    static void writeHeader(ByteBuffer segment, long createdAtMillis) {
+        segment.putInt(0, MAGIC);
+        segment.putShort(4, VERSION);
+        segment.putLong(8, createdAtMillis);
+    }
+
+    /**
+     * Returns whether the segment starts with a header of a supported version.
+     */
+    public static boolean hasValidHeader(ByteBuffer segment) {
+        return segment.limit() >= HEADER_BYTES && segment.getInt(0) == MAGIC && segment.getShort(4) == VERSION;
+    }
+
+    /**
+     * Encodes the strings of a record. Strings longer than {@link #MAX_STRING_BYTES} bytes are cut.
+     */
+    static byte[][] encodeStrings(AuditRecord record) {
+        return new byte[][]{encode(record.tenant()), encode(record.username()), encode(record.gameId()),
+                encode(record.jti())};
+    }
+
+    /**
+     * Returns the number of bytes the record takes in a segment, including its length.
+     */
+    static int recordBytes(byte[][] strings) {
+        int size = 4 + 1 + 8;
+        for (byte[] s : strings) {
+            size += 2 + (s != null ? s.length : 0);
+        }
+        return size;
+    }
+
+    /**
+     * Writes a record at the given position, the length last.
+     */
+    static void writeRecord(ByteBuffer segment, int position, AuditRecord record, byte[][] strings, int size) {
+        int p = position + 4;
+        segment.put(p, record.type().code());
+        segment.putLong(p + 1, record.timestampMillis());
+        p += 9;
+        for (byte[] s : strings) {
+            if (s == null) {
+                segment.putShort(p, (short) NULL_STRING);
+                p += 2;
+            } else {
+                segment.putShort(p, (short) s.length);
+                segment.put(p + 2, s);
+                p += 2 + s.length;
+            }
+        }
+        segment.putInt(position, size - 4);
+    }
+
+    /**
+     * Reads the record at the buffer's position and advances past it.
+     *
+     * @return the record, or null at the end of the written part or at a record that is incomplete
+     *         or of an unknown type
+     */
+    public static AuditRecord readRecord(ByteBuffer segment) {
+        if (segment.remaining() < 4) return null;
+        int start = segment.position();
+        int length = segment.getInt(start);
+        if (length < 9 || length > segment.remaining() - 4) return null;
+        AuditRecord.Type type = AuditRecord.Type.of(segment.get(start + 4));
+        if (type == null) return null;
+        long timestamp = segment.getLong(start + 5);
+        int end = start + 4 + length;
+        int p = start + 13;
+        String[] strings = new String[4];
+        for (int i = 0; i < strings.length; i++) {
+            if (p + 2 > end) return null;
+            int len = segment.getShort(p) & 0xFFFF;
+            p += 2;
+            if (len == NULL_STRING) continue;
+            if (p + len > end) return null;
+            byte[] bytes = new byte[len];
+            segment.get(p, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            p += len;
+        }
+        segment.position(end);
+        return new AuditRecord(type, timestamp, strings[0], strings[1], strings[2], strings[3]);
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) return null;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            byte[] cut = new byte[MAX_STRING_BYTES];
+            System.arraycopy(bytes, 0, cut, 0, cut.length);
+            return cut;
+        }
+        return bytes;
+    }
+}
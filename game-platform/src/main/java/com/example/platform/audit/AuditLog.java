@@ -0,0 +1,312 @@
+package com.example.platform.audit;
+
+import com.example.platform.model.Tenant;
+import com.example.common.time.TimeSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records logins, refreshes, logouts and issued tokens for compliance without adding I/O to the
+ * request. Request threads put records into a lock-free {@link RingBuffer}; a single writer thread
+ * takes them out in batches and appends them to memory-mapped segment files, see
+ * {@link AuditSegmentWriter} and {@link AuditFormat}. Segments are forced to disk once per flush
+ * interval. {@link AuditReader} prints the segments offline.
+ * When the buffer is full, a record is dropped right away with {@link OverflowPolicy#DROP}; with
+ * {@link OverflowPolicy#BLOCK} the request thread waits for the writer up to the block timeout and
+ * drops the record only then. Dropped records and records that could not be written or forced to disk are
+ * counted; the writer keeps running after such errors.
+ * The audit log is disabled by default; a disabled log ignores records at the cost of a field read.
+ */
+@ApplicationScoped
+public class AuditLog implements MeterBinder {
+
+    /**
+     * What a request thread does when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private static final Logger LOG = Logger.getLogger(AuditLog.class);
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = 5_000_000;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    private static final int MAX_SEGMENT_SIZE_MB = 2047;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final RingBuffer<AuditRecord> buffer;
+    private final OverflowPolicy overflow;
+    private final long blockTimeoutNanos;
+    private final long flushIntervalNanos;
+    private final TimeSource timeSource;
+    private final AuditSegmentWriter writer;
+    private final Thread writerThread;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private volatile boolean closed;
+    private volatile boolean inWrite;
+
+    /**
+     * Creates a disabled audit log.
+     */
+    public AuditLog() {
+        this(false, (Path) null, 2, 0, OverflowPolicy.DROP, Duration.ZERO, Duration.ofSeconds(1), TimeSource.SYSTEM);
+    }
+
+    @Inject
+    public AuditLog(@ConfigProperty(name = "platform.audit.enabled", defaultValue = "false") boolean enabled,
+                    @ConfigProperty(name = "platform.audit.dir", defaultValue = "data/audit") String dir,
+                    @ConfigProperty(name = "platform.audit.capacity", defaultValue = "8192") int capacity,
+                    @ConfigProperty(name = "platform.audit.segment-size-mb", defaultValue = "64") int segmentSizeMb,
+                    @ConfigProperty(name = "platform.audit.overflow", defaultValue = "block") OverflowPolicy overflow,
+                    @ConfigProperty(name = "platform.audit.block-timeout", defaultValue = "PT1S") Duration blockTimeout,
+                    @ConfigProperty(name = "platform.audit.flush-interval", defaultValue = "PT1S") Duration flushInterval,
+                    TimeSource timeSource) {
+        this(enabled, Path.of(dir), capacity, segmentBytes(segmentSizeMb), overflow, blockTimeout, flushInterval,
+                timeSource);
+    }
+
+    /**
+     * Creates an audit log writing to the given directory.
+     *
+     * @param enabled whether records are written at all
+     * @param dir the directory of the segment files
+     * @param capacity the number of records buffered for the writer, rounded up to a power of two
+     * @param segmentBytes the size of a segment file
+     * @param overflow what a request thread does when the buffer is full
+     * @param blockTimeout how long a request thread waits for space with {@link OverflowPolicy#BLOCK}
+     * @param flushInterval how often written records are forced to disk
+     * @param timeSource the clock records are stamped with
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public AuditLog(boolean enabled, Path dir, int capacity, int segmentBytes, OverflowPolicy overflow,
+                    Duration blockTimeout, Duration flushInterval, TimeSource timeSource) {
+        this(enabled, dir, enabled ? newWriter(dir, segmentBytes) : null, capacity, overflow, blockTimeout,
+                flushInterval, timeSource);
+    }
+
+    AuditLog(boolean enabled, Path dir, AuditSegmentWriter writer, int capacity, OverflowPolicy overflow,
+             Duration blockTimeout, Duration flushInterval, TimeSource timeSource) {
+        this.enabled = enabled;
+        this.directory = dir;
+        this.buffer = new RingBuffer<>(enabled ? capacity : 2);
+        this.overflow = overflow;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.timeSource = timeSource;
+        this.writer = writer;
+        if (enabled) {
+            writerThread = new Thread(this::writeLoop, "audit-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            writerThread = null;
+        }
+    }
+
+    public void login(Tenant tenant, String username) {
+        append(AuditRecord.Type.LOGIN, tenant, username, null, null);
+    }
+
+    public void loginFailed(Tenant tenant, String username) {
+        append(AuditRecord.Type.LOGIN_FAILED, tenant, username, null, null);
+    }
+
+    public void refresh(Tenant tenant, String username) {
+        append(AuditRecord.Type.REFRESH, tenant, username, null, null);
+    }
+
+    public void logout(Tenant tenant, String username) {
+        append(AuditRecord.Type.LOGOUT, tenant, username, null, null);
+    }
+
+    public void tokenIssued(Tenant tenant, String username, String gameId, String jti) {
+        append(AuditRecord.Type.TOKEN_ISSUED, tenant, username, gameId, jti);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Waits until the records buffered so far are written to the current segment, at most the given time.
+     *
+     * @return true if the buffer was drained
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        if (!enabled) return true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (buffer.size() > 0 || inWrite) {
+            if (System.nanoTime() - deadline > 0) return false;
+            LockSupport.unpark(writerThread);
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerRecords(registry, "written", written);
+        registerRecords(registry, "dropped", dropped);
+        registerRecords(registry, "failed", failed);
+        FunctionCounter.builder("platform.audit.blocked", blocked, LongAdder::sum)
+                .description("Audit records whose request waited for space in the buffer")
+                .register(registry);
+        Gauge.builder("platform.audit.buffer.size", buffer, RingBuffer::size)
+                .description("Audit records waiting for the writer")
+                .register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) LOG.infof("Writing audit log to %s", directory.toAbsolutePath());
+    }
+
+    void onStop(@Observes ShutdownEvent event) throws InterruptedException {
+        close(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Stops accepting records, writes the buffered ones and closes the current segment.
+     */
+    void close(Duration timeout) throws InterruptedException {
+        if (!enabled || closed) return;
+        closed = true;
+        LockSupport.unpark(writerThread);
+        writerThread.join(timeout.toMillis());
+    }
+
+    private void append(AuditRecord.Type type, Tenant tenant, String username, String gameId, String jti) {
+        if (!enabled) return;
+        AuditRecord record = new AuditRecord(type, timeSource.currentTimeMillis(),
+                (tenant != null) ? tenant.id() : null, username, gameId, jti);
+        if (closed) {
+            dropped.increment();
+        } else if (!buffer.offer(record) && !awaitSpace(record)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean awaitSpace(AuditRecord record) {
+        if (overflow != OverflowPolicy.BLOCK) return false;
+        blocked.increment();
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        do {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(record)) return true;
+        } while (!closed && System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    private void writeLoop() {
+        long lastForce = System.nanoTime();
+        long unforced = 0;
+        while (true) {
+            // read before draining, so that records offered before close() are still written
+            boolean closing = closed;
+            inWrite = true;
+            int count = 0;
+            try {
+                AuditRecord record;
+                while (count < BATCH_SIZE && (record = buffer.poll()) != null) {
+                    if (write(record)) unforced++;
+                    count++;
+                }
+                if (System.nanoTime() - lastForce >= flushIntervalNanos) {
+                    lastForce = System.nanoTime();
+                    writer.force();
+                    unforced = 0;
+                }
+            } catch (RuntimeException e) {
+                // the records stay in the mapped segment, but are not known to be on disk
+                failed.add(unforced);
+                LOG.errorf("Could not force %d audit records in %s to disk: %s", unforced, writer.currentSegment(),
+                        e.getMessage());
+                unforced = 0;
+            } finally {
+                inWrite = false;
+            }
+            if (count == 0) {
+                if (closing) break;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            LOG.errorf("Could not close audit segment %s: %s", writer.currentSegment(), e.getMessage());
+        }
+    }
+
+    private boolean write(AuditRecord record) {
+        try {
+            writer.append(record);
+            written.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            LOG.errorf("Could not write %s audit record of %s: %s", record.type(), record.username(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the size of a segment in bytes; segments are mapped into memory as a whole and must stay below 2 GB.
+     *
+     * @throws IllegalArgumentException if the size is not between 1 and 2047 MB
+     */
+    static int segmentBytes(int segmentSizeMb) {
+        if (segmentSizeMb < 1 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException("platform.audit.segment-size-mb must be between 1 and "
+                    + MAX_SEGMENT_SIZE_MB + ", was " + segmentSizeMb);
+        }
+        return segmentSizeMb * 1024 * 1024;
+    }
+
+    private static AuditSegmentWriter newWriter(Path dir, int segmentBytes) {
+        try {
+            return new AuditSegmentWriter(dir, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write audit log to " + dir, e);
+        }
+    }
+
+    private static void registerRecords(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("platform.audit.records", adder, LongAdder::sum)
+                .description("Audit records by result: written, dropped because the buffer was full, or failed to write or force to disk")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.platform.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Prints audit segments offline, one record per line with tab-separated timestamp, type, tenant,
+ * username, game and jti; missing values are printed as {@code -}. Arguments are segment files or
+ * directories of segments, {@code data/audit} by default; segments of a directory are printed in the
+ * order they were written. Needs nothing but the JDK and the platform jar:
+ * <pre>
+ * java -cp target/quarkus-app/app/game-platform-1.0.0-SNAPSHOT.jar com.example.platform.audit.AuditReader data/audit
+ * </pre>
+ * Segments that are still being written can be read; records not yet completely written are skipped.
+ */
+public final class AuditReader {
+
+    private AuditReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        for (String arg : (args.length > 0) ? args : new String[]{"data/audit"}) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                segments.addAll(segments(path));
+            } else {
+                segments.add(path);
+            }
+        }
+        PrintStream out = System.out;
+        StringBuilder line = new StringBuilder(256);
+        for (Path segment : segments) {
+            if (!read(segment, record -> out.println(format(record, line)))) {
+                System.err.println("Skipping " + segment + ": not an audit segment");
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns the segment files in the given directory, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.startsWith(AuditFormat.SEGMENT_PREFIX) && name.endsWith(AuditFormat.SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Passes the records of the given segment to the consumer in the order they were written.
+     *
+     * @return false if the file is not an audit segment
+     */
+    public static boolean read(Path segment, Consumer<AuditRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!AuditFormat.hasValidHeader(buffer)) return false;
+            buffer.position(AuditFormat.HEADER_BYTES);
+            AuditRecord record;
+            while ((record = AuditFormat.readRecord(buffer)) != null) {
+                consumer.accept(record);
+            }
+            return true;
+        }
+    }
+
+    static String format(AuditRecord record, StringBuilder line) {
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(record.timestampMillis())).append('\t')
+                .append(record.type()).append('\t');
+        append(line, record.tenant()).append('\t');
+        append(line, record.username()).append('\t');
+        append(line, record.gameId()).append('\t');
+        return append(line, record.jti()).toString();
+    }
+
+    private static StringBuilder append(StringBuilder line, String value) {
+        return line.append((value != null) ? value : "-");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.platform.audit;
+
+/**
+ * An entry of the audit log.
+ *
+ * @param type what happened
+ * @param timestampMillis when it happened, in epoch milliseconds
+ * @param tenant the ID of the tenant it happened in, null if unknown
+ * @param username the player, as entered for failed logins
+ * @param gameId the game a token was issued for, null for other types
+ * @param jti the ID of the issued token, null for other types
+ */
+public record AuditRecord(Type type, long timestampMillis, String tenant, String username, String gameId, String jti) {
+
+    /**
+     * The kinds of audited events, with the code they are stored as.
+     */
+    public enum Type {
+        LOGIN(1),
+        LOGIN_FAILED(2),
+        REFRESH(3),
+        LOGOUT(4),
+        TOKEN_ISSUED(5);
+
+        private static final Type[] BY_CODE = new Type[6];
+
+        static {
+            for (Type type : values()) {
+                BY_CODE[type.code] = type;
+            }
+        }
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        /**
+         * Returns the type stored as the given code, or null for an unknown code.
+         */
+        public static Type of(int code) {
+            return (code > 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.platform.audit;
+
+import org.jboss.logging.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends audit records to memory-mapped segment files of a fixed size in the {@link AuditFormat}.
+ * A record that does not fit into the rest of the current segment starts a new one, so a record never
+ * spans two segments. Segments are named after their creation time, which orders them
+ * chronologically, and never overwritten. Written records are in the page cache, and thus survive a
+ * crash of the process, as soon as they are written; {@link #force()} also writes them to disk.
+ * Not thread-safe; used by the single writer thread of the {@link AuditLog}.
+ */
+class AuditSegmentWriter implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(AuditSegmentWriter.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private Path segmentFile;
+    private int position;
+    private boolean dirty;
+
+    AuditSegmentWriter(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Appends the record, starting a new segment if it does not fit into the current one.
+     *
+     * @throws IOException if a new segment cannot be created
+     * @throws IllegalArgumentException if the record is larger than a segment
+     */
+    void append(AuditRecord record) throws IOException {
+        byte[][] strings = AuditFormat.encodeStrings(record);
+        int size = AuditFormat.recordBytes(strings);
+        if (size > segmentBytes - AuditFormat.HEADER_BYTES - 4) {
+            throw new IllegalArgumentException("Audit record of " + size + " bytes does not fit into a segment");
+        }
+        // keep 4 zero bytes after the record as end marker
+        if (segment == null || position + size + 4 > segmentBytes) {
+            rotate(record.timestampMillis());
+        }
+        AuditFormat.writeRecord(segment, position, record, strings, size);
+        position += size;
+        dirty = true;
+    }
+
+    /**
+     * Writes the records appended since the last call to disk.
+     */
+    void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    Path currentSegment() {
+        return segmentFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+            channel = null;
+            segment = null;
+        }
+    }
+
+    private void rotate(long nowMillis) throws IOException {
+        close();
+        long created = nowMillis;
+        while (true) {
+            Path file = directory.resolve(String.format("%s%013d%s", AuditFormat.SEGMENT_PREFIX, created, AuditFormat.SEGMENT_SUFFIX));
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segmentFile = file;
+                break;
+            } catch (FileAlreadyExistsException e) {
+                created++;
+            }
+        }
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        AuditFormat.writeHeader(segment, nowMillis);
+        position = AuditFormat.HEADER_BYTES;
+        LOG.debugf("Writing audit records to %s", segmentFile);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.platform.health;
+
+import com.example.platform.service.PlatformWarmup;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Reports the platform as ready only after the startup warmup has finished, so load balancers
+ * do not route traffic to an instance whose signing path still runs in the interpreter.
+ */
+@Readiness
+public class WarmupReadinessCheck implements HealthCheck {
+
+    private final PlatformWarmup warmup;
+
+    public WarmupReadinessCheck(PlatformWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("warmup")
+                .status(warmup.isComplete())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.platform.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event covering the creation and RSA signature of one token, so that CPU samples
+ * taken during issuance can be attributed to tenants, keys and games.
+ * Without a recording, or with the event disabled, emitting it costs a check of a static flag.
+ * By default only signatures slower than the threshold are recorded; {@code jfr/game-platform.jfc}
+ * records all of them.
+ */
+@Name("com.example.platform.TokenSigning")
+@Label("Token Signing")
+@Category({"Game Platform", "Tokens"})
+@Description("Creation and signature of a game token")
+@StackTrace(false)
+@Threshold("20 ms")
+public class TokenSigningEvent extends Event {
+
+    @Label("Tenant")
+    public String tenant;
+
+    @Label("Key ID")
+    public String kid;
+
+    @Label("Game")
+    public String game;
+}
@@ -0,0 +1,40 @@
+package com.example.platform.model;
+
+/**
+ * A signed game token together with the metadata needed to decide whether it can be handed out again.
+ *
+ * @param token the serialized JWT
+ * @param jti the ID of the token
+ * @param kid the ID of the key the token was signed with
+ * @param issuedAtMillis the issue time of the token in epoch milliseconds
+ * @param expiresAtMillis the expiration time of the token in epoch milliseconds
+ * @param speculative whether the token was signed ahead of time and has not been requested yet
+ */
+public record IssuedToken(String token, String jti, String kid, long issuedAtMillis, long expiresAtMillis,
+                          boolean speculative) {
+
+    public IssuedToken(String token, String jti, String kid, long issuedAtMillis, long expiresAtMillis) {
+        this(token, jti, kid, issuedAtMillis, expiresAtMillis, false);
+    }
+
+    /**
+     * Returns whether more than the given fraction of the token's lifetime is left at the given time.
+     */
+    public boolean hasRemaining(double fraction, long nowMillis) {
+        return expiresAtMillis - nowMillis > (expiresAtMillis - issuedAtMillis) * fraction;
+    }
+
+    /**
+     * Returns this token marked as signed ahead of time.
+     */
+    public IssuedToken asSpeculative() {
+        return new IssuedToken(token, jti, kid, issuedAtMillis, expiresAtMillis, true);
+    }
+
+    /**
+     * Returns this token marked as handed out.
+     */
+    public IssuedToken asRequested() {
+        return new IssuedToken(token, jti, kid, issuedAtMillis, expiresAtMillis, false);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.platform.model;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the platform's signing keys.
+ * Exactly one key is active and signs new tokens. A pending key is already published in the
+ * JWKS so verifiers can learn it before it signs anything, and retired keys stay published
+ * until every token they signed has expired. The public JWKS, its serialized form and the
+ * entity tag of that form are computed once per snapshot, so serving the JWKS costs no
+ * serialization work until the keys change.
+ *
+ * @param active     the key that signs new tokens.
+ * @param pending    the key that becomes active next; null if no rotation is in progress.
+ * @param retired    keys that no longer sign but are still published.
+ * @param publicKeys the public JWKS containing the active, pending and retired keys.
+ * @param jwksJson   the UTF-8 encoded JSON form of {@code publicKeys}.
+ * @param jwksEtag   the strong entity tag of {@code jwksJson}, without quotes.
+ */
+public record KeyRing(SigningKey active, SigningKey pending, List<RetiredKey> retired, JWKSet publicKeys,
+                      byte[] jwksJson, String jwksEtag) {
+
+    /**
+     * A key that no longer signs tokens and is published until the given instant.
+     *
+     * @param key          the retired key.
+     * @param unpublishAt  the instant after which the key is removed from the JWKS.
+     */
+    public record RetiredKey(SigningKey key, Instant unpublishAt) {
+    }
+
+    public static KeyRing of(SigningKey active, SigningKey pending, List<RetiredKey> retired) {
+        List<JWK> keys = new ArrayList<>();
+        keys.add(active.jwk().toPublicJWK());
+        if (pending != null) keys.add(pending.jwk().toPublicJWK());
+        for (RetiredKey r : retired) keys.add(r.key().jwk().toPublicJWK());
+        JWKSet publicKeys = new JWKSet(keys);
+        byte[] json = publicKeys.toString().getBytes(StandardCharsets.UTF_8);
+        return new KeyRing(active, pending, List.copyOf(retired), publicKeys, json, etagOf(json));
+    }
+
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.example.platform.model;
 
+import com.example.common.tracing.TraceContext;
+
 import java.time.Instant;
 
 /**
  * Represents a session for a platform user, encapsulating session identification,
- * user information, and session lifecycle management.
+ * user information, the tenant the user logged in to, and session lifecycle management.
  * Instances of this class are immutable except for the session expiration
  * and last accessed time, which are designed to be updated dynamically to
- * extend the session duration or mark activity.
+ * extend the session duration or mark activity, and for the trace of the login,
+ * which later token requests of the session continue.
+ * Times are kept in epoch milliseconds, so expiry checks and touches compare and store primitives.
  */
 public class PlatformSession {
     private final String sessionId;
     private final String username;
-    private volatile Instant expiresAt;
-    private volatile Instant lastAccessed;
+    private final Tenant tenant;
+    private volatile long expiresAtMillis;
+    private volatile long lastAccessedMillis;
+    private volatile TraceContext traceContext;
 
     public PlatformSession(String sessionId, String username, Instant expiresAt, Instant lastAccessed) {
+        this(sessionId, username, null, expiresAt, lastAccessed);
+    }
+
+    public PlatformSession(String sessionId, String username, Tenant tenant, Instant expiresAt, Instant lastAccessed) {
         this.sessionId = sessionId;
         this.username = username;
-        this.expiresAt = expiresAt;
-        this.lastAccessed = lastAccessed;
+        this.tenant = tenant;
+        this.expiresAtMillis = expiresAt.toEpochMilli();
+        this.lastAccessedMillis = lastAccessed.toEpochMilli();
     }
 
     public String getSessionId() {
@@ -30,20 +41,49 @@ public class PlatformSession {
         return username;
     }
 
+    /**
+     * Returns the tenant the session belongs to, or null for the default tenant.
+     */
+    public Tenant getTenant() {
+        return tenant;
+    }
+
     public Instant getExpiresAt() {
-        return expiresAt;
+        return Instant.ofEpochMilli(expiresAtMillis);
     }
 
     public Instant getLastAccessed() {
-        return lastAccessed;
+        return Instant.ofEpochMilli(lastAccessedMillis);
+    }
+
+    /**
+     * Returns the trace context of the request that created the session, or null if it was not traced.
+     */
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
+    public void setTraceContext(TraceContext traceContext) {
+        this.traceContext = traceContext;
     }
 
-    public boolean isExpired() {
-        return Instant.now().isAfter(expiresAt);
+    /**
+     * Returns whether the session has expired at the given time.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiresAtMillis;
     }
 
-    public void touch(long ttlSeconds) {
-        this.lastAccessed = Instant.now();
-        this.expiresAt = this.lastAccessed.plusSeconds(ttlSeconds);
+    /**
+     * Marks the session as accessed at the given time and extends it by the given lifetime from then.
+     *
+     * @param ttlSeconds the lifetime of the session from now
+     * @param nowMillis the current time in epoch milliseconds
+     */
+    public void touch(long ttlSeconds, long nowMillis) {
+        this.lastAccessedMillis = nowMillis;
+        this.expiresAtMillis = nowMillis + ttlSeconds * 1000;
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.platform.model;
+
+import java.time.Instant;
+
+/**
+ * Represents a refresh credential handed out to a player alongside the platform session.
+ * The credential value is opaque to the client and is exchanged for a new session once the
+ * short-lived session expires, so the player does not have to present the password again.
+ * Every exchange rotates the credential: the presented value becomes unusable and a new one
+ * is returned.
+ *
+ * @param value     the opaque credential value to be sent back to the client.
+ * @param username  the user the credential was issued to.
+ * @param expiresAt the point in time after which the credential can no longer be exchanged.
+ */
+public record RefreshCredential(String value, String username, Instant expiresAt) {
+}
@@ -0,0 +1,30 @@
+package com.example.platform.model;
+
+/**
+ * A revoked session or token, published in the revocation feed of its tenant.
+ *
+ * @param sequence the position of the revocation in the tenant's feed, starting at 1
+ * @param type whether the ID is the {@code sid} claim of all tokens of a session or the {@code jti} of one token
+ * @param id the revoked session claim or token ID
+ * @param expiresAtMillis the time in epoch milliseconds by which every token matched by the revocation has expired
+ */
+public record Revocation(long sequence, Type type, String id, long expiresAtMillis) {
+
+    public enum Type {
+        SESSION("sid"),
+        TOKEN("jti");
+
+        private final String claim;
+
+        Type(String claim) {
+            this.claim = claim;
+        }
+
+        /**
+         * Returns the name of the token claim the ID is compared with.
+         */
+        public String claim() {
+            return claim;
+        }
+    }
+}
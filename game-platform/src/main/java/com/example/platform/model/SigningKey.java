@@ -0,0 +1,15 @@
+package com.example.platform.model;
+
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * Represents an RSA key pair used by the platform to sign tokens, together with a signer
+ * that is created once per key so no key conversion happens when a token is signed.
+ *
+ * @param kid    the key identifier published in the JWKS and put into the token header.
+ * @param jwk    the RSA key pair, including the private part.
+ * @param signer the thread-safe signer bound to the private key.
+ */
+public record SigningKey(String kid, RSAKey jwk, JWSSigner signer) {
+}
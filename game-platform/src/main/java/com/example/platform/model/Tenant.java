@@ -0,0 +1,11 @@
+package com.example.platform.model;
+
+/**
+ * A platform hosted by this process. Tokens of a tenant carry its ID as issuer and are signed with
+ * the tenant's own keys.
+ *
+ * @param index the position of the tenant in the registry, used to look up its keys without hashing
+ * @param id    the tenant ID, used as token issuer and in the tenant's JWKS path
+ */
+public record Tenant(int index, String id) {
+}
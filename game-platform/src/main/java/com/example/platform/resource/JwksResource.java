@@ -1,16 +1,28 @@
 package com.example.platform.resource;
 
 
+import com.example.platform.model.KeyRing;
+import com.example.platform.model.Tenant;
 import com.example.platform.service.KeyManager;
+import com.example.platform.service.TenantRegistry;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * Mocks JWKS endpoint that exposes the platform's public keys.
  * This resource mocks a trusted authority for testing purposes only.
  * It serves a JWKS document at /.well-known/jwks.json so test clients and
  * integration tests can retrieve the platform's public keys and verify tokens.
+ * The document is serialized once per key change; responses carry an ETag and a
+ * Cache-Control max-age, and conditional requests with a matching If-None-Match
+ * are answered with 304 Not Modified and no body.
+ * Each tenant has its own key set, published at /.well-known/jwks/{tenant}.json; the
+ * /.well-known/jwks.json document belongs to the tenant the request's host is mapped to.
  *
  */
 @Path("/.well-known")
@@ -18,6 +30,8 @@ import jakarta.ws.rs.core.Response;
 public class JwksResource {
 
     private final KeyManager keyManager;
+    private final TenantRegistry tenants;
+    private final CacheControl cacheControl;
 
     /**
      * Constructs a new instance of the JwksResource class.
@@ -25,14 +39,56 @@ public class JwksResource {
      * @param keyManager1 the KeyManager instance used to manage and provide
      *                    the JSON Web Key Set (JWKS) for the JWKS endpoint.
      *                    This must not be null.
+     * @param tenants the TenantRegistry instance used to resolve the tenant of a request.
+     *                This must not be null.
+     * @param maxAgeSeconds how long clients may cache the JWKS document without revalidating.
      */
-    public JwksResource(KeyManager keyManager1) {
+    public JwksResource(KeyManager keyManager1, TenantRegistry tenants,
+                        @ConfigProperty(name = "platform.jwks.max-age-seconds", defaultValue = "300") int maxAgeSeconds) {
         this.keyManager = keyManager1;
+        this.tenants = tenants;
+        this.cacheControl = new CacheControl();
+        this.cacheControl.setMaxAge(maxAgeSeconds);
+        this.cacheControl.setNoTransform(false);
     }
 
     @GET
     @Path("/jwks.json")
-    public Response jwks() {
-        return Response.ok(keyManager.getJwkSet().toJSONObject()).build();
+    public Response jwks(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+                         @HeaderParam(HttpHeaders.HOST) String host) {
+        return jwks(keyManager.getKeyRing(tenants.resolveHost(host)), ifNoneMatch);
     }
-}
\ No newline at end of file
+
+    @GET
+    @Path("/jwks/{tenant}.json")
+    public Response tenantJwks(@PathParam("tenant") String tenantId,
+                               @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return jwks(keyManager.getKeyRing(tenant), ifNoneMatch);
+    }
+
+    private Response jwks(KeyRing keyRing, String ifNoneMatch) {
+        EntityTag etag = new EntityTag(keyRing.jwksEtag());
+        if (matches(ifNoneMatch, keyRing.jwksEtag())) {
+            return Response.notModified(etag).cacheControl(cacheControl).build();
+        }
+        return Response.ok(keyRing.jwksJson()).tag(etag).cacheControl(cacheControl).build();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.length() == etag.length() + 2 && tag.startsWith("\"") && tag.endsWith("\"")
+                    && tag.regionMatches(1, etag, 0, etag.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,100 +1,238 @@
 package com.example.platform.resource;
 
+import com.example.platform.audit.AuditLog;
 import com.example.platform.dto.LoginRequest;
 import com.example.platform.model.PlatformSession;
+import com.example.platform.model.RefreshCredential;
+import com.example.platform.service.PlatformMetrics;
 import com.example.platform.service.PlatformSessionManager;
+import com.example.platform.service.RefreshTokenManager;
+import com.example.platform.service.TenantRegistry;
+import com.example.platform.service.TokenManager;
+import com.example.platform.service.TokenPreIssuer;
 import com.example.platform.service.UserService;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
+import java.util.Date;
 import java.util.Map;
 
 /**
  * The `LoginResource` class provides RESTful endpoints for managing user login
  * and logout functionality. It handles user authentication, session management,
  * and ensures the proper handling of session cookies for requests.
+ * Next to the short-lived session, a login hands out a rotating refresh credential that
+ * can be exchanged for a new session without verifying the password again.
+ * Sessions belong to the tenant the request's Host header is mapped to.
+ * Every login attempt is counted by its result in the PlatformMetrics.
+ * Logins and refreshes are traced, continuing the trace of a {@code traceparent} header if present;
+ * the session remembers the trace so that its token requests can continue it.
+ * Logins, failed logins, refreshes and logouts are recorded in the AuditLog.
+ * A logout revokes the tokens issued for the session at the providers through the revocation feed.
  */
 @Path("/player")
 public class LoginResource {
 
     private final UserService userService;
     private final PlatformSessionManager sessionManager;
+    private final RefreshTokenManager refreshTokenManager;
+    private final TokenManager tokenManager;
+    private final TokenPreIssuer tokenPreIssuer;
+    private final TenantRegistry tenants;
+    private final PlatformMetrics metrics;
+    private final Tracer tracer;
+    private final AuditLog auditLog;
 
     /**
      * Constructs a new instance of the LoginResource class, initializing it with
-     * the required UserService and PlatformSessionManager components.
+     * the required UserService, PlatformSessionManager, RefreshTokenManager, TokenManager,
+     * TokenPreIssuer, TenantRegistry, PlatformMetrics, Tracer and AuditLog components.
      *
      * @param userService the UserService instance used for validating user credentials.
      *                    This must not be null.
      * @param sessionManager the PlatformSessionManager instance used for managing
      *                       user sessions. This must not be null.
+     * @param refreshTokenManager the RefreshTokenManager instance used for issuing and
+     *                            rotating refresh credentials. This must not be null.
+     * @param tokenManager the TokenManager instance whose tokens cached for a session are
+     *                     dropped on logout. This must not be null.
+     * @param tokenPreIssuer the TokenPreIssuer instance that signs tokens for the player's
+     *                       usual games after login. This must not be null.
+     * @param tenants the TenantRegistry instance used to resolve the tenant of a request
+     *                from its host. This must not be null.
+     * @param metrics the PlatformMetrics instance counting login results. This must not be null.
+     * @param tracer the Tracer instance recording logins and refreshes. This must not be null.
+     * @param auditLog the AuditLog instance recording logins, refreshes and logouts. This must not be null.
      */
-    public LoginResource (UserService userService, PlatformSessionManager sessionManager) {
+    public LoginResource (UserService userService, PlatformSessionManager sessionManager,
+                          RefreshTokenManager refreshTokenManager, TokenManager tokenManager,
+                          TokenPreIssuer tokenPreIssuer, TenantRegistry tenants, PlatformMetrics metrics,
+                          Tracer tracer, AuditLog auditLog) {
         this.userService = userService;
         this.sessionManager = sessionManager;
+        this.refreshTokenManager = refreshTokenManager;
+        this.tokenManager = tokenManager;
+        this.tokenPreIssuer = tokenPreIssuer;
+        this.tenants = tenants;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.auditLog = auditLog;
     }
 
     /**
      * Authenticates a user based on the provided credentials in the login request.
      * If the username or password is not provided, the method returns a BAD_REQUEST response.
      * If the credentials are invalid, the method returns an UNAUTHORIZED response.
-     * Upon successful authentication, the method returns an OK response with a session cookie.
+     * Upon successful authentication, the method returns an OK response with a session cookie
+     * and a refresh cookie; tokens for the games the player launches most are then signed in the
+     * background if pre-issuing is enabled.
      *
      * @param loginRequest the login request containing the user's username and password
+     * @param host the Host header of the request, which selects the tenant of the session
+     * @param traceparent the W3C trace context of the caller, may be null
      * @return a Response indicating the result of the authentication:
      *         - BAD_REQUEST if required credentials are missing
      *         - UNAUTHORIZED if authentication fails
-     *         - OK with a session cookie if authentication is successful
+     *         - OK with session and refresh cookies if authentication is successful
      */
     @POST
     @Path("/login")
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response login(LoginRequest loginRequest) {
+    public Response login(LoginRequest loginRequest, @HeaderParam(HttpHeaders.HOST) String host,
+                          @HeaderParam(TraceHeaders.TRACEPARENT) String traceparent) {
+        try (Span span = tracer.startSpan("login", TraceContext.parse(traceparent))) {
+            return TraceHeaders.withTraceResponse(login(loginRequest, host, span), span);
+        }
+    }
+
+    private Response login(LoginRequest loginRequest, String host, Span span) {
         String username = loginRequest.username();
         String password = loginRequest.password();
         if (username == null || password == null) {
+            metrics.countLogin("missing_credentials");
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "missing_credentials"))
                     .build();
         }
-        if (!userService.userExists(username) || !userService.verifyPassword(username, password)) {
+        boolean verified;
+        try (Span check = tracer.startChildSpan("password.check")) {
+            verified = userService.userExists(username) && userService.verifyPassword(username, password);
+        }
+        if (!verified) {
+            metrics.countLogin("invalid_credentials");
+            auditLog.loginFailed(tenants.resolveHost(host), username);
             return Response.status(Response.Status.UNAUTHORIZED)
                     .entity(Map.of("error", "invalid_credentials"))
                     .build();
         }
+        PlatformSession session = createSession(username, host, span);
+        tokenPreIssuer.onLogin(session.getSessionId(), username);
+        metrics.countLogin(null);
+        auditLog.login(session.getTenant(), username);
+        return Response
+                .ok(Map.of("status", "ok", "username", username))
+                .cookie(createNewSessionCookie(session),
+                        createNewRefreshCookie(refreshTokenManager.issue(username)))
+                .build();
+    }
+
+    /**
+     * Exchanges the refresh credential provided via the "PLATFORM_REFRESH" cookie for a new
+     * session. The password is not verified again; instead the refresh credential is rotated,
+     * so the presented value cannot be used a second time.
+     *
+     * @param refreshCookie The refresh credential provided via the "PLATFORM_REFRESH" cookie.
+     * @param host The Host header of the request, which selects the tenant of the new session.
+     * @param traceparent The W3C trace context of the caller, may be null.
+     * @return A Response object indicating the result of the refresh operation:
+     *         - BAD_REQUEST if the refresh cookie is missing.
+     *         - UNAUTHORIZED with an expired refresh cookie if the credential is unknown,
+     *           expired, revoked or has already been used.
+     *         - OK with new session and refresh cookies if the refresh is successful.
+     */
+    @POST
+    @Path("/refresh")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response refresh(@CookieParam("PLATFORM_REFRESH") String refreshCookie,
+                            @HeaderParam(HttpHeaders.HOST) String host,
+                            @HeaderParam(TraceHeaders.TRACEPARENT) String traceparent) {
+        try (Span span = tracer.startSpan("refresh", TraceContext.parse(traceparent))) {
+            return TraceHeaders.withTraceResponse(refresh(refreshCookie, host, span), span);
+        }
+    }
+
+    private Response refresh(String refreshCookie, String host, Span span) {
+        if (refreshCookie == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "missing_refresh_token"))
+                    .build();
+        }
+        RefreshCredential credential = refreshTokenManager.rotate(refreshCookie);
+        if (credential == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(Map.of("error", "invalid_refresh_token"))
+                    .cookie(createExpiredRefreshCookie())
+                    .build();
+        }
+        String username = credential.username();
+        PlatformSession session = createSession(username, host, span);
+        auditLog.refresh(session.getTenant(), username);
         return Response
                 .ok(Map.of("status", "ok", "username", username))
-                .cookie(createNewSessionCookie(sessionManager.createSession(username, null)))
+                .cookie(createNewSessionCookie(session),
+                        createNewRefreshCookie(credential))
                 .build();
     }
 
     /**
      * Ends the current session by invalidating the provided session identifier and
-     * setting an expired session cookie. If the session cookie is not provided,
+     * setting an expired session cookie. A refresh credential sent along is revoked and
+     * its cookie expired as well. If the session cookie is not provided,
      * the method returns a BAD_REQUEST response.
      *
      * @param cookieSession The session identifier provided via the "PLATFORM_SESS" cookie.
      *                      If null, it indicates that no session cookie was provided in the request.
+     * @param refreshCookie The refresh credential provided via the "PLATFORM_REFRESH" cookie. May be null.
      * @return A Response object indicating the result of the logout operation:
      *         - BAD_REQUEST if the session cookie is missing.
-     *         - OK with an expired session cookie if the logout is successful.
+     *         - OK with expired session and refresh cookies if the logout is successful.
      */
     @POST
     @Path("/logout")
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response logout(@CookieParam("PLATFORM_SESS") String cookieSession) {
+    public Response logout(@CookieParam("PLATFORM_SESS") String cookieSession,
+                           @CookieParam("PLATFORM_REFRESH") String refreshCookie) {
         if (cookieSession == null) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(Map.of("error", "missing_session"))
                     .build();
         }
-        sessionManager.invalidateSession(cookieSession);
+        PlatformSession session = sessionManager.invalidateSession(cookieSession);
+        if (session != null) {
+            auditLog.logout(session.getTenant(), session.getUsername());
+            tokenManager.revokeSession(session.getTenant(), cookieSession);
+        }
+        tokenManager.invalidateSession(cookieSession);
+        refreshTokenManager.revoke(refreshCookie);
         return Response
-                .ok(Map.of("status", "ok")).cookie(createExpiredSessionCookie())
+                .ok(Map.of("status", "ok")).cookie(createExpiredSessionCookie(), createExpiredRefreshCookie())
                 .build();
     }
 
+    private PlatformSession createSession(String username, String host, Span span) {
+        PlatformSession session;
+        try (Span create = tracer.startChildSpan("session.create")) {
+            session = sessionManager.createSession(username, tenants.resolveHost(host), null);
+        }
+        session.setTraceContext(span.context());
+        return session;
+    }
+
     private static NewCookie createNewSessionCookie(PlatformSession session) {
         Cookie cookieBase = new Cookie.Builder("PLATFORM_SESS")
                 .value(session.getSessionId())
@@ -121,4 +259,31 @@ public class LoginResource {
                 .comment("platform session")
                 .build();
     }
+
+    private static NewCookie createNewRefreshCookie(RefreshCredential credential) {
+        Cookie cookieBase = new Cookie.Builder("PLATFORM_REFRESH")
+                .value(credential.value())
+                .path("/player")
+                .build();
+        return new NewCookie.Builder(cookieBase)
+                .path("/player")
+                .expiry(Date.from(credential.expiresAt()))
+                .secure(false)
+                .httpOnly(true)
+                .comment("platform refresh")
+                .build();
+    }
+
+    private static NewCookie createExpiredRefreshCookie() {
+        Cookie expiredBase = new Cookie.Builder("PLATFORM_REFRESH")
+                .value("")
+                .path("/player")
+                .build();
+        return new NewCookie.Builder(expiredBase)
+                .maxAge(0)
+                .secure(false)
+                .httpOnly(true)
+                .comment("platform refresh")
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.platform.resource;
+
+import com.example.platform.model.Tenant;
+import com.example.platform.service.RevocationFeed;
+import com.example.platform.service.TenantRegistry;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Serves the revocation feed of each tenant to providers, which poll it in the background instead of
+ * asking the platform about every token. A provider passes the epoch and the cursor of the last page it
+ * has read and receives the revocations published since; with an epoch other than the current one, e.g.
+ * after a restart of the platform, the feed is served from the beginning.
+ * The feed of the tenant the request's host is mapped to is served at /revocations, the feed of any
+ * tenant at /revocations/{tenant}, like the JWKS documents.
+ */
+@Path("/revocations")
+@Produces(MediaType.APPLICATION_JSON)
+public class RevocationResource {
+
+    static final int MAX_LIMIT = 10_000;
+
+    private final RevocationFeed revocationFeed;
+    private final TenantRegistry tenants;
+
+    /**
+     * @param revocationFeed the RevocationFeed instance whose revocations are served. Must not be null.
+     * @param tenants the TenantRegistry instance used to resolve the tenant of a request. Must not be null.
+     */
+    public RevocationResource(RevocationFeed revocationFeed, TenantRegistry tenants) {
+        this.revocationFeed = revocationFeed;
+        this.tenants = tenants;
+    }
+
+    @GET
+    public Response revocations(@QueryParam("epoch") String epoch, @QueryParam("after") @DefaultValue("0") long after,
+                                @QueryParam("limit") @DefaultValue("1000") int limit,
+                                @HeaderParam(HttpHeaders.HOST) String host) {
+        return revocations(tenants.resolveHost(host), epoch, after, limit);
+    }
+
+    @GET
+    @Path("/{tenant}")
+    public Response tenantRevocations(@PathParam("tenant") String tenantId, @QueryParam("epoch") String epoch,
+                                      @QueryParam("after") @DefaultValue("0") long after,
+                                      @QueryParam("limit") @DefaultValue("1000") int limit) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return revocations(tenant, epoch, after, limit);
+    }
+
+    private Response revocations(Tenant tenant, String epoch, long after, int limit) {
+        if (!revocationFeed.isEnabled()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        String current = revocationFeed.getEpoch();
+        long cursor = current.equals(epoch) ? after : 0;
+        RevocationFeed.Page page = revocationFeed.read(tenant, cursor, Math.min(Math.max(limit, 1), MAX_LIMIT));
+        return Response.ok(new RevocationsResponse(current, page)).build();
+    }
+}
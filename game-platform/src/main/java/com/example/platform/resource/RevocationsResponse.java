@@ -0,0 +1,50 @@
+package com.example.platform.resource;
+
+import com.example.common.json.JsonBody;
+import com.example.common.json.JsonOutput;
+import com.example.platform.model.Revocation;
+import com.example.platform.service.RevocationFeed;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A page of a revocation feed:
+ * {@code {"epoch":"...","cursor":42,"more":false,"revocations":[{"sid":"...","exp":1700000000000}]}},
+ * where every revocation names either the {@code sid} or the {@code jti} it revokes and {@code exp}
+ * is in epoch milliseconds.
+ */
+public record RevocationsResponse(String epoch, RevocationFeed.Page page) implements JsonBody {
+
+    private static final byte[] EPOCH = "{\"epoch\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CURSOR = ",\"cursor\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MORE = ",\"more\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REVOCATIONS = ",\"revocations\":[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXP = ",\"exp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public void writeTo(JsonOutput out) {
+        out.write(EPOCH);
+        out.writeString(epoch);
+        out.write(CURSOR);
+        out.writeNumber(page.cursor());
+        out.write(MORE);
+        out.write(page.more() ? TRUE : FALSE);
+        out.write(REVOCATIONS);
+        boolean first = true;
+        for (Revocation revocation : page.revocations()) {
+            if (!first) out.write(',');
+            first = false;
+            out.write('{');
+            out.writeString(revocation.type().claim());
+            out.write(':');
+            out.writeString(revocation.id());
+            out.write(EXP);
+            out.writeNumber(revocation.expiresAtMillis());
+            out.write('}');
+        }
+        out.write(']');
+        out.write('}');
+    }
+}
@@ -1,29 +1,49 @@
 package com.example.platform.resource;
 
+import com.example.common.json.JsonOutput;
+import com.example.platform.audit.AuditLog;
 import com.example.platform.dto.TokenRequest;
 import com.example.platform.exception.TokenManagerException;
+import com.example.platform.model.IssuedToken;
 import com.example.platform.model.PlatformSession;
+import com.example.common.recording.RecordedRequest;
+import com.example.common.recording.TrafficRecorder;
 import com.example.platform.service.PlatformSessionManager;
 import com.example.platform.service.TokenManager;
+import com.example.platform.service.TokenPreIssuer;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 
-import java.util.Map;
-
 /**
  * This resource exposes an endpoint to issue tokens tied to specific game sessions,
  * ensuring that only authenticated users can request and obtain valid tokens. It
  * depends on session and token management services for authentication, validation,
  * and token creation.
- *
+ * A token request continues the trace given in its {@code traceparent} header or, without one, the
+ * trace of the session's login, so that a game launch can be followed from login to play.
+ * Fixed error bodies are encoded once and the token is streamed by {@link com.example.common.json.JsonBodyWriter} instead of
+ * being serialized by Jackson.
+ * Every token handed out, including one handed out again, is recorded with its jti in the AuditLog.
+ * When traffic recording is enabled, the outcome and latency of every request is handed to the
+ * {@link TrafficRecorder}.
  */
 @Path("/")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class TokenResource {
 
+    private static final byte[] NOT_AUTHENTICATED = JsonOutput.object("error", "not_authenticated", "message", "login required");
+    private static final byte[] MISSING_GAME_ID = JsonOutput.object("error", "missing_gameId");
+
     private final PlatformSessionManager sessions;
     private final TokenManager tokenManager;
+    private final TokenPreIssuer tokenPreIssuer;
+    private final Tracer tracer;
+    private final AuditLog auditLog;
+    private final TrafficRecorder recorder;
 
     /**
      * Constructs a new instance of the TokenResource class to handle token issuance
@@ -33,21 +53,35 @@ public class TokenResource {
      *                 including validation and retrieval of active sessions. Must not be null.
      * @param tokenManager an instance of TokenManager responsible for generating and signing
      *                     tokens for authenticated users and specific game sessions. Must not be null.
+     * @param tokenPreIssuer an instance of TokenPreIssuer that counts the games launched by each player
+     *                       to sign their tokens ahead of the next login. Must not be null.
+     * @param tracer an instance of Tracer recording the request, the session lookup and the signature.
+     *               Must not be null.
+     * @param auditLog an instance of AuditLog recording every token handed out. Must not be null.
+     * @param recorder an instance of TrafficRecorder recording the request shapes, for replaying production
+     *                 traffic. Must not be null.
      */
-    public TokenResource(PlatformSessionManager sessions, TokenManager tokenManager) {
+    public TokenResource(PlatformSessionManager sessions, TokenManager tokenManager, TokenPreIssuer tokenPreIssuer,
+                         Tracer tracer, AuditLog auditLog, TrafficRecorder recorder) {
         this.sessions = sessions;
         this.tokenManager = tokenManager;
+        this.tokenPreIssuer = tokenPreIssuer;
+        this.tracer = tracer;
+        this.auditLog = auditLog;
+        this.recorder = recorder;
     }
 
     /**
      * Issues a token for a specified game session based on the authenticated user's session.
      * This method validates the user's session using the provided session cookie. If the user
-     * is authenticated and specifies a valid game ID, a signed token is generated and returned.
+     * is authenticated and specifies a valid game ID, a token signed by the session's tenant is returned; a token issued
+     * earlier in the same session for the same game may be returned again while it is fresh enough.
      * Otherwise, appropriate error responses are returned.
      *
      * @param tokenRequest The request containing the `gameId` for which the token is being issued.
      * @param cookieSession The session identifier provided via the "PLATFORM_SESS" cookie.
      *                      It is used to validate the user's session.
+     * @param traceparent The W3C trace context of the caller, may be null.
      * @return A Response object:
      *         - 200 OK: If the token is successfully created. The response contains the generated token.
      *         - 400 BAD REQUEST: If the `gameId` is missing in the request.
@@ -56,25 +90,46 @@ public class TokenResource {
      */
     @POST
     @Path("/issue")
-    public Response issue(TokenRequest tokenRequest, @CookieParam("PLATFORM_SESS") String cookieSession) {
+    public Response issue(TokenRequest tokenRequest, @CookieParam("PLATFORM_SESS") String cookieSession,
+                          @HeaderParam(TraceHeaders.TRACEPARENT) String traceparent) {
+        long start = System.nanoTime();
         PlatformSession session = sessions.getSession(cookieSession, true);
+        long lookedUp = System.nanoTime();
+        TraceContext parent = TraceContext.parse(traceparent);
+        if (parent == null && session != null) {
+            parent = session.getTraceContext();
+        }
+        try (Span span = tracer.startSpan("issue", parent, start)) {
+            tracer.startChildSpan("session.lookup", start).end(lookedUp);
+            return TraceHeaders.withTraceResponse(issue(tokenRequest, session, span, start), span);
+        }
+    }
+
+    private Response issue(TokenRequest tokenRequest, PlatformSession session, Span span, long start) {
+        String gameId = (tokenRequest != null) ? tokenRequest.gameId() : null;
         if (session == null) {
+            recorder.record(RecordedRequest.Endpoint.ISSUE, start, gameId, "not_authenticated", 401, 0);
             return Response.status(Response.Status.UNAUTHORIZED)
-                    .entity(Map.of("error", "not_authenticated", "message", "login required"))
+                    .entity(NOT_AUTHENTICATED)
                     .build();
         }
-        String gameId = tokenRequest.gameId();
+        span.setAttribute("game", gameId);
         if (gameId == null) {
+            recorder.record(RecordedRequest.Endpoint.ISSUE, start, null, "missing_gameId", 400, 0);
             return Response.status(Response.Status.BAD_REQUEST)
-                    .entity(Map.of("error", "missing_gameId"))
+                    .entity(MISSING_GAME_ID)
                     .build();
         }
         try {
-            return Response.ok(Map.of("token", tokenManager.buildToken(session.getUsername(), gameId)))
-                    .build();
+            IssuedToken token = tokenManager.issue(session.getTenant(), session.getSessionId(), session.getUsername(), gameId);
+            tokenPreIssuer.recordLaunch(session.getUsername(), gameId);
+            auditLog.tokenIssued(session.getTenant(), session.getUsername(), gameId, token.jti());
+            recorder.record(RecordedRequest.Endpoint.ISSUE, start, gameId, "ok", 200, token.token().length());
+            return Response.ok(new TokenResponse(token.token())).build();
         } catch (TokenManagerException e) {
+            recorder.record(RecordedRequest.Endpoint.ISSUE, start, gameId, "signing_failed", 500, 0);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(Map.of("error", "signing_failed", "message", e.getMessage()))
+                    .entity(JsonOutput.object("error", "signing_failed", "message", e.getMessage()))
                     .build();
         }
     }
@@ -0,0 +1,21 @@
+package com.example.platform.resource;
+
+import com.example.common.json.JsonBody;
+import com.example.common.json.JsonOutput;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The body of an issued token: {@code {"token":"..."}}.
+ */
+public record TokenResponse(String token) implements JsonBody {
+
+    private static final byte[] PREFIX = "{\"token\":".getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public void writeTo(JsonOutput out) {
+        out.write(PREFIX);
+        out.writeString(token);
+        out.write('}');
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.platform.resource;
+
+import com.example.common.tracing.Span;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * The HTTP headers carrying W3C trace context: {@code traceparent} in requests and
+ * {@code traceresponse} in responses, which tells the client the trace its request was recorded in.
+ */
+final class TraceHeaders {
+
+    static final String TRACEPARENT = "traceparent";
+    static final String TRACERESPONSE = "traceresponse";
+
+    private TraceHeaders() {
+    }
+
+    /**
+     * Adds the {@code traceresponse} header of the given span to a response, if the span is recorded.
+     */
+    static Response withTraceResponse(Response response, Span span) {
+        if (!span.isRecording()) return response;
+        return Response.fromResponse(response).header(TRACERESPONSE, span.context().traceparent()).build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.platform.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates unguessable 128-bit identifiers for sessions and tokens.
+ * {@link UUID#randomUUID()} draws from a single shared SecureRandom, which on Linux serializes all
+ * callers on the lock of the native PRNG. Here every thread owns a DRBG instance, seeded from the
+ * system's entropy source, and draws from it a few hundred bytes at a time; an ID is a 16-byte slice of
+ * that buffer, so generating one takes no lock and rarely calls into the DRBG.
+ * IDs are encoded as 22 base64url characters; {@link #nextUuid()} formats the same randomness as a
+ * version 4 UUID where that format is expected.
+ */
+@ApplicationScoped
+public class IdGenerator {
+
+    static final int ID_BYTES = 16;
+    static final int ID_LENGTH = 22;
+    private static final int BUFFER_BYTES = 512;
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<Entropy> entropy = ThreadLocal.withInitial(Entropy::new);
+
+    /**
+     * Returns a new random ID of 22 base64url characters.
+     */
+    public String nextId() {
+        Entropy e = entropy.get();
+        int offset = e.next();
+        byte[] buffer = e.buffer;
+        byte[] out = new byte[ID_LENGTH];
+        int o = 0;
+        for (int i = offset; i < offset + 15; i += 3) {
+            int bits = (buffer[i] & 0xff) << 16 | (buffer[i + 1] & 0xff) << 8 | (buffer[i + 2] & 0xff);
+            out[o++] = ALPHABET[bits >>> 18];
+            out[o++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[o++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[o++] = ALPHABET[bits & 0x3f];
+        }
+        int last = buffer[offset + 15] & 0xff;
+        out[o++] = ALPHABET[last >>> 2];
+        out[o] = ALPHABET[(last << 4) & 0x3f];
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns a new random version 4 UUID in its 36-character string form.
+     */
+    public String nextUuid() {
+        Entropy e = entropy.get();
+        int offset = e.next();
+        byte[] buffer = e.buffer;
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (buffer[offset + i] & 0xff);
+            lsb = (lsb << 8) | (buffer[offset + 8 + i] & 0xff);
+        }
+        msb = (msb & ~0xf000L) | 0x4000L;
+        lsb = (lsb & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    /**
+     * The random bytes of one thread. Consumed bytes are overwritten on the next refill, and a slice
+     * is never handed out twice.
+     */
+    private static final class Entropy {
+        private final SecureRandom random = newRandom();
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position = BUFFER_BYTES;
+
+        int next() {
+            if (position == BUFFER_BYTES) {
+                random.nextBytes(buffer);
+                position = 0;
+            }
+            int offset = position;
+            position += ID_BYTES;
+            return offset;
+        }
+
+        private static SecureRandom newRandom() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.platform.service;
+
+import com.example.common.time.TimeSource;
+import com.example.platform.model.IssuedToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the last token issued per session and game so that repeated /issue calls for the same game
+ * return the existing token instead of signing a new one. A token is reused only while more than
+ * the configured fraction of its lifetime is left and only if it was signed with the currently
+ * active key, so a key rotation implicitly invalidates every cached token. Logging out drops the
+ * tokens of the session.
+ * The number of sessions held is bounded. Remaining lifetimes are measured on the injected TimeSource,
+ * the clock the tokens' expiry was computed from.
+ */
+@ApplicationScoped
+public class IssuedTokenCache implements MeterBinder {
+
+    private static final long PURGE_INTERVAL_MILLIS = 10_000;
+
+    private final boolean enabled;
+    private final double minRemainingFraction;
+    private final int maxSessions;
+    private final Map<String, Map<String, IssuedToken>> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder speculativeHits = new LongAdder();
+    private final TimeSource timeSource;
+
+    @Inject
+    public IssuedTokenCache(
+            @ConfigProperty(name = "platform.token-cache.enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "platform.token-cache.min-remaining-fraction", defaultValue = "0.5") double minRemainingFraction,
+            @ConfigProperty(name = "platform.token-cache.max-sessions", defaultValue = "100000") int maxSessions,
+            TimeSource timeSource) {
+        this.enabled = enabled;
+        this.minRemainingFraction = minRemainingFraction;
+        this.maxSessions = maxSessions;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Creates a cache that never returns a token.
+     */
+    public static IssuedTokenCache disabled() {
+        return new IssuedTokenCache(false, 1.0, 0, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Returns a previously issued token for the session and game if it is still reusable.
+     *
+     * @param sessionId the session the token was issued to
+     * @param gameId the game the token was issued for
+     * @param activeKid the ID of the currently active signing key
+     * @return the cached token, or null if a new one has to be signed
+     */
+    public IssuedToken get(String sessionId, String gameId, String activeKid) {
+        if (!enabled) return null;
+        Map<String, IssuedToken> tokens = sessions.get(sessionId);
+        IssuedToken token = (tokens != null) ? tokens.get(gameId) : null;
+        if (token != null && token.kid().equals(activeKid)
+                && token.hasRemaining(minRemainingFraction, timeSource.currentTimeMillis())) {
+            hits.increment();
+            if (token.speculative() && tokens.replace(gameId, token, token.asRequested())) {
+                speculativeHits.increment();
+            }
+            return token;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns whether a reusable token is cached for the session and game, without counting a hit
+     * or a miss.
+     */
+    public boolean contains(String sessionId, String gameId, String activeKid) {
+        if (!enabled) return false;
+        Map<String, IssuedToken> tokens = sessions.get(sessionId);
+        IssuedToken token = (tokens != null) ? tokens.get(gameId) : null;
+        return token != null && token.kid().equals(activeKid)
+                && token.hasRemaining(minRemainingFraction, timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Remembers a newly issued token for the session and game.
+     */
+    public void put(String sessionId, String gameId, IssuedToken token) {
+        if (!enabled) return;
+        tokensOf(sessionId).put(gameId, token);
+    }
+
+    /**
+     * Remembers a token signed ahead of time for the session and game, unless a token is already
+     * cached for them.
+     */
+    public void putSpeculative(String sessionId, String gameId, IssuedToken token) {
+        if (!enabled) return;
+        tokensOf(sessionId).putIfAbsent(gameId, token.asSpeculative());
+    }
+
+    private Map<String, IssuedToken> tokensOf(String sessionId) {
+        long now = timeSource.currentTimeMillis();
+        long purgeAt = nextPurgeAt.get();
+        if (now >= purgeAt && nextPurgeAt.compareAndSet(purgeAt, now + PURGE_INTERVAL_MILLIS)) {
+            purgeExpired(now);
+        }
+        if (sessions.size() >= maxSessions && !sessions.containsKey(sessionId)) {
+            evictOne();
+        }
+        return sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>(4));
+    }
+
+    /**
+     * Drops every token cached for the given session.
+     */
+    public void invalidateSession(String sessionId) {
+        if (!enabled || sessionId == null) return;
+        sessions.remove(sessionId);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns how many tokens signed ahead of time were handed out.
+     */
+    public long getSpeculativeHits() {
+        return speculativeHits.sum();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    private void purgeExpired(long now) {
+        for (Iterator<Map<String, IssuedToken>> it = sessions.values().iterator(); it.hasNext(); ) {
+            Map<String, IssuedToken> tokens = it.next();
+            tokens.values().removeIf(t -> !t.hasRemaining(minRemainingFraction, now));
+            if (tokens.isEmpty()) it.remove();
+        }
+    }
+
+    private void evictOne() {
+        Iterator<String> it = sessions.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("platform.token.cache.hits", this, IssuedTokenCache::getHits)
+                .description("Token requests answered with a previously signed token")
+                .register(registry);
+        FunctionCounter.builder("platform.token.cache.misses", this, IssuedTokenCache::getMisses)
+                .description("Token requests that required signing a new token")
+                .register(registry);
+        Gauge.builder("platform.token.cache.sessions", this, IssuedTokenCache::size)
+                .description("Sessions with cached tokens")
+                .register(registry);
+    }
+}
@@ -1,26 +1,252 @@
 package com.example.platform.service;
 
+import com.example.common.time.TimeSource;
+import com.example.platform.model.KeyRing;
+import com.example.platform.model.KeyRing.RetiredKey;
+import com.example.platform.model.SigningKey;
+import com.example.platform.model.Tenant;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.JWKSet;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * Generates an RSA keypair on startup and exposes the RSAKey + JWKSet for JWKS endpoint.
+ * Generates an RSA keypair per tenant on startup and exposes the active signing key + JWKSet of each
+ * tenant for the JWKS endpoint. The key rings are kept in an array indexed by {@link Tenant#index()},
+ * so looking up the signing key of a tenant is a single volatile array read; the methods without a
+ * tenant argument refer to the default tenant.
+ * When rotation is enabled, a background thread periodically generates the next key and publishes
+ * it in the JWKS for {@code publishLead} before it becomes active, so verifiers that cache the JWKS
+ * learn it before the first token is signed with it. The previously active key stays published for
+ * {@code retention}, which must cover the lifetime of the tokens it signed.
+ * The keys are held in immutable {@link KeyRing}s swapped atomically, so readers never lock; all
+ * mutations happen on the single rotation thread, which rotates the keys of every tenant.
+ * When {@code platform.keys.store-path} is set, the key ring is loaded from that file on startup and
+ * written back after every change, so a key pair is only generated when no stored one exists and a
+ * restart does not invalidate issued tokens. The default tenant uses that file, every other tenant a
+ * file in the same directory whose name is prefixed with the tenant ID.
+ * When a retired key is unpublished, its signing timer is removed from the {@link PlatformMetrics}, so
+ * the number of timers stays bounded across rotations.
  */
 @ApplicationScoped
 public class KeyManager {
 
-    private RSAKey rsaJwk;
+    private static final Logger LOG = Logger.getLogger(KeyManager.class);
+
+    private final Duration rotationInterval;
+    private final Duration publishLead;
+    private final Duration retention;
+    private final TenantRegistry tenants;
+    private final KeyRingStore[] keyRingStores;
+    private final AtomicReferenceArray<KeyRing> keyRings;
+    private final PlatformMetrics metrics;
+    private final TimeSource timeSource;
+    private ScheduledExecutorService rotationExecutor;
+
+    @Inject
+    public KeyManager(
+            TenantRegistry tenants,
+            @ConfigProperty(name = "platform.keys.rotation-interval", defaultValue = "P1D") Duration rotationInterval,
+            @ConfigProperty(name = "platform.keys.publish-lead", defaultValue = "PT10M") Duration publishLead,
+            @ConfigProperty(name = "platform.keys.retention", defaultValue = "PT25M") Duration retention,
+            @ConfigProperty(name = "platform.keys.store-path") Optional<String> storePath,
+            PlatformMetrics metrics,
+            TimeSource timeSource) {
+        this.rotationInterval = rotationInterval;
+        this.publishLead = publishLead;
+        this.retention = retention;
+        this.tenants = tenants;
+        this.metrics = metrics;
+        this.timeSource = timeSource;
+        int count = tenants.getTenants().size();
+        this.keyRings = new AtomicReferenceArray<>(count);
+        this.keyRingStores = new KeyRingStore[count];
+        if (storePath.isPresent()) {
+            Path path = Path.of(storePath.get());
+            for (Tenant tenant : tenants.getTenants()) {
+                keyRingStores[tenant.index()] = new KeyRingStore(tenant.index() == 0 ? path
+                        : path.resolveSibling(tenant.id() + "-" + path.getFileName()));
+            }
+        }
+    }
 
     @PostConstruct
     void init() throws Exception {
+        for (Tenant tenant : tenants.getTenants()) {
+            int index = tenant.index();
+            KeyRing stored = (keyRingStores[index] != null) ? keyRingStores[index].load(timeSource.now()) : null;
+            if (stored != null) {
+                keyRings.set(index, stored);
+                LOG.infof("Loaded signing key %s of %s from %s", stored.active().kid(), tenant.id(), keyRingStores[index].getPath());
+            } else {
+                updateKeyRing(index, KeyRing.of(generateKey(), null, List.of()));
+            }
+        }
+        boolean rotationEnabled = !rotationInterval.isZero() && !rotationInterval.isNegative();
+        if (!rotationEnabled) {
+            // a key that was pending when the ring was stored has been published for a while already
+            activatePendingKey();
+        } else {
+            if (rotationInterval.compareTo(publishLead) <= 0) {
+                LOG.warnf("Key rotation interval %s should exceed the publish lead %s", rotationInterval, publishLead);
+            }
+            rotationExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "key-rotation");
+                t.setDaemon(true);
+                return t;
+            });
+            long intervalMillis = rotationInterval.toMillis();
+            rotationExecutor.scheduleAtFixedRate(this::rotate, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            boolean pending = false;
+            boolean retired = false;
+            for (int i = 0; i < keyRings.length(); i++) {
+                pending |= keyRings.get(i).pending() != null;
+                retired |= !keyRings.get(i).retired().isEmpty();
+            }
+            if (pending) {
+                rotationExecutor.schedule(this::activateAndSchedulePurge, publishLead.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            if (retired) {
+                rotationExecutor.schedule(this::purgeRetiredKeys, retention.plusSeconds(1).toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (rotationExecutor != null) rotationExecutor.shutdownNow();
+    }
+
+    public RSAKey getRsaJwk() {
+        return getActiveKey().jwk();
+    }
+
+    /**
+     * Returns the key that currently signs tokens of the default tenant. This is a single volatile read.
+     */
+    public SigningKey getActiveKey() {
+        return keyRings.get(0).active();
+    }
+
+    /**
+     * Returns the key that currently signs tokens of the given tenant. This is a single volatile read.
+     */
+    public SigningKey getActiveKey(Tenant tenant) {
+        return keyRings.get(tenant.index()).active();
+    }
+
+    public KeyRing getKeyRing() {
+        return keyRings.get(0);
+    }
+
+    public KeyRing getKeyRing(Tenant tenant) {
+        return keyRings.get(tenant.index());
+    }
+
+    public JWKSet getJwkSet() {
+        return getKeyRing().publicKeys();
+    }
+
+    public TenantRegistry getTenants() {
+        return tenants;
+    }
+
+    private void rotate() {
+        try {
+            purgeRetiredKeys();
+            prepareNextKey();
+            rotationExecutor.schedule(this::activateAndSchedulePurge, publishLead.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            LOG.error("Failed to generate the next signing key, keeping the current one", e);
+        }
+    }
+
+    private void activateAndSchedulePurge() {
+        activatePendingKey();
+        rotationExecutor.schedule(this::purgeRetiredKeys,
+                retention.plusSeconds(1).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Generates the next key of every tenant and publishes it without letting it sign.
+     */
+    void prepareNextKey() throws NoSuchAlgorithmException {
+        for (Tenant tenant : tenants.getTenants()) {
+            SigningKey next = generateKey();
+            KeyRing current = keyRings.get(tenant.index());
+            updateKeyRing(tenant.index(), KeyRing.of(current.active(), next, current.retired()));
+            LOG.infof("Published signing key %s of %s, active in %s", next.kid(), tenant.id(), publishLead);
+        }
+    }
+
+    /**
+     * Makes the pending keys the active ones and retires the previously active keys.
+     */
+    void activatePendingKey() {
+        for (Tenant tenant : tenants.getTenants()) {
+            KeyRing current = keyRings.get(tenant.index());
+            if (current.pending() == null) continue;
+            List<RetiredKey> retired = new ArrayList<>(current.retired());
+            retired.add(new RetiredKey(current.active(), timeSource.now().plus(retention)));
+            updateKeyRing(tenant.index(), KeyRing.of(current.pending(), null, retired));
+            LOG.infof("Activated signing key %s of %s, retired %s", current.pending().kid(), tenant.id(), current.active().kid());
+        }
+    }
+
+    /**
+     * Removes retired keys whose tokens have all expired from the JWKS, together with their signing timers.
+     */
+    void purgeRetiredKeys() {
+        Instant now = timeSource.now();
+        for (int i = 0; i < keyRings.length(); i++) {
+            KeyRing current = keyRings.get(i);
+            List<RetiredKey> retained = current.retired().stream()
+                    .filter(r -> r.unpublishAt().isAfter(now))
+                    .toList();
+            if (retained.size() != current.retired().size()) {
+                updateKeyRing(i, KeyRing.of(current.active(), current.pending(), retained));
+                for (RetiredKey r : current.retired()) {
+                    if (!retained.contains(r)) metrics.removeSigningTimer(r.key().kid());
+                }
+            }
+        }
+    }
+
+    private void updateKeyRing(int index, KeyRing updated) {
+        keyRings.set(index, updated);
+        KeyRingStore store = keyRingStores[index];
+        if (store != null) {
+            try {
+                store.save(updated);
+            } catch (IOException e) {
+                LOG.errorf(e, "Failed to store signing keys in %s", store.getPath());
+            }
+        }
+    }
+
+    private static SigningKey generateKey() throws NoSuchAlgorithmException {
         KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
         gen.initialize(2048);
         KeyPair kp = gen.generateKeyPair();
@@ -28,17 +254,10 @@ public class KeyManager {
         RSAPrivateKey priv = (RSAPrivateKey) kp.getPrivate();
 
         String kid = UUID.randomUUID().toString();
-        rsaJwk = new RSAKey.Builder(pub)
+        RSAKey rsaJwk = new RSAKey.Builder(pub)
                 .privateKey(priv)
                 .keyID(kid)
                 .build();
+        return KeyRingStore.toSigningKey(rsaJwk);
     }
-
-    public RSAKey getRsaJwk() {
-        return rsaJwk;
-    }
-
-    public JWKSet getJwkSet() {
-        return new JWKSet(rsaJwk.toPublicJWK());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.example.platform.service;
+
+import com.example.platform.model.KeyRing;
+import com.example.platform.model.KeyRing.RetiredKey;
+import com.example.platform.model.SigningKey;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Persists the platform's key ring, including private keys, to a local JWK set file so that a
+ * restarted instance keeps signing with the same keys instead of generating new ones and
+ * invalidating every issued token.
+ * The keys are written in ring order: the active key first, then the pending key, then the
+ * retired keys, which carry their unpublish instant as the JWK {@code exp} parameter. That
+ * metadata is stripped again on load and never reaches the public JWKS.
+ * Files are replaced atomically and, where the file system supports it, readable by the owner only.
+ */
+public class KeyRingStore {
+
+    private final Path path;
+
+    public KeyRingStore(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Loads the key ring from the file.
+     *
+     * @param now the current time, which retired keys are dropped by
+     * @return the stored key ring without retired keys that are past their unpublish instant;
+     *         null if the file does not exist.
+     * @throws IOException if the file cannot be read
+     * @throws ParseException if the file does not contain a valid JWK set with an RSA private key
+     */
+    public KeyRing load(Instant now) throws IOException, ParseException {
+        if (!Files.exists(path)) return null;
+        JWKSet jwkSet = JWKSet.parse(Files.readString(path, StandardCharsets.UTF_8));
+        if (jwkSet.getKeys().isEmpty()) throw new ParseException("Key store " + path + " is empty", 0);
+        SigningKey active = null;
+        SigningKey pending = null;
+        List<RetiredKey> retired = new ArrayList<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (!(jwk instanceof RSAKey rsa) || !rsa.isPrivate()) {
+                throw new ParseException("Key store " + path + " must only contain RSA private keys", 0);
+            }
+            Date exp = rsa.getExpirationTime();
+            SigningKey key = toSigningKey(new RSAKey.Builder(rsa).expirationTime(null).build());
+            if (exp != null) {
+                if (exp.toInstant().isAfter(now)) retired.add(new RetiredKey(key, exp.toInstant()));
+            } else if (active == null) {
+                active = key;
+            } else {
+                pending = key;
+            }
+        }
+        if (active == null) throw new ParseException("Key store " + path + " has no active key", 0);
+        return KeyRing.of(active, pending, retired);
+    }
+
+    /**
+     * Writes the key ring to the file, replacing the previous content atomically.
+     *
+     * @param keyRing the key ring to store
+     * @throws IOException if the file cannot be written
+     */
+    public void save(KeyRing keyRing) throws IOException {
+        List<JWK> keys = new ArrayList<>();
+        keys.add(keyRing.active().jwk());
+        if (keyRing.pending() != null) keys.add(keyRing.pending().jwk());
+        for (RetiredKey r : keyRing.retired()) {
+            keys.add(new RSAKey.Builder(r.key().jwk()).expirationTime(Date.from(r.unpublishAt())).build());
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(tmp);
+            Files.writeString(tmp, new JWKSet(keys).toString(false), StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static SigningKey toSigningKey(RSAKey rsaKey) {
+        try {
+            return new SigningKey(rsaKey.getKeyID(), rsaKey, new RSASSASigner(rsaKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid RSA private key " + rsaKey.getKeyID(), e);
+        }
+    }
+
+    private static void restrictToOwner(Path file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system; rely on the directory permissions
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.platform.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for BCrypt password checks and token signing, and counters per login result,
+ * so that the CPU cost of logins and token issuance can be read per platform node.
+ * Signing is timed per tenant and key ID; a timer is created the first time a key signs, which
+ * happens once per rotation, and removed when the key is unpublished after its retention.
+ * Counting a login increments a pre-allocated adder. Before the registry is bound, timings are
+ * dropped.
+ */
+@ApplicationScoped
+public class PlatformMetrics implements MeterBinder {
+
+    static final String OK = "ok";
+    static final String MISSING_CREDENTIALS = "missing_credentials";
+    static final String INVALID_CREDENTIALS = "invalid_credentials";
+    private static final String[] LOGIN_RESULTS = {OK, MISSING_CREDENTIALS, INVALID_CREDENTIALS};
+
+    private final Map<String, LongAdder> logins;
+    private final Map<String, Timer> signingTimers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+    private volatile Timer passwordTimer;
+
+    public PlatformMetrics() {
+        Map<String, LongAdder> adders = new HashMap<>();
+        for (String result : LOGIN_RESULTS) {
+            adders.put(result, new LongAdder());
+        }
+        this.logins = Map.copyOf(adders);
+    }
+
+    /**
+     * Records the duration of a full BCrypt password check.
+     *
+     * @param nanos its duration in nanoseconds
+     */
+    public void recordPasswordCheck(long nanos) {
+        Timer timer = passwordTimer;
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the duration of a token signature.
+     *
+     * @param tenant the ID of the tenant that issued the token
+     * @param kid the ID of the key that signed it
+     * @param nanos its duration in nanoseconds
+     */
+    public void recordSigning(String tenant, String kid, long nanos) {
+        MeterRegistry r = registry;
+        if (r == null) return;
+        Timer timer = signingTimers.get(kid);
+        if (timer == null) {
+            timer = signingTimers.computeIfAbsent(kid, k -> Timer.builder("platform.token.signing")
+                    .description("Duration of signing a token, per tenant and key")
+                    .tag("tenant", tenant)
+                    .tag("kid", k)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(10_000))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(r));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Removes the signing timer of the given key from the registry, e.g. once the key has been
+     * unpublished and can no longer sign.
+     *
+     * @param kid the ID of the key
+     */
+    public void removeSigningTimer(String kid) {
+        Timer timer = signingTimers.remove(kid);
+        MeterRegistry r = registry;
+        if (timer != null && r != null) {
+            r.remove(timer);
+        }
+    }
+
+    /**
+     * Counts the outcome of a login.
+     *
+     * @param error the error code returned to the client, or null if the login succeeded
+     */
+    public void countLogin(String error) {
+        LongAdder adder = logins.get(error != null ? error : OK);
+        if (adder != null) adder.increment();
+    }
+
+    public long getLoginCount(String result) {
+        LongAdder adder = logins.get(result);
+        return (adder != null) ? adder.sum() : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        passwordTimer = Timer.builder("platform.password.check")
+                .description("Duration of a full BCrypt password check")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(registry);
+        for (String result : LOGIN_RESULTS) {
+            FunctionCounter.builder("platform.logins", logins.get(result), LongAdder::sum)
+                    .description("Login attempts by result: ok or the error code")
+                    .tag("result", result)
+                    .register(registry);
+        }
+        this.registry = registry;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.platform.service;
 
 import com.example.platform.model.PlatformSession;
+import com.example.platform.model.Tenant;
 
 /**
  * Manages user sessions within the platform, providing functionality for
@@ -17,7 +18,19 @@ public interface PlatformSessionManager {
      * @param ttlSeconds the desired duration of the session in seconds; if null, a default TTL is applied
      * @return the created PlatformSession containing the session details
      */
-    PlatformSession createSession(String username, Long ttlSeconds);
+    default PlatformSession createSession(String username, Long ttlSeconds) {
+        return createSession(username, null, ttlSeconds);
+    }
+    /**
+     * Creates a new session for the specified user of the given tenant with an optional time-to-live (TTL).
+     * If the TTL is not provided, the session will use a default expiration time.
+     *
+     * @param username the username associated with the session
+     * @param tenant the tenant the user logged in to; null for the default tenant
+     * @param ttlSeconds the desired duration of the session in seconds; if null, a default TTL is applied
+     * @return the created PlatformSession containing the session details
+     */
+    PlatformSession createSession(String username, Tenant tenant, Long ttlSeconds);
     /**
      * Retrieves an existing session by its session identifier. Optionally, the session's
      * last accessed time can be updated, effectively extending its validity if the session
@@ -34,6 +47,7 @@ public interface PlatformSessionManager {
      * is used to terminate a session, making the associated session identifier no longer valid.
      *
      * @param sessionId the unique identifier of the session to invalidate. Must not be null.
+     * @return the invalidated session, or null if no such session existed
      */
-    void invalidateSession(String sessionId);
+    PlatformSession invalidateSession(String sessionId);
 }
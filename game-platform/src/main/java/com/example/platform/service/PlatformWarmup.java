@@ -0,0 +1,103 @@
+package com.example.platform.service;
+
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises the token signing and password hashing code paths right after startup so that they
+ * are compiled by the JIT before the instance receives traffic. The warmup runs on a background
+ * thread and the readiness check reports the instance as not ready until it has finished.
+ * The duration of the first (cold) and last (warm) token signing is logged together with the
+ * time it took the instance to become ready. Tokens are signed by a token manager of the warmup's own,
+ * in the configured profile and with the real keys, that records into metrics bound to a registry that
+ * is never exported, so requests served while the warmup runs keep their metrics.
+ */
+@ApplicationScoped
+public class PlatformWarmup {
+
+    private static final Logger LOG = Logger.getLogger(PlatformWarmup.class);
+
+    private final KeyManager keyManager;
+    private final TimeSource timeSource;
+    private final boolean compact;
+    private final boolean enabled;
+    private final int tokenIterations;
+    private final int bcryptIterations;
+    private volatile boolean complete;
+
+    public PlatformWarmup(KeyManager keyManager, TimeSource timeSource,
+                          @ConfigProperty(name = "platform.tokens.compact", defaultValue = "false") boolean compact,
+                          @ConfigProperty(name = "platform.warmup.enabled", defaultValue = "true") boolean enabled,
+                          @ConfigProperty(name = "platform.warmup.token-iterations", defaultValue = "500") int tokenIterations,
+                          @ConfigProperty(name = "platform.warmup.bcrypt-iterations", defaultValue = "5") int bcryptIterations) {
+        this.keyManager = keyManager;
+        this.timeSource = timeSource;
+        this.compact = compact;
+        this.enabled = enabled;
+        this.tokenIterations = tokenIterations;
+        this.bcryptIterations = bcryptIterations;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(this::run, "platform-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the warmup has finished, or was disabled.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        try {
+            TokenManager tokenManager = warmupTokenManager();
+            long coldNanos = 0;
+            long warmNanos = 0;
+            for (int i = 0; i < tokenIterations; i++) {
+                long t = System.nanoTime();
+                tokenManager.buildToken("warmup-player", "warmup-game");
+                keyManager.getKeyRing().jwksJson();
+                long elapsed = System.nanoTime() - t;
+                if (i == 0) coldNanos = elapsed;
+                warmNanos = elapsed;
+            }
+            String hash = BCrypt.hashpw("warmup", BCrypt.gensalt(10));
+            for (int i = 0; i < bcryptIterations; i++) {
+                BCrypt.checkpw("warmup", hash);
+            }
+            LOG.infof("Warmup finished in %d ms: first token signed in %.2f ms, last in %.2f ms; ready %d ms after JVM start",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    coldNanos / 1e6, warmNanos / 1e6,
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+        } catch (RuntimeException e) {
+            LOG.warn("Warmup failed, reporting ready anyway", e);
+        } finally {
+            complete = true;
+        }
+    }
+
+    private TokenManager warmupTokenManager() {
+        PlatformMetrics metrics = new PlatformMetrics();
+        metrics.bindTo(new SimpleMeterRegistry());
+        return new TokenManager(keyManager, IssuedTokenCache.disabled(), compact, metrics, new Tracer(),
+                new IdGenerator(), new RevocationFeed(), timeSource);
+    }
+}
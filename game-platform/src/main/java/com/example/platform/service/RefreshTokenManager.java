@@ -0,0 +1,35 @@
+package com.example.platform.service;
+
+import com.example.platform.model.RefreshCredential;
+
+/**
+ * Manages long-lived, rotating refresh credentials that allow a player to obtain a new
+ * platform session without re-entering the password. Each credential belongs to a family
+ * started at login; exchanging a credential replaces it with the next one in the family,
+ * and presenting an already exchanged credential revokes the whole family.
+ */
+public interface RefreshTokenManager {
+    /**
+     * Issues the first refresh credential of a new family for the specified user.
+     *
+     * @param username the username the credential is issued to. Must not be null.
+     * @return the newly issued RefreshCredential
+     */
+    RefreshCredential issue(String username);
+    /**
+     * Exchanges a refresh credential for the next one in its family. The presented value
+     * is invalidated by this call regardless of the outcome.
+     *
+     * @param refreshToken the credential value presented by the client
+     * @return the rotated RefreshCredential; null if the value is unknown, expired,
+     *         revoked or has already been exchanged
+     */
+    RefreshCredential rotate(String refreshToken);
+    /**
+     * Revokes the family the presented credential belongs to, so neither it nor any
+     * credential derived from it can be exchanged anymore.
+     *
+     * @param refreshToken the credential value presented by the client. May be null.
+     */
+    void revoke(String refreshToken);
+}
@@ -0,0 +1,188 @@
+package com.example.platform.service;
+
+import com.example.platform.model.Revocation;
+import com.example.platform.model.Tenant;
+import com.example.common.time.TimeSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes revoked sessions and tokens per tenant, so that providers can reject tokens that are
+ * still unexpired after a logout without asking the platform on every request.
+ * Every tenant has its own feed of revocations numbered in the order they were published. A provider
+ * polls the feed with the sequence number it has seen last and receives only the revocations after it.
+ * A revocation is dropped from the feed once every token it matches has expired, so a provider that
+ * missed it has nothing to catch up on. The feed is kept in memory; its epoch changes with every
+ * start of the platform, which tells providers to read the feed again from the beginning.
+ * A disabled feed publishes nothing, and tokens are then issued without a {@code sid} claim.
+ */
+@ApplicationScoped
+public class RevocationFeed implements MeterBinder {
+
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final boolean enabled;
+    private final String epoch;
+    private final TimeSource timeSource;
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final LongAdder sessionsRevoked = new LongAdder();
+    private final LongAdder tokensRevoked = new LongAdder();
+
+    /**
+     * Creates a disabled feed.
+     */
+    public RevocationFeed() {
+        this(false, new IdGenerator(), TimeSource.SYSTEM);
+    }
+
+    @Inject
+    public RevocationFeed(@ConfigProperty(name = "platform.revocations.enabled", defaultValue = "true") boolean enabled,
+                          IdGenerator idGenerator, TimeSource timeSource) {
+        this.enabled = enabled;
+        this.epoch = idGenerator.nextId();
+        this.timeSource = timeSource;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the ID of this run of the feed; sequence numbers of different epochs are unrelated.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Revokes all tokens carrying the given {@code sid} claim.
+     *
+     * @param tenant the tenant that issued the tokens
+     * @param sid the session claim of the tokens
+     * @param expiresAtMillis the time by which all tokens of the session have expired
+     */
+    public void revokeSession(Tenant tenant, String sid, long expiresAtMillis) {
+        if (!enabled) return;
+        feed(tenant).append(Revocation.Type.SESSION, sid, expiresAtMillis, timeSource.currentTimeMillis());
+        sessionsRevoked.increment();
+    }
+
+    /**
+     * Revokes the token with the given {@code jti}.
+     *
+     * @param tenant the tenant that issued the token
+     * @param jti the ID of the token
+     * @param expiresAtMillis the expiration time of the token
+     */
+    public void revokeToken(Tenant tenant, String jti, long expiresAtMillis) {
+        if (!enabled) return;
+        feed(tenant).append(Revocation.Type.TOKEN, jti, expiresAtMillis, timeSource.currentTimeMillis());
+        tokensRevoked.increment();
+    }
+
+    /**
+     * Returns the unexpired revocations of the tenant published after the given sequence number.
+     *
+     * @param tenant the tenant whose feed is read
+     * @param after the sequence number of the last revocation seen, 0 to read from the beginning
+     * @param limit the maximum number of revocations returned
+     */
+    public Page read(Tenant tenant, long after, int limit) {
+        Feed feed = feeds.get(tenant.id());
+        if (feed == null) return new Page(0, List.of(), false);
+        return feed.read(after, limit, timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Returns the number of revocations in all feeds, including expired ones not yet dropped.
+     */
+    public int size() {
+        int size = 0;
+        for (Feed feed : feeds.values()) {
+            size += feed.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerRevoked(registry, "session", sessionsRevoked);
+        registerRevoked(registry, "token", tokensRevoked);
+        Gauge.builder("platform.revocations.active", this, RevocationFeed::size)
+                .description("Revocations published in the feeds whose tokens may not have expired yet")
+                .register(registry);
+    }
+
+    private static void registerRevoked(MeterRegistry registry, String type, LongAdder adder) {
+        FunctionCounter.builder("platform.revocations.published", adder, LongAdder::sum)
+                .description("Revocations published by type")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private Feed feed(Tenant tenant) {
+        return feeds.computeIfAbsent(tenant.id(), id -> new Feed());
+    }
+
+    /**
+     * A part of a tenant's feed.
+     *
+     * @param cursor the sequence number to continue reading after
+     * @param revocations the revocations in the order they were published
+     * @param more whether more revocations follow the cursor
+     */
+    public record Page(long cursor, List<Revocation> revocations, boolean more) {
+    }
+
+    /**
+     * The revocations of one tenant in sequence order. Expired revocations are dropped from the head;
+     * the list is compacted once the dropped part outweighs the live one.
+     */
+    private static final class Feed {
+
+        private final ArrayList<Revocation> entries = new ArrayList<>();
+        private int head;
+        private long lastSequence;
+
+        synchronized void append(Revocation.Type type, String id, long expiresAtMillis, long now) {
+            dropExpired(now);
+            entries.add(new Revocation(++lastSequence, type, id, expiresAtMillis));
+        }
+
+        synchronized Page read(long after, int limit, long now) {
+            dropExpired(now);
+            int live = entries.size() - head;
+            long first = (live > 0) ? entries.get(head).sequence() : lastSequence + 1;
+            int from = head + (int) Math.min(Math.max(after + 1 - first, 0), live);
+            int to = (int) Math.min(entries.size(), (long) from + Math.max(limit, 0));
+            List<Revocation> page = List.copyOf(entries.subList(from, to));
+            long cursor = (to > from) ? entries.get(to - 1).sequence() : lastSequence;
+            return new Page(cursor, page, to < entries.size());
+        }
+
+        synchronized int size() {
+            return entries.size() - head;
+        }
+
+        private void dropExpired(long now) {
+            while (head < entries.size() && entries.get(head).expiresAtMillis() < now) {
+                entries.set(head++, null);
+            }
+            if (head >= COMPACT_THRESHOLD && head * 2 >= entries.size()) {
+                entries.subList(0, head).clear();
+                head = 0;
+            }
+        }
+    }
+}
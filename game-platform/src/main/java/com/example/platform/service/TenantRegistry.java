@@ -0,0 +1,96 @@
+package com.example.platform.service;
+
+import com.example.platform.model.Tenant;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Holds the tenants hosted by this platform process. The first configured tenant is the default
+ * one; it serves requests whose host is not mapped to a tenant and sessions created without one.
+ * Tenants are numbered in configuration order so that their keys can be kept in an array and
+ * looked up by index.
+ */
+@ApplicationScoped
+public class TenantRegistry {
+
+    private final List<Tenant> tenants;
+    private final Map<String, Tenant> byId;
+    private final Map<String, Tenant> byHost;
+
+    /**
+     * @param tenantIds the IDs of the hosted tenants, the default tenant first
+     * @param hosts optional {@code host=tenant} entries that map a request host to a tenant
+     */
+    @Inject
+    public TenantRegistry(@ConfigProperty(name = "platform.tenants", defaultValue = "platform-A") List<String> tenantIds,
+                          @ConfigProperty(name = "platform.tenant-hosts") Optional<List<String>> hosts) {
+        if (tenantIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one tenant must be configured");
+        }
+        List<Tenant> list = new ArrayList<>(tenantIds.size());
+        Map<String, Tenant> ids = new HashMap<>();
+        for (String id : tenantIds) {
+            Tenant tenant = new Tenant(list.size(), id.trim());
+            if (ids.put(tenant.id(), tenant) != null) {
+                throw new IllegalArgumentException("Duplicate tenant " + tenant.id());
+            }
+            list.add(tenant);
+        }
+        Map<String, Tenant> hostMap = new HashMap<>();
+        for (String entry : hosts.orElse(List.of())) {
+            int eq = entry.indexOf('=');
+            Tenant tenant = (eq > 0) ? ids.get(entry.substring(eq + 1).trim()) : null;
+            if (tenant == null) {
+                throw new IllegalArgumentException("Invalid tenant host mapping " + entry);
+            }
+            hostMap.put(entry.substring(0, eq).trim().toLowerCase(Locale.ROOT), tenant);
+        }
+        this.tenants = List.copyOf(list);
+        this.byId = Map.copyOf(ids);
+        this.byHost = Map.copyOf(hostMap);
+    }
+
+    /**
+     * Creates a registry with a single tenant.
+     */
+    public static TenantRegistry single(String tenantId) {
+        return new TenantRegistry(List.of(tenantId), Optional.empty());
+    }
+
+    public Tenant getDefault() {
+        return tenants.get(0);
+    }
+
+    /**
+     * Returns the tenant with the given ID, or null if there is none.
+     */
+    public Tenant get(String tenantId) {
+        return (tenantId != null) ? byId.get(tenantId) : null;
+    }
+
+    /**
+     * Returns the tenant mapped to the host of a request, or the default tenant if the host is not
+     * mapped.
+     *
+     * @param hostHeader the value of the Host header, optionally with a port
+     */
+    public Tenant resolveHost(String hostHeader) {
+        if (hostHeader == null || byHost.isEmpty()) return getDefault();
+        int colon = hostHeader.lastIndexOf(':');
+        String host = (colon > 0 && hostHeader.indexOf(']') < colon) ? hostHeader.substring(0, colon) : hostHeader;
+        Tenant tenant = byHost.get(host.toLowerCase(Locale.ROOT));
+        return (tenant != null) ? tenant : getDefault();
+    }
+
+    public List<Tenant> getTenants() {
+        return tenants;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.platform.service;
+
+import com.example.platform.model.PlatformSession;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Signs tokens for a player's most launched games right after login, so that the first /issue
+ * calls of the session find a token in the {@link IssuedTokenCache} instead of waiting for an RSA
+ * signature. The launches are counted per player in memory; the tokens are signed on a single
+ * low-priority thread with a bounded queue, and work that does not fit into the queue is dropped
+ * rather than competing with request threads.
+ * The number of tokens signed ahead of time and the number of them actually handed out are exposed
+ * as metrics; a low ratio means the prediction is not worth the signatures and should be turned off.
+ */
+@ApplicationScoped
+public class TokenPreIssuer implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(TokenPreIssuer.class);
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_GAMES_PER_PLAYER = 16;
+
+    private final TokenManager tokenManager;
+    private final IssuedTokenCache issuedTokenCache;
+    private final PlatformSessionManager sessionManager;
+    private final boolean enabled;
+    private final int gamesPerLogin;
+    private final int maxPlayers;
+    private final Map<String, Map<String, AtomicInteger>> launches = new ConcurrentHashMap<>();
+    private final LongAdder preIssued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private ThreadPoolExecutor executor;
+
+    @Inject
+    public TokenPreIssuer(TokenManager tokenManager, IssuedTokenCache issuedTokenCache, PlatformSessionManager sessionManager,
+                          @ConfigProperty(name = "platform.token-preissue.enabled", defaultValue = "false") boolean enabled,
+                          @ConfigProperty(name = "platform.token-preissue.games-per-login", defaultValue = "3") int gamesPerLogin,
+                          @ConfigProperty(name = "platform.token-preissue.max-players", defaultValue = "100000") int maxPlayers) {
+        this.tokenManager = tokenManager;
+        this.issuedTokenCache = issuedTokenCache;
+        this.sessionManager = sessionManager;
+        this.enabled = enabled && issuedTokenCache.isEnabled() && gamesPerLogin > 0;
+        this.gamesPerLogin = gamesPerLogin;
+        this.maxPlayers = maxPlayers;
+        if (this.enabled) {
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                Thread t = new Thread(r, "token-preissue");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /**
+     * Counts a game launch of the player. Only a bounded number of games per player and of players
+     * is tracked.
+     */
+    public void recordLaunch(String playerId, String gameId) {
+        if (!enabled) return;
+        Map<String, AtomicInteger> games = launches.get(playerId);
+        if (games == null) {
+            if (launches.size() >= maxPlayers) {
+                evictOne();
+            }
+            games = launches.computeIfAbsent(playerId, id -> new ConcurrentHashMap<>(4));
+        }
+        AtomicInteger count = games.get(gameId);
+        if (count == null) {
+            if (games.size() >= MAX_GAMES_PER_PLAYER) return;
+            count = games.computeIfAbsent(gameId, id -> new AtomicInteger());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Schedules signing tokens for the player's most launched games in the background. Returns
+     * immediately; nothing happens if the feature is disabled or the queue is full.
+     *
+     * @param sessionId the session that was just created for the player
+     * @param playerId the player that logged in
+     */
+    public void onLogin(String sessionId, String playerId) {
+        if (!enabled || !launches.containsKey(playerId)) return;
+        try {
+            executor.execute(() -> preIssue(sessionId, playerId));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    void preIssue(String sessionId, String playerId) {
+        try {
+            for (String gameId : topGames(playerId)) {
+                PlatformSession session = sessionManager.getSession(sessionId, false);
+                if (session == null) return;
+                if (tokenManager.preIssueToken(session.getTenant(), sessionId, playerId, gameId)) {
+                    preIssued.increment();
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.debugf("Pre-issuing tokens for session of %s failed: %s", playerId, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns up to {@code games-per-login} games the player launched most often, most launched first.
+     */
+    List<String> topGames(String playerId) {
+        Map<String, AtomicInteger> games = launches.get(playerId);
+        if (games == null) return List.of();
+        List<Map.Entry<String, AtomicInteger>> entries = new ArrayList<>(games.entrySet());
+        entries.sort((a, b) -> Integer.compare(b.getValue().get(), a.getValue().get()));
+        List<String> top = new ArrayList<>(Math.min(gamesPerLogin, entries.size()));
+        for (int i = 0; i < entries.size() && i < gamesPerLogin; i++) {
+            top.add(entries.get(i).getKey());
+        }
+        return top;
+    }
+
+    private void evictOne() {
+        Iterator<String> it = launches.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public long getPreIssued() {
+        return preIssued.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the fraction of tokens signed ahead of time that were handed out.
+     */
+    public double getHitRatio() {
+        long issued = preIssued.sum();
+        return issued == 0 ? 0 : Math.min(1.0, (double) issuedTokenCache.getSpeculativeHits() / issued);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("platform.token.preissue.issued", this, TokenPreIssuer::getPreIssued)
+                .description("Tokens signed ahead of time after login")
+                .register(registry);
+        FunctionCounter.builder("platform.token.preissue.used", issuedTokenCache, IssuedTokenCache::getSpeculativeHits)
+                .description("Tokens signed ahead of time that were handed out by /issue")
+                .register(registry);
+        FunctionCounter.builder("platform.token.preissue.dropped", this, TokenPreIssuer::getDropped)
+                .description("Logins for which no tokens were signed ahead of time because the queue was full")
+                .register(registry);
+        Gauge.builder("platform.token.preissue.hit.ratio", this, TokenPreIssuer::getHitRatio)
+                .description("Fraction of tokens signed ahead of time that were handed out")
+                .register(registry);
+    }
+}
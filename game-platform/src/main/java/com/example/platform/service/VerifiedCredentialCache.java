@@ -0,0 +1,188 @@
+package com.example.platform.service;
+
+import com.example.common.time.TimeSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers successful password verifications for a short window so that clients re-sending
+ * the same credentials do not pay for a full BCrypt check every time.
+ * Entries are keyed by an HMAC-SHA256 of username and password computed with a secret that is
+ * generated per process and never leaves memory, so neither the plaintext password nor a value
+ * that can be brute-forced offline is retained. Each entry also records the stored password hash
+ * it was verified against, so a password change makes older entries miss.
+ * The cache is bounded and disabled by default. Entries expire by the injected TimeSource.
+ */
+@ApplicationScoped
+public class VerifiedCredentialCache implements MeterBinder {
+
+    private static final long PURGE_INTERVAL_MILLIS = 10_000;
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadLocal<Mac> macs;
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+    private volatile long averageVerificationNanos;
+    private final TimeSource timeSource;
+
+    public VerifiedCredentialCache(
+            @ConfigProperty(name = "platform.credential-cache.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "platform.credential-cache.ttl-seconds", defaultValue = "60") long ttlSeconds,
+            @ConfigProperty(name = "platform.credential-cache.max-entries", defaultValue = "10000") int maxEntries,
+            TimeSource timeSource) {
+        this.enabled = enabled;
+        this.timeSource = timeSource;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxEntries = maxEntries;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        SecretKeySpec key = new SecretKeySpec(secret, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Creates a cache that never remembers anything.
+     */
+    public static VerifiedCredentialCache disabled() {
+        return new VerifiedCredentialCache(false, 0, 0, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Checks whether the given credentials were successfully verified against the given stored
+     * hash within the cache window.
+     *
+     * @param username the username being verified
+     * @param password the password being verified
+     * @param storedHash the password hash currently stored for the user
+     * @return true if a still valid verification is remembered; false otherwise
+     */
+    public boolean isVerified(String username, String password, String storedHash) {
+        if (!enabled) return false;
+        Entry entry = entries.get(credentialKey(username, password));
+        if (entry != null && entry.expiresAtMillis() > timeSource.currentTimeMillis()
+                && entry.storedHash().equals(storedHash)) {
+            hits.increment();
+            savedNanos.add(averageVerificationNanos);
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Remembers a successful verification.
+     *
+     * @param username the verified username
+     * @param password the verified password
+     * @param storedHash the password hash the credentials were verified against
+     * @param verificationNanos how long the full verification took, used to estimate the CPU time saved by hits
+     */
+    public void remember(String username, String password, String storedHash, long verificationNanos) {
+        if (!enabled) return;
+        long avg = averageVerificationNanos;
+        averageVerificationNanos = (avg == 0) ? verificationNanos : avg + (verificationNanos - avg) / 8;
+        long now = timeSource.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            purgeExpired(now);
+            evictOneIfFull();
+        }
+        entries.put(credentialKey(username, password),
+                new Entry(storedHash, now + ttlMillis));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public long getSavedNanos() {
+        return savedNanos.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("platform.credential.cache.hits", this, VerifiedCredentialCache::getHits)
+                .description("Password verifications answered from the credential cache")
+                .register(registry);
+        FunctionCounter.builder("platform.credential.cache.misses", this, VerifiedCredentialCache::getMisses)
+                .description("Password verifications that required a full BCrypt check")
+                .register(registry);
+        FunctionCounter.builder("platform.credential.cache.saved.seconds", this,
+                        c -> c.getSavedNanos() / 1e9)
+                .description("Estimated BCrypt CPU time avoided by cache hits")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("platform.credential.cache.hit.ratio", this, VerifiedCredentialCache::getHitRatio)
+                .register(registry);
+        Gauge.builder("platform.credential.cache.size", this, VerifiedCredentialCache::size)
+                .register(registry);
+    }
+
+    private void purgeExpired(long now) {
+        long due = nextPurgeAt.get();
+        if (now >= due && nextPurgeAt.compareAndSet(due, now + PURGE_INTERVAL_MILLIS)) {
+            entries.values().removeIf(e -> e.expiresAtMillis() <= now);
+        }
+    }
+
+    private void evictOneIfFull() {
+        Iterator<String> it = entries.keySet().iterator();
+        if (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private String credentialKey(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record Entry(String storedHash, long expiresAtMillis) {
+    }
+}
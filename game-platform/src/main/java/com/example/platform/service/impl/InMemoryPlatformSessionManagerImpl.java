@@ -1,30 +1,90 @@
 package com.example.platform.service.impl;
 
 import com.example.platform.model.PlatformSession;
+import com.example.platform.model.Tenant;
+import com.example.platform.service.IdGenerator;
 import com.example.platform.service.PlatformSessionManager;
+import com.example.common.time.TimeSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * In-memory session manager for platform user sessions.
+ * Session IDs are 128-bit random values in 22 base64url characters from the IdGenerator.
+ * Expired sessions are dropped when they are looked up and by a background task every
+ * {@code platform.sessions.purge-interval}, so the number of stored sessions reported as a gauge
+ * stays close to the number of live ones while creating a session stays a single map insert.
+ * Lookups are counted by result and touches separately.
+ * Expiry is checked against the injected TimeSource in epoch milliseconds.
  */
 @ApplicationScoped
-public class InMemoryPlatformSessionManagerImpl implements PlatformSessionManager {
+public class InMemoryPlatformSessionManagerImpl implements PlatformSessionManager, MeterBinder {
 
     private final Map<String, PlatformSession> sessionStore = new ConcurrentHashMap<>();
     private final long defaultTtlSeconds = 20 * 60; // 20 minutes
+    private final LongAdder created = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder touched = new LongAdder();
+    private final IdGenerator idGenerator;
+    private final TimeSource timeSource;
+    private final Duration purgeInterval;
+    private ScheduledExecutorService purgeExecutor;
+
+    @Inject
+    public InMemoryPlatformSessionManagerImpl(
+            IdGenerator idGenerator,
+            TimeSource timeSource,
+            @ConfigProperty(name = "platform.sessions.purge-interval", defaultValue = "PT10S") Duration purgeInterval) {
+        this.idGenerator = idGenerator;
+        this.timeSource = timeSource;
+        this.purgeInterval = purgeInterval;
+    }
+
+    @PostConstruct
+    void init() {
+        if (purgeInterval.isZero() || purgeInterval.isNegative()) {
+            return;
+        }
+        purgeExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = purgeInterval.toMillis();
+        purgeExecutor.scheduleAtFixedRate(this::purgeExpired, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (purgeExecutor != null) purgeExecutor.shutdownNow();
+    }
 
     @Override
-    public PlatformSession createSession(String username, Long ttlSeconds) {
+    public PlatformSession createSession(String username, Tenant tenant, Long ttlSeconds) {
         long ttl = (ttlSeconds != null) ? ttlSeconds : defaultTtlSeconds;
-        String sid = UUID.randomUUID().toString();
-        Instant now = Instant.now();
-        PlatformSession s = new PlatformSession(sid, username, now.plusSeconds(ttl), now);
+        String sid = idGenerator.nextId();
+        Instant now = timeSource.now();
+        PlatformSession s = new PlatformSession(sid, username, tenant, now.plusSeconds(ttl), now);
         sessionStore.put(sid, s);
+        created.increment();
         return s;
     }
 
@@ -32,19 +92,61 @@ public class InMemoryPlatformSessionManagerImpl implements PlatformSessionManage
     public PlatformSession getSession(String sessionId, boolean touch) {
         if (sessionId == null) return null;
         PlatformSession platformSession = sessionStore.get(sessionId);
-        if (platformSession == null) return null;
-        if (platformSession.isExpired()) {
+        if (platformSession == null) {
+            missing.increment();
+            return null;
+        }
+        long now = timeSource.currentTimeMillis();
+        if (platformSession.isExpired(now)) {
             sessionStore.remove(sessionId);
+            expired.increment();
             return null;
         }
+        found.increment();
         if (touch) {
-            platformSession.touch(defaultTtlSeconds);
+            platformSession.touch(defaultTtlSeconds, now);
+            touched.increment();
         }
         return platformSession;
     }
 
     @Override
-    public void invalidateSession(String sessionId) {
-        if (sessionId != null) sessionStore.remove(sessionId);
+    public PlatformSession invalidateSession(String sessionId) {
+        return (sessionId != null) ? sessionStore.remove(sessionId) : null;
+    }
+
+    public int size() {
+        return sessionStore.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("platform.sessions.active", this, InMemoryPlatformSessionManagerImpl::size)
+                .description("Sessions currently stored, including expired ones not yet purged")
+                .register(registry);
+        FunctionCounter.builder("platform.sessions.created", created, LongAdder::sum)
+                .description("Sessions created by logins and refreshes")
+                .register(registry);
+        registerLookups(registry, "found", found);
+        registerLookups(registry, "missing", missing);
+        registerLookups(registry, "expired", expired);
+        FunctionCounter.builder("platform.sessions.touches", touched, LongAdder::sum)
+                .description("Session lookups that extended the session's lifetime")
+                .register(registry);
+    }
+
+    private static void registerLookups(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("platform.sessions.lookups", adder, LongAdder::sum)
+                .description("Session lookups by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Drops all expired sessions. Runs on the purge thread, never on a request thread.
+     */
+    void purgeExpired() {
+        long now = timeSource.currentTimeMillis();
+        sessionStore.values().removeIf(s -> s.isExpired(now));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.example.platform.service.impl;
+
+import com.example.common.time.TimeSource;
+import com.example.platform.model.RefreshCredential;
+import com.example.platform.service.RefreshTokenManager;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory store of refresh credential families.
+ * A credential value has the form {@code <familyId>.<secret>}. Only the SHA-256 digest of the
+ * current secret is kept per family, so the store holds exactly one small entry per login and
+ * revocation is a single map removal. Rotation replaces the entry with a compare-and-set, which
+ * makes a credential usable at most once; presenting a stale secret of a live family is treated
+ * as token theft and revokes the family. Expiry is computed and checked on the injected TimeSource.
+ */
+@ApplicationScoped
+public class InMemoryRefreshTokenManagerImpl implements RefreshTokenManager {
+
+    private static final int FAMILY_ID_BYTES = 16;
+    private static final int SECRET_BYTES = 32;
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+    private final long ttlSeconds;
+    private final TimeSource timeSource;
+
+    public InMemoryRefreshTokenManagerImpl(
+            @ConfigProperty(name = "platform.refresh.ttl-seconds", defaultValue = "1209600") long ttlSeconds,
+            TimeSource timeSource) {
+        this.ttlSeconds = ttlSeconds;
+        this.timeSource = timeSource;
+    }
+
+    @Override
+    public RefreshCredential issue(String username) {
+        purgeExpiredIfDue();
+        String familyId = randomToken(FAMILY_ID_BYTES);
+        String secret = randomToken(SECRET_BYTES);
+        Instant expiresAt = timeSource.now().plusSeconds(ttlSeconds);
+        families.put(familyId, new Family(username, digest(secret), expiresAt.toEpochMilli()));
+        return new RefreshCredential(familyId + '.' + secret, username, expiresAt);
+    }
+
+    @Override
+    public RefreshCredential rotate(String refreshToken) {
+        int dot = (refreshToken != null) ? refreshToken.indexOf('.') : -1;
+        if (dot <= 0) return null;
+        String familyId = refreshToken.substring(0, dot);
+        Family family = families.get(familyId);
+        if (family == null) return null;
+        if (family.expiresAtMillis() <= timeSource.currentTimeMillis()) {
+            families.remove(familyId, family);
+            return null;
+        }
+        if (!MessageDigest.isEqual(family.secretDigest(), digest(refreshToken.substring(dot + 1)))) {
+            // an already exchanged secret is being replayed: revoke the whole family
+            families.remove(familyId, family);
+            return null;
+        }
+        String secret = randomToken(SECRET_BYTES);
+        Instant expiresAt = timeSource.now().plusSeconds(ttlSeconds);
+        Family next = new Family(family.username(), digest(secret), expiresAt.toEpochMilli());
+        if (!families.replace(familyId, family, next)) return null;
+        return new RefreshCredential(familyId + '.' + secret, family.username(), expiresAt);
+    }
+
+    @Override
+    public void revoke(String refreshToken) {
+        int dot = (refreshToken != null) ? refreshToken.indexOf('.') : -1;
+        if (dot > 0) families.remove(refreshToken.substring(0, dot));
+    }
+
+    private void purgeExpiredIfDue() {
+        long now = timeSource.currentTimeMillis();
+        long due = nextPurgeAt.get();
+        if (now >= due && nextPurgeAt.compareAndSet(due, now + PURGE_INTERVAL_MILLIS)) {
+            families.values().removeIf(f -> f.expiresAtMillis() <= now);
+        }
+    }
+
+    private String randomToken(int numBytes) {
+        byte[] bytes = new byte[numBytes];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static byte[] digest(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Family(String username, byte[] secretDigest, long expiresAtMillis) {
+    }
+}
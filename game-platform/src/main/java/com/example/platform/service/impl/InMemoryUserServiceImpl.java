@@ -1,8 +1,11 @@
 package com.example.platform.service.impl;
 
+import com.example.platform.service.PlatformMetrics;
 import com.example.platform.service.UserService;
+import com.example.platform.service.VerifiedCredentialCache;
 import org.mindrot.jbcrypt.BCrypt;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,6 +16,9 @@ import java.util.concurrent.ConcurrentHashMap;
  *'
  * For testing purposes this version uses a static initializer so the test user
  * is available as soon as the class is loaded.
+ * Successful verifications can be remembered for a short window by the
+ * VerifiedCredentialCache to skip repeated BCrypt checks. The duration of every full
+ * BCrypt check is recorded in the PlatformMetrics.
  */
 @ApplicationScoped
 public class InMemoryUserServiceImpl implements UserService {
@@ -24,6 +30,15 @@ public class InMemoryUserServiceImpl implements UserService {
         STORE.put("test", hashed);
     }
 
+    private final VerifiedCredentialCache credentialCache;
+    private final PlatformMetrics metrics;
+
+    @Inject
+    public InMemoryUserServiceImpl(VerifiedCredentialCache credentialCache, PlatformMetrics metrics) {
+        this.credentialCache = credentialCache;
+        this.metrics = metrics;
+    }
+
     @Override
     public boolean userExists(String username) {
         return STORE.containsKey(username);
@@ -34,6 +49,14 @@ public class InMemoryUserServiceImpl implements UserService {
         if (username == null || password == null) return false;
         String hashed = STORE.get(username);
         if (hashed == null) return false;
-        return BCrypt.checkpw(password, hashed);
+        if (credentialCache.isVerified(username, password, hashed)) return true;
+        long start = System.nanoTime();
+        boolean verified = BCrypt.checkpw(password, hashed);
+        long elapsed = System.nanoTime() - start;
+        metrics.recordPasswordCheck(elapsed);
+        if (verified) {
+            credentialCache.remember(username, password, hashed, elapsed);
+        }
+        return verified;
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.example.platform.audit;
+
+import com.example.platform.model.Tenant;
+import com.example.common.time.FakeTimeSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private static final Tenant TENANT = new Tenant(0, "platform-A");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRecordsAreWrittenAndReadBack() throws Exception {
+        FakeTimeSource clock = new FakeTimeSource();
+        AuditLog log = newLog(1024 * 1024, 16, AuditLog.OverflowPolicy.BLOCK, clock);
+
+        log.login(TENANT, "alice");
+        clock.advance(Duration.ofSeconds(1));
+        log.tokenIssued(TENANT, "alice", "game-slots", "jti-1");
+        log.loginFailed(null, "mallory");
+        log.logout(TENANT, "alice");
+        log.close(Duration.ofSeconds(2));
+
+        List<AuditRecord> records = readAll();
+        assertEquals(List.of(
+                new AuditRecord(AuditRecord.Type.LOGIN, clock.currentTimeMillis() - 1000, "platform-A", "alice", null, null),
+                new AuditRecord(AuditRecord.Type.TOKEN_ISSUED, clock.currentTimeMillis(), "platform-A", "alice", "game-slots", "jti-1"),
+                new AuditRecord(AuditRecord.Type.LOGIN_FAILED, clock.currentTimeMillis(), null, "mallory", null, null),
+                new AuditRecord(AuditRecord.Type.LOGOUT, clock.currentTimeMillis(), "platform-A", "alice", null, null)),
+                records);
+        assertEquals(4, log.getWritten());
+        assertEquals(0, log.getDropped());
+        assertEquals("1970-01-01T00:00:01Z\tTOKEN_ISSUED\tplatform-A\talice\tgame-slots\tjti-1",
+                AuditReader.format(new AuditRecord(AuditRecord.Type.TOKEN_ISSUED, 1000, "platform-A", "alice",
+                        "game-slots", "jti-1"), new StringBuilder()));
+    }
+
+    @Test
+    void testSegmentsAreRotatedWhenFull() throws Exception {
+        AuditLog log = newLog(1024, 16, AuditLog.OverflowPolicy.BLOCK, new FakeTimeSource());
+
+        for (int i = 0; i < 100; i++) {
+            log.tokenIssued(TENANT, "player-" + i, "game-roulette", "jti-" + i);
+        }
+        log.close(Duration.ofSeconds(2));
+
+        assertTrue(AuditReader.segments(dir).size() > 1, "Records should span several segments");
+        List<AuditRecord> records = readAll();
+        assertEquals(100, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals("jti-" + i, records.get(i).jti());
+        }
+    }
+
+    @Test
+    void testBlockingProducersWaitForTheWriterInsteadOfDropping() throws Exception {
+        AuditLog log = newLog(1024 * 1024, 2, AuditLog.OverflowPolicy.BLOCK, new FakeTimeSource());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    log.refresh(TENANT, Thread.currentThread().getName());
+                }
+            }, "player-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        log.close(Duration.ofSeconds(2));
+
+        assertEquals(1000, readAll().size());
+        assertEquals(1000, log.getWritten());
+        assertEquals(0, log.getDropped());
+    }
+
+    @Test
+    void testWriterKeepsRunningWhenForceFails() throws Exception {
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        AuditSegmentWriter writer = new AuditSegmentWriter(dir, 1024 * 1024) {
+            @Override
+            void force() {
+                if (failOnce.getAndSet(false)) throw new UncheckedIOException(new IOException("disk full"));
+                super.force();
+            }
+        };
+        AuditLog log = new AuditLog(true, dir, writer, 16, AuditLog.OverflowPolicy.DROP, Duration.ofSeconds(5),
+                Duration.ofMillis(10), new FakeTimeSource());
+
+        log.login(TENANT, "alice");
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (log.getFailed() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        log.login(TENANT, "bob");
+        log.close(Duration.ofSeconds(2));
+
+        assertEquals(1, log.getFailed(), "The record not forced to disk should be counted as failed");
+        assertEquals(List.of("alice", "bob"), readAll().stream().map(AuditRecord::username).toList());
+    }
+
+    @Test
+    void testSegmentSizeMustBeMappable() {
+        assertEquals(64 * 1024 * 1024, AuditLog.segmentBytes(64));
+        assertEquals(2047 * 1024 * 1024, AuditLog.segmentBytes(2047));
+        assertThrows(IllegalArgumentException.class, () -> AuditLog.segmentBytes(2048));
+        assertThrows(IllegalArgumentException.class, () -> AuditLog.segmentBytes(0));
+    }
+
+    @Test
+    void testRecordsAfterCloseAndOfDisabledLogAreNotWritten() throws Exception {
+        AuditLog log = newLog(1024 * 1024, 16, AuditLog.OverflowPolicy.DROP, new FakeTimeSource());
+        log.close(Duration.ofSeconds(2));
+        log.login(TENANT, "alice");
+
+        AuditLog disabled = new AuditLog();
+        disabled.login(TENANT, "alice");
+
+        assertEquals(1, log.getDropped());
+        assertTrue(readAll().isEmpty());
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, disabled.getWritten());
+    }
+
+    private AuditLog newLog(int segmentBytes, int capacity, AuditLog.OverflowPolicy overflow, FakeTimeSource clock) {
+        return new AuditLog(true, dir, capacity, segmentBytes, overflow, Duration.ofSeconds(5),
+                Duration.ofMillis(10), clock);
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : AuditReader.segments(dir)) {
+            assertTrue(AuditReader.read(segment, records::add));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.platform.resource;
+
+import com.example.platform.model.KeyRing;
+import com.example.platform.model.SigningKey;
+import com.example.platform.model.Tenant;
+import com.example.platform.service.KeyManager;
+import com.example.platform.service.TenantRegistry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JwksResourceTest {
+
+    @Mock
+    KeyManager keyManager;
+
+    private final TenantRegistry tenants = new TenantRegistry(List.of("platform-A", "platform-B"),
+            Optional.of(List.of("b.example.com=platform-B")));
+    private JwksResource jwksResource;
+    private KeyRing keyRing;
+
+    @BeforeEach
+    public void setUp() throws JOSEException {
+        keyRing = KeyRing.of(generateKey("kid-1"), null, List.of());
+        jwksResource = new JwksResource(keyManager, tenants, 300);
+    }
+
+    @Test
+    public void testJwks_ReturnsSerializedKeysWithCacheHeaders() throws Exception {
+        when(keyManager.getKeyRing(tenants.getDefault())).thenReturn(keyRing);
+
+        Response response = jwksResource.jwks(null, null);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        JWKSet jwkSet = JWKSet.parse(new String((byte[]) response.getEntity(), StandardCharsets.UTF_8));
+        assertNotNull(jwkSet.getKeyByKeyId("kid-1"));
+        assertFalse(jwkSet.getKeyByKeyId("kid-1").isPrivate(), "JWKS must only contain public keys");
+        assertEquals(keyRing.jwksEtag(), response.getEntityTag().getValue());
+        CacheControl cacheControl = (CacheControl) response.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL);
+        assertEquals(300, cacheControl.getMaxAge());
+    }
+
+    @Test
+    public void testJwks_SameDocumentAcrossRequestsUntilKeysChange() throws JOSEException {
+        when(keyManager.getKeyRing(tenants.getDefault())).thenReturn(keyRing);
+        byte[] first = (byte[]) jwksResource.jwks(null, null).getEntity();
+        byte[] second = (byte[]) jwksResource.jwks(null, null).getEntity();
+
+        assertSame(first, second, "Document should be serialized once per key change");
+
+        KeyRing rotated = KeyRing.of(keyRing.active(), generateKey("kid-2"), List.of());
+        when(keyManager.getKeyRing(tenants.getDefault())).thenReturn(rotated);
+
+        assertNotSame(first, jwksResource.jwks(null, null).getEntity(), "Key change should produce a new document");
+        assertNotEquals(keyRing.jwksEtag(), rotated.jwksEtag());
+    }
+
+    @Test
+    public void testJwks_MatchingIfNoneMatchReturnsNotModified() {
+        when(keyManager.getKeyRing(tenants.getDefault())).thenReturn(keyRing);
+        String etag = "\"" + keyRing.jwksEtag() + "\"";
+
+        Response response = jwksResource.jwks(etag, null);
+
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+        assertNull(response.getEntity());
+        assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), jwksResource.jwks("\"other\", W/" + etag, null).getStatus());
+    }
+
+    @Test
+    public void testJwks_StaleIfNoneMatchReturnsFullDocument() throws JOSEException {
+        String etag = "\"" + keyRing.jwksEtag() + "\"";
+        when(keyManager.getKeyRing(tenants.getDefault())).thenReturn(KeyRing.of(generateKey("kid-2"), null, List.of()));
+
+        Response response = jwksResource.jwks(etag, null);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertNotNull(response.getEntity());
+    }
+
+    @Test
+    public void testJwks_ServesKeysOfTenant() throws Exception {
+        Tenant tenantB = tenants.get("platform-B");
+        when(keyManager.getKeyRing(tenantB)).thenReturn(KeyRing.of(generateKey("kid-b"), null, List.of()));
+
+        Response byPath = jwksResource.tenantJwks("platform-B", null);
+        Response byHost = jwksResource.jwks(null, "B.example.com:8081");
+
+        assertNotNull(JWKSet.parse(new String((byte[]) byPath.getEntity(), StandardCharsets.UTF_8)).getKeyByKeyId("kid-b"));
+        assertSame(byPath.getEntity(), byHost.getEntity());
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), jwksResource.tenantJwks("platform-X", null).getStatus());
+    }
+
+    private static SigningKey generateKey(String kid) throws JOSEException {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID(kid).generate();
+        return new SigningKey(kid, rsaKey, new RSASSASigner(rsaKey));
+    }
+}
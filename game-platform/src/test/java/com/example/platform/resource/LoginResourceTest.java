@@ -1,21 +1,35 @@
 package com.example.platform.resource;
 
+import com.example.platform.audit.AuditLog;
 import com.example.platform.dto.LoginRequest;
 import com.example.platform.model.PlatformSession;
+import com.example.platform.model.RefreshCredential;
+import com.example.platform.service.PlatformMetrics;
 import com.example.platform.service.PlatformSessionManager;
+import com.example.platform.service.RefreshTokenManager;
+import com.example.platform.service.TenantRegistry;
+import com.example.platform.service.TokenManager;
+import com.example.platform.service.TokenPreIssuer;
 import com.example.platform.service.UserService;
+import com.example.common.tracing.Tracer;
 import jakarta.ws.rs.core.NewCookie;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +41,27 @@ public class LoginResourceTest {
     @Mock
     private PlatformSessionManager sessionManager;
 
+    @Mock
+    private RefreshTokenManager refreshTokenManager;
+
+    @Mock
+    private TokenManager tokenManager;
+
+    @Mock
+    private TokenPreIssuer tokenPreIssuer;
+
+    @Mock
+    private TenantRegistry tenants;
+
+    @Spy
+    private PlatformMetrics metrics = new PlatformMetrics();
+
+    @Spy
+    private Tracer tracer = new Tracer();
+
+    @Mock
+    private AuditLog auditLog;
+
     @InjectMocks
     private LoginResource loginResource;
 
@@ -34,10 +69,11 @@ public class LoginResourceTest {
     public void testLogin_MissingCredentials_BadRequest() {
         LoginRequest loginRequest = new LoginRequest(null, null);
 
-        Response response = loginResource.login(loginRequest);
+        Response response = loginResource.login(loginRequest, null, null);
 
         assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
         assertEquals(Map.of("error", "missing_credentials"), response.getEntity());
+        verify(metrics).countLogin("missing_credentials");
     }
 
     @Test
@@ -46,10 +82,12 @@ public class LoginResourceTest {
         when(userService.userExists("user")).thenReturn(true);
         when(userService.verifyPassword("user", "wrongpass")).thenReturn(false);
 
-        Response response = loginResource.login(loginRequest);
+        Response response = loginResource.login(loginRequest, null, null);
 
         assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
         assertEquals(Map.of("error", "invalid_credentials"), response.getEntity());
+        verify(metrics).countLogin("invalid_credentials");
+        verify(auditLog).loginFailed(null, "user");
     }
 
     @Test
@@ -59,13 +97,74 @@ public class LoginResourceTest {
         when(userService.verifyPassword("user", "password")).thenReturn(true);
         PlatformSession mockSession = mock(PlatformSession.class);
         when(mockSession.getSessionId()).thenReturn("session123");
-        when(sessionManager.createSession("user", null)).thenReturn(mockSession);
+        when(sessionManager.createSession("user", null, null)).thenReturn(mockSession);
+        when(refreshTokenManager.issue("user"))
+                .thenReturn(new RefreshCredential("family.secret", "user", Instant.now().plusSeconds(3600)));
 
-        Response response = loginResource.login(loginRequest);
+        Response response = loginResource.login(loginRequest, null, null);
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
         assertEquals(Map.of("status", "ok", "username", "user"), response.getEntity());
         NewCookie sessionCookie = response.getCookies().get("PLATFORM_SESS");
         assertEquals("session123", sessionCookie.getValue());
+        NewCookie refreshCookie = response.getCookies().get("PLATFORM_REFRESH");
+        assertEquals("family.secret", refreshCookie.getValue());
+        verify(tokenPreIssuer).onLogin("session123", "user");
+        verify(metrics).countLogin(null);
+        verify(auditLog).login(null, "user");
+    }
+
+    @Test
+    public void testRefresh_MissingCookie_BadRequest() {
+        Response response = loginResource.refresh(null, null, null);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        assertEquals(Map.of("error", "missing_refresh_token"), response.getEntity());
+    }
+
+    @Test
+    public void testRefresh_InvalidCookie_Unauthorized() {
+        when(refreshTokenManager.rotate("family.stale")).thenReturn(null);
+
+        Response response = loginResource.refresh("family.stale", null, null);
+
+        assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
+        assertEquals(Map.of("error", "invalid_refresh_token"), response.getEntity());
+        assertEquals(0, response.getCookies().get("PLATFORM_REFRESH").getMaxAge());
+        verify(sessionManager, never()).createSession(anyString(), any(), any());
+    }
+
+    @Test
+    public void testRefresh_ValidCookie_IssuesNewSessionWithoutPasswordCheck() {
+        when(refreshTokenManager.rotate("family.secret"))
+                .thenReturn(new RefreshCredential("family.next", "user", Instant.now().plusSeconds(3600)));
+        PlatformSession mockSession = mock(PlatformSession.class);
+        when(mockSession.getSessionId()).thenReturn("session456");
+        when(sessionManager.createSession("user", null, null)).thenReturn(mockSession);
+
+        Response response = loginResource.refresh("family.secret", null, null);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertEquals(Map.of("status", "ok", "username", "user"), response.getEntity());
+        assertEquals("session456", response.getCookies().get("PLATFORM_SESS").getValue());
+        assertEquals("family.next", response.getCookies().get("PLATFORM_REFRESH").getValue());
+        verify(userService, never()).verifyPassword(anyString(), anyString());
+        verify(auditLog).refresh(null, "user");
+    }
+
+    @Test
+    public void testLogout_DropsCachedTokensOfSession() {
+        PlatformSession session = mock(PlatformSession.class);
+        when(session.getUsername()).thenReturn("user");
+        when(sessionManager.invalidateSession("session-1")).thenReturn(session);
+
+        Response response = loginResource.logout("session-1", "refresh-1");
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        verify(sessionManager).invalidateSession("session-1");
+        verify(tokenManager).invalidateSession("session-1");
+        verify(refreshTokenManager).revoke("refresh-1");
+        verify(auditLog).logout(null, "user");
+        verify(tokenManager).revokeSession(null, "session-1");
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,31 @@
 package com.example.platform.resource;
 
+import com.example.common.json.JsonBody;
+import com.example.common.json.JsonOutput;
+import com.example.platform.audit.AuditLog;
+import com.example.common.recording.RecordedRequest;
+import com.example.common.recording.TrafficRecorder;
 import com.example.platform.dto.TokenRequest;
 import com.example.platform.exception.TokenManagerException;
+import com.example.platform.model.IssuedToken;
 import com.example.platform.model.PlatformSession;
 import com.example.platform.service.PlatformSessionManager;
 import com.example.platform.service.TokenManager;
+import com.example.platform.service.TokenPreIssuer;
+import com.example.common.tracing.Tracer;
 import com.nimbusds.jose.JOSEException;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +38,18 @@ public class TokenResourceTest {
     @Mock
     TokenManager tokenManager;
 
+    @Mock
+    TokenPreIssuer tokenPreIssuer;
+
+    @Spy
+    Tracer tracer = new Tracer();
+
+    @Mock
+    AuditLog auditLog;
+
+    @Spy
+    TrafficRecorder recorder = new TrafficRecorder();
+
     @InjectMocks
     TokenResource tokenResource;
 
@@ -38,13 +58,10 @@ public class TokenResourceTest {
         when(sessions.getSession(anyString(), eq(true))).thenReturn(null);
         TokenRequest tokenRequest = new TokenRequest("sampleGame");
 
-        Response response = tokenResource.issue(tokenRequest, "invalidSessionCookie");
+        Response response = tokenResource.issue(tokenRequest, "invalidSessionCookie", null);
 
         assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
-        Map<String, String> responseBody = (Map<String, String>) response.getEntity();
-        assertNotNull(responseBody);
-        assertEquals("not_authenticated", responseBody.get("error"));
-        assertEquals("login required", responseBody.get("message"));
+        assertEquals("{\"error\":\"not_authenticated\",\"message\":\"login required\"}", body(response));
     }
 
     @Test
@@ -53,43 +70,42 @@ public class TokenResourceTest {
         when(sessions.getSession(anyString(), eq(true))).thenReturn(session);
         TokenRequest tokenRequest = new TokenRequest(null);
 
-        Response response = tokenResource.issue(tokenRequest, "validSessionCookie");
+        Response response = tokenResource.issue(tokenRequest, "validSessionCookie", null);
 
         assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
-        Map<String, String> responseBody = (Map<String, String>) response.getEntity();
-        assertNotNull(responseBody);
-        assertEquals("missing_gameId", responseBody.get("error"));
+        assertEquals("{\"error\":\"missing_gameId\"}", body(response));
     }
 
     @Test
     public void testIssue_Success_ReturnsValidToken() throws JOSEException {
         PlatformSession session = getPlatformSession();
         when(sessions.getSession(anyString(), eq(true))).thenReturn(session);
-        when(tokenManager.buildToken(anyString(), anyString())).thenReturn("generatedToken123");
+        when(tokenManager.issue(isNull(), eq("sessionId123"), eq("user123"), anyString()))
+                .thenReturn(new IssuedToken("generatedToken123", "jti123", "kid1", 0, 1000));
         TokenRequest tokenRequest = new TokenRequest("sampleGame");
 
-        Response response = tokenResource.issue(tokenRequest, "validSessionCookie");
+        Response response = tokenResource.issue(tokenRequest, "validSessionCookie", null);
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        Map<String, String> responseBody = (Map<String, String>) response.getEntity();
-        assertNotNull(responseBody);
-        assertEquals("generatedToken123", responseBody.get("token"));
+        assertEquals("{\"token\":\"generatedToken123\"}", body(response));
+        verify(tokenPreIssuer).recordLaunch("user123", "sampleGame");
+        verify(auditLog).tokenIssued(null, "user123", "sampleGame", "jti123");
+        verify(recorder).record(eq(RecordedRequest.Endpoint.ISSUE), anyLong(), eq("sampleGame"), eq("ok"), eq(200),
+                eq(17));
     }
 
     @Test
     public void testIssue_InternalServerError_ExceptionDuringTokenGeneration() throws JOSEException {
         PlatformSession session = getPlatformSession();
         when(sessions.getSession(anyString(), eq(true))).thenReturn(session);
-        when(tokenManager.buildToken(anyString(), anyString())).thenThrow(new TokenManagerException("error while building token"));
+        when(tokenManager.issue(isNull(), eq("sessionId123"), eq("user123"), anyString())).thenThrow(new TokenManagerException("error while building token"));
         TokenRequest tokenRequest = new TokenRequest("sampleGame");
 
-        Response response = tokenResource.issue(tokenRequest, "validSessionCookie");
+        Response response = tokenResource.issue(tokenRequest, "validSessionCookie", null);
 
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
-        Map<String, String> responseBody = (Map<String, String>) response.getEntity();
-        assertNotNull(responseBody);
-        assertEquals("signing_failed", responseBody.get("error"));
-        assertEquals("error while building token", responseBody.get("message"));
+        assertEquals("{\"error\":\"signing_failed\",\"message\":\"error while building token\"}", body(response));
+        verifyNoInteractions(auditLog);
     }
 
 
@@ -97,4 +113,13 @@ public class TokenResourceTest {
         return new PlatformSession("sessionId123", "user123", Instant.now().plusSeconds(3600), Instant.now());
     }
 
-}
\ No newline at end of file
+    private static String body(Response response) {
+        Object entity = response.getEntity();
+        if (entity instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        JsonOutput out = new JsonOutput();
+        ((JsonBody) entity).writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.platform.service;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of {@link UUID#randomUUID()} with the IdGenerator on a number of threads
+ * that generate IDs at the same time, which shows the contention on the shared SecureRandom.
+ * Not a unit test; run it manually, e.g. with
+ * {@code java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.platform.service.IdGeneratorBenchmark 16}
+ * where cp.txt holds the output of {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ * Arguments: the number of threads (default the number of cores) and the seconds measured per generator
+ * (default 5). Contention only shows with at least as many cores as threads.
+ */
+public class IdGeneratorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        IdGenerator generator = new IdGenerator();
+        System.out.printf("%d threads on %d cores%n", threads, Runtime.getRuntime().availableProcessors());
+        for (int run = 0; run < 2; run++) {
+            measure("UUID.randomUUID", () -> UUID.randomUUID().toString(), threads, seconds);
+            measure("IdGenerator.nextUuid", generator::nextUuid, threads, seconds);
+            measure("IdGenerator.nextId", generator::nextId, threads, seconds);
+        }
+    }
+
+    private static void measure(String name, Supplier<String> ids, int threads, int seconds) throws Exception {
+        LongAdder generated = new LongAdder();
+        LongAdder sink = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                int length = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+                    length += ids.get().length();
+                    count++;
+                }
+                generated.add(count);
+                sink.add(length);
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        double perSecond = generated.sum() / (double) seconds;
+        System.out.printf("%-22s %,12.0f IDs/s  %,8.0f ns/ID per thread (%d)%n",
+                name, perSecond, threads * 1e9 / perSecond, sink.sum() % 10);
+    }
+}
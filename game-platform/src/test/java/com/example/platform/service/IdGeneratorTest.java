@@ -0,0 +1,62 @@
+package com.example.platform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    private final IdGenerator generator = new IdGenerator();
+
+    @Test
+    void shouldGenerateUniqueBase64UrlIds() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = generator.nextId();
+            assertEquals(IdGenerator.ID_LENGTH, id.length());
+            assertTrue(id.matches("[A-Za-z0-9_-]+"), id);
+            assertEquals(IdGenerator.ID_BYTES, Base64.getUrlDecoder().decode(id).length);
+            assertTrue(ids.add(id), "IDs must not repeat");
+        }
+    }
+
+    @Test
+    void shouldEncodeLikeBase64WithoutPadding() {
+        String id = generator.nextId();
+        byte[] decoded = Base64.getUrlDecoder().decode(id);
+
+        assertEquals(id, Base64.getUrlEncoder().withoutPadding().encodeToString(decoded));
+    }
+
+    @Test
+    void shouldGenerateVersion4Uuids() {
+        Set<String> uuids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            UUID uuid = UUID.fromString(generator.nextUuid());
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertTrue(uuids.add(uuid.toString()), "UUIDs must not repeat");
+        }
+    }
+
+    @Test
+    void shouldGenerateDistinctIdsOnEveryThread() throws InterruptedException {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) ids.add(generator.nextId());
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(4_000, ids.size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.platform.service;
+
+import com.example.common.time.FakeTimeSource;
+import com.example.platform.model.IssuedToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssuedTokenCacheTest {
+
+    private final FakeTimeSource time = new FakeTimeSource();
+    private final IssuedTokenCache cache = new IssuedTokenCache(true, 0.5, 100, time);
+
+    @Test
+    void shouldReturnTokenForSameSessionAndGame() {
+        IssuedToken token = token("kid-1", 60_000, 1_200_000);
+        cache.put("session-1", "game-slots", token);
+
+        assertSame(token, cache.get("session-1", "game-slots", "kid-1"));
+        assertNull(cache.get("session-1", "game-roulette", "kid-1"), "Tokens are cached per game");
+        assertNull(cache.get("session-2", "game-slots", "kid-1"), "Tokens are cached per session");
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void shouldNotReturnTokenWithTooLittleLifetimeLeft() {
+        cache.put("session-1", "game-slots", token("kid-1", 700_000, 500_000));
+
+        assertNull(cache.get("session-1", "game-slots", "kid-1"));
+    }
+
+    @Test
+    void shouldStopReturningTokenOnceHalfOfItsLifetimeHasPassed() {
+        cache.put("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        time.advance(Duration.ofMinutes(9));
+        assertNotNull(cache.get("session-1", "game-slots", "kid-1"));
+        time.advance(Duration.ofMinutes(2));
+
+        assertNull(cache.get("session-1", "game-slots", "kid-1"));
+    }
+
+    @Test
+    void shouldNotReturnTokenSignedWithRetiredKey() {
+        cache.put("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        assertNull(cache.get("session-1", "game-slots", "kid-2"));
+    }
+
+    @Test
+    void shouldDropTokensOfInvalidatedSession() {
+        cache.put("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        cache.invalidateSession("session-1");
+
+        assertNull(cache.get("session-1", "game-slots", "kid-1"));
+    }
+
+    @Test
+    void shouldBoundNumberOfSessions() {
+        IssuedTokenCache small = new IssuedTokenCache(true, 0.5, 2, time);
+        for (int i = 0; i < 5; i++) {
+            small.put("session-" + i, "game-slots", token("kid-1", 0, 1_200_000));
+        }
+
+        assertTrue(small.size() <= 2);
+    }
+
+    @Test
+    void shouldNeverReturnTokenWhenDisabled() {
+        IssuedTokenCache disabled = IssuedTokenCache.disabled();
+        disabled.put("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        assertNull(disabled.get("session-1", "game-slots", "kid-1"));
+    }
+
+    @Test
+    void shouldCountFirstUseOfSpeculativeToken() {
+        cache.putSpeculative("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        assertTrue(cache.contains("session-1", "game-slots", "kid-1"));
+        assertNotNull(cache.get("session-1", "game-slots", "kid-1"));
+        assertNotNull(cache.get("session-1", "game-slots", "kid-1"));
+        assertEquals(1, cache.getSpeculativeHits());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void shouldNotReplaceIssuedTokenWithSpeculativeOne() {
+        IssuedToken issued = token("kid-1", 0, 1_200_000);
+        cache.put("session-1", "game-slots", issued);
+
+        cache.putSpeculative("session-1", "game-slots", token("kid-1", 0, 1_200_000));
+
+        assertSame(issued, cache.get("session-1", "game-slots", "kid-1"));
+        assertEquals(0, cache.getSpeculativeHits());
+    }
+
+    private IssuedToken token(String kid, long ageMillis, long remainingMillis) {
+        long now = time.currentTimeMillis();
+        return new IssuedToken("token-" + kid, "jti-" + kid, kid, now - ageMillis, now + remainingMillis);
+    }
+}
@@ -1,18 +1,31 @@
 package com.example.platform.service;
 
+import com.example.platform.model.KeyRing;
+import com.example.platform.model.SigningKey;
+import com.example.common.time.FakeTimeSource;
+import com.example.common.tracing.Tracer;
 import com.nimbusds.jose.jwk.RSAKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class KeyManagerTest {
 
+    private final FakeTimeSource time = new FakeTimeSource();
+
     @Test
     void testInitSetsRsaJwk() throws Exception {
-        KeyManager keyManager = new KeyManager();
+        KeyManager keyManager = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.empty());
         keyManager.init();
         RSAKey rsaJwk = keyManager.getRsaJwk();
 
@@ -23,4 +36,137 @@ class KeyManagerTest {
         assertInstanceOf(RSAPrivateKey.class, rsaJwk.toPrivateKey(), "Private key should be an instance of RSAPrivateKey");
         assertInstanceOf(RSAPublicKey.class, rsaJwk.toPublicKey(), "Public key should be an instance of RSAPublicKey");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPendingKeyIsPublishedBeforeItSigns() throws Exception {
+        KeyManager keyManager = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.empty());
+        keyManager.init();
+        SigningKey initial = keyManager.getActiveKey();
+
+        keyManager.prepareNextKey();
+        KeyRing ring = keyManager.getKeyRing();
+
+        assertSame(initial, keyManager.getActiveKey(), "Pending key must not sign yet");
+        assertNotNull(ring.pending(), "Next key should be pending");
+        assertNotNull(keyManager.getJwkSet().getKeyByKeyId(ring.pending().kid()), "Pending key should be published");
+        assertNotNull(keyManager.getJwkSet().getKeyByKeyId(initial.kid()), "Active key should be published");
+    }
+
+    @Test
+    void testActivatedKeySignsAndRetiredKeyStaysPublished() throws Exception {
+        KeyManager keyManager = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.empty());
+        keyManager.init();
+        SigningKey initial = keyManager.getActiveKey();
+        keyManager.prepareNextKey();
+        SigningKey next = keyManager.getKeyRing().pending();
+
+        keyManager.activatePendingKey();
+        keyManager.purgeRetiredKeys();
+
+        assertSame(next, keyManager.getActiveKey(), "Pending key should become active");
+        assertEquals(next.kid(), keyManager.getRsaJwk().getKeyID());
+        assertNull(keyManager.getKeyRing().pending());
+        assertNotNull(keyManager.getJwkSet().getKeyByKeyId(initial.kid()),
+                "Retired key should stay published while its tokens may be valid");
+        assertTrue(keyManager.getJwkSet().getKeys().stream().noneMatch(k -> k.isPrivate()),
+                "JWKS must only contain public keys");
+    }
+
+    @Test
+    void testRetiredKeyIsUnpublishedAfterRetention() throws Exception {
+        KeyManager keyManager = newKeyManager(Duration.ZERO, Duration.ZERO, Optional.empty());
+        keyManager.init();
+        SigningKey initial = keyManager.getActiveKey();
+        keyManager.prepareNextKey();
+        keyManager.activatePendingKey();
+
+        time.advance(Duration.ofSeconds(1));
+        keyManager.purgeRetiredKeys();
+
+        assertNull(keyManager.getJwkSet().getKeyByKeyId(initial.kid()), "Expired retired key should be unpublished");
+        assertEquals(1, keyManager.getJwkSet().getKeys().size());
+    }
+
+    @Test
+    void testSigningTimerOfUnpublishedKeyIsRemoved() throws Exception {
+        PlatformMetrics metrics = new PlatformMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        KeyManager keyManager = new KeyManager(TenantRegistry.single("platform-A"), Duration.ZERO, Duration.ZERO,
+                Duration.ZERO, Optional.empty(), metrics, time);
+        keyManager.init();
+        TokenManager tokenManager = new TokenManager(keyManager, IssuedTokenCache.disabled(), false, metrics,
+                new Tracer(), new IdGenerator(), new RevocationFeed(), time);
+        SigningKey initial = keyManager.getActiveKey();
+        tokenManager.buildToken("player-1", "game-slots");
+        keyManager.prepareNextKey();
+        keyManager.activatePendingKey();
+        tokenManager.buildToken("player-1", "game-slots");
+
+        time.advance(Duration.ofSeconds(1));
+        keyManager.purgeRetiredKeys();
+
+        assertNull(registry.find("platform.token.signing").tag("kid", initial.kid()).timer(),
+                "The timer of an unpublished key should be removed");
+        assertEquals(1, registry.get("platform.token.signing")
+                .tag("kid", keyManager.getActiveKey().kid())
+                .timer().count());
+    }
+
+    @Test
+    void testStoredKeysAreReusedAfterRestart(@TempDir Path dir) throws Exception {
+        Path store = dir.resolve("keys.json");
+        KeyManager first = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.of(store.toString()));
+        first.init();
+
+        KeyManager restarted = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.of(store.toString()));
+        restarted.init();
+
+        assertTrue(Files.exists(store), "Key ring should be written when it was generated");
+        assertEquals(first.getActiveKey().kid(), restarted.getActiveKey().kid(), "Stored key should be loaded instead of generated");
+        assertEquals(first.getRsaJwk(), restarted.getRsaJwk());
+    }
+
+    @Test
+    void testStoredRetiredKeysStayPublishedWithoutMetadata(@TempDir Path dir) throws Exception {
+        Path store = dir.resolve("keys.json");
+        KeyManager first = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.of(store.toString()));
+        first.init();
+        SigningKey initial = first.getActiveKey();
+        first.prepareNextKey();
+        first.activatePendingKey();
+
+        KeyManager restarted = newKeyManager(Duration.ofMinutes(10), Duration.ofMinutes(25), Optional.of(store.toString()));
+        restarted.init();
+
+        assertEquals(first.getActiveKey().kid(), restarted.getActiveKey().kid());
+        assertEquals(1, restarted.getKeyRing().retired().size(), "Retired key should survive the restart");
+        assertNotNull(restarted.getJwkSet().getKeyByKeyId(initial.kid()));
+        assertNull(restarted.getJwkSet().getKeyByKeyId(initial.kid()).getExpirationTime(),
+                "Retirement metadata must not be published");
+    }
+
+    @Test
+    void testTenantsHaveSeparateStoredKeys(@TempDir Path dir) throws Exception {
+        Path store = dir.resolve("keys.json");
+        TenantRegistry tenants = new TenantRegistry(List.of("platform-A", "platform-B"), Optional.empty());
+        KeyManager keyManager = new KeyManager(tenants, Duration.ZERO, Duration.ofMinutes(10), Duration.ofMinutes(25),
+                Optional.of(store.toString()), new PlatformMetrics(), time);
+        keyManager.init();
+
+        SigningKey keyA = keyManager.getActiveKey(tenants.get("platform-A"));
+        SigningKey keyB = keyManager.getActiveKey(tenants.get("platform-B"));
+
+        assertNotEquals(keyA.kid(), keyB.kid(), "Every tenant should sign with its own key");
+        assertSame(keyA, keyManager.getActiveKey(), "The first tenant is the default one");
+        assertNull(keyManager.getKeyRing(tenants.get("platform-A")).publicKeys().getKeyByKeyId(keyB.kid()),
+                "A tenant's JWKS must not publish keys of other tenants");
+        assertTrue(Files.exists(store));
+        assertTrue(Files.exists(dir.resolve("platform-B-keys.json")));
+    }
+
+    private KeyManager newKeyManager(Duration publishLead, Duration retention, Optional<String> storePath) {
+        return new KeyManager(TenantRegistry.single("platform-A"), Duration.ZERO, publishLead, retention, storePath,
+                new PlatformMetrics(), time);
+    }
+}
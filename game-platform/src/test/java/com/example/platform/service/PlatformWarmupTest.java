@@ -0,0 +1,34 @@
+package com.example.platform.service;
+
+import com.example.common.time.TimeSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlatformWarmupTest {
+
+    @Test
+    void testWarmupCompletesAfterRun() throws Exception {
+        KeyManager keyManager = new KeyManager(TenantRegistry.single("platform-A"), Duration.ZERO, Duration.ofMinutes(10),
+                Duration.ofMinutes(25), Optional.empty(), new PlatformMetrics(), TimeSource.SYSTEM);
+        keyManager.init();
+        PlatformWarmup warmup = new PlatformWarmup(keyManager, TimeSource.SYSTEM, false, true, 3, 1);
+
+        assertFalse(warmup.isComplete(), "Warmup should not be complete before it ran");
+        warmup.run();
+
+        assertTrue(warmup.isComplete(), "Warmup should be complete after it ran");
+    }
+
+    @Test
+    void testDisabledWarmupIsCompleteOnStart() {
+        PlatformWarmup warmup = new PlatformWarmup(null, TimeSource.SYSTEM, false, false, 0, 0);
+
+        warmup.onStart(null);
+
+        assertTrue(warmup.isComplete(), "Disabled warmup should report ready immediately");
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.platform.service;
+
+import com.example.platform.model.Revocation;
+import com.example.platform.model.Tenant;
+import com.example.common.time.FakeTimeSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationFeedTest {
+
+    private static final Tenant TENANT_A = new Tenant(0, "platform-A");
+    private static final Tenant TENANT_B = new Tenant(1, "platform-B");
+
+    private final FakeTimeSource clock = new FakeTimeSource(1_000_000);
+    private final RevocationFeed feed = new RevocationFeed(true, new IdGenerator(), clock);
+
+    @Test
+    void testReadsContinueAfterCursorInPages() {
+        for (int i = 1; i <= 5; i++) {
+            feed.revokeSession(TENANT_A, "sid-" + i, clock.currentTimeMillis() + 60_000);
+        }
+        feed.revokeToken(TENANT_B, "jti-1", clock.currentTimeMillis() + 60_000);
+
+        RevocationFeed.Page first = feed.read(TENANT_A, 0, 2);
+        assertEquals(List.of("sid-1", "sid-2"), ids(first));
+        assertEquals(2, first.cursor());
+        assertTrue(first.more());
+
+        RevocationFeed.Page rest = feed.read(TENANT_A, first.cursor(), 10);
+        assertEquals(List.of("sid-3", "sid-4", "sid-5"), ids(rest));
+        assertEquals(5, rest.cursor());
+        assertFalse(rest.more());
+
+        RevocationFeed.Page none = feed.read(TENANT_A, rest.cursor(), 10);
+        assertTrue(none.revocations().isEmpty());
+        assertEquals(5, none.cursor());
+
+        RevocationFeed.Page other = feed.read(TENANT_B, 0, 10);
+        assertEquals(Revocation.Type.TOKEN, other.revocations().get(0).type());
+        assertEquals(List.of("jti-1"), ids(other));
+    }
+
+    @Test
+    void testExpiredRevocationsAreDropped() {
+        feed.revokeSession(TENANT_A, "sid-1", clock.currentTimeMillis() + 1_000);
+        feed.revokeSession(TENANT_A, "sid-2", clock.currentTimeMillis() + 60_000);
+
+        clock.advance(Duration.ofSeconds(2));
+
+        RevocationFeed.Page page = feed.read(TENANT_A, 0, 10);
+        assertEquals(List.of("sid-2"), ids(page));
+        assertEquals(2, page.cursor());
+        assertEquals(1, feed.size());
+    }
+
+    @Test
+    void testCursorBeyondFeedReturnsLatestSequence() {
+        feed.revokeSession(TENANT_A, "sid-1", clock.currentTimeMillis() + 60_000);
+
+        RevocationFeed.Page page = feed.read(TENANT_A, 42, 10);
+
+        assertTrue(page.revocations().isEmpty());
+        assertEquals(1, page.cursor());
+        assertFalse(page.more());
+        assertTrue(feed.read(TENANT_B, 0, 10).revocations().isEmpty());
+    }
+
+    @Test
+    void testDisabledFeedPublishesNothing() {
+        RevocationFeed disabled = new RevocationFeed();
+
+        disabled.revokeSession(TENANT_A, "sid-1", Long.MAX_VALUE);
+
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.read(TENANT_A, 0, 10).revocations().isEmpty());
+    }
+
+    private static List<String> ids(RevocationFeed.Page page) {
+        return page.revocations().stream().map(Revocation::id).toList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.platform.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantRegistryTest {
+
+    private final TenantRegistry tenants = new TenantRegistry(List.of("platform-A", "platform-B"),
+            Optional.of(List.of("b.example.com=platform-B")));
+
+    @Test
+    void shouldNumberTenantsInConfigurationOrder() {
+        assertEquals("platform-A", tenants.getDefault().id());
+        assertEquals(0, tenants.get("platform-A").index());
+        assertEquals(1, tenants.get("platform-B").index());
+        assertNull(tenants.get("platform-C"));
+    }
+
+    @Test
+    void shouldResolveTenantFromHost() {
+        assertEquals("platform-B", tenants.resolveHost("b.example.com").id());
+        assertEquals("platform-B", tenants.resolveHost("B.Example.com:8081").id());
+        assertEquals("platform-A", tenants.resolveHost("localhost:8081").id());
+        assertEquals("platform-A", tenants.resolveHost(null).id());
+    }
+
+    @Test
+    void shouldRejectMappingToUnknownTenant() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TenantRegistry(List.of("platform-A"), Optional.of(List.of("b.example.com=platform-B"))));
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.platform.service;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.SignedJWT;
+import com.example.platform.model.Revocation;
+import com.example.common.time.FakeTimeSource;
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.InMemorySpanExporter;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenManagerTest {
+
+    private KeyManager keyManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyManager = new KeyManager(TenantRegistry.single("platform-A"), Duration.ZERO, Duration.ofMinutes(10),
+                Duration.ofMinutes(25), Optional.empty(), new PlatformMetrics(), TimeSource.SYSTEM);
+        keyManager.init();
+    }
+
+    private TokenManager newTokenManager(boolean compact) {
+        return new TokenManager(keyManager, IssuedTokenCache.disabled(), compact, new PlatformMetrics(), new Tracer(),
+                new IdGenerator(), new RevocationFeed(), TimeSource.SYSTEM);
+    }
+
+    @Test
+    void testStandardProfile() throws Exception {
+        TokenManager tokenManager = newTokenManager(false);
+
+        SignedJWT jwt = SignedJWT.parse(tokenManager.buildToken("player-1", "game-slots"));
+
+        assertEquals(JOSEObjectType.JWT, jwt.getHeader().getType());
+        assertEquals(List.of("game-provider"), jwt.getJWTClaimsSet().getAudience());
+        assertEquals(36, jwt.getJWTClaimsSet().getJWTID().length());
+        assertTrue(jwt.verify(new RSASSAVerifier(keyManager.getRsaJwk())));
+    }
+
+    @Test
+    void testCompactProfile() throws Exception {
+        TokenManager tokenManager = newTokenManager(true);
+
+        String token = tokenManager.buildToken("player-1", "game-slots");
+        SignedJWT jwt = SignedJWT.parse(token);
+
+        assertNull(jwt.getHeader().getType(), "Compact tokens should not carry typ");
+        assertEquals(List.of("gp"), jwt.getJWTClaimsSet().getAudience());
+        assertEquals(22, jwt.getJWTClaimsSet().getJWTID().length());
+        assertEquals("platform-A", jwt.getJWTClaimsSet().getIssuer());
+        assertEquals("game-slots", jwt.getJWTClaimsSet().getStringClaim("game"));
+        assertTrue(jwt.verify(new RSASSAVerifier(keyManager.getRsaJwk())));
+        assertTrue(token.length() < newTokenManager(false).buildToken("player-1", "game-slots").length());
+    }
+
+    @Test
+    void testSigningIsTimedPerKey() {
+        PlatformMetrics metrics = new PlatformMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        TokenManager tokenManager = new TokenManager(keyManager, IssuedTokenCache.disabled(), false, metrics,
+                new Tracer(), new IdGenerator(), new RevocationFeed(), TimeSource.SYSTEM);
+
+        tokenManager.buildToken("player-1", "game-slots");
+        tokenManager.buildToken("player-2", "game-slots");
+
+        assertEquals(2, registry.get("platform.token.signing")
+                .tag("tenant", "platform-A")
+                .tag("kid", keyManager.getActiveKey().kid())
+                .timer().count());
+    }
+
+    @Test
+    void testTokenSignedInTracedRequestCarriesTraceContext() throws Exception {
+        Tracer tracer = new Tracer("test", true, new InMemorySpanExporter(), 16, 16, Duration.ofMillis(50));
+        TokenManager tokenManager = new TokenManager(keyManager, IssuedTokenCache.disabled(), false,
+                new PlatformMetrics(), tracer, new IdGenerator(), new RevocationFeed(), TimeSource.SYSTEM);
+
+        String traced;
+        TraceContext request;
+        try (Span span = tracer.startSpan("issue", null)) {
+            request = span.context();
+            traced = tokenManager.buildToken("player-1", "game-slots");
+        }
+        String untraced = tokenManager.buildToken("player-1", "game-slots");
+
+        assertEquals(request.traceparent(), SignedJWT.parse(traced).getJWTClaimsSet().getStringClaim("traceparent"));
+        assertNull(SignedJWT.parse(untraced).getJWTClaimsSet().getClaim("traceparent"));
+    }
+
+    @Test
+    void testCachedTokensCarryNoTraceContext() throws Exception {
+        Tracer tracer = new Tracer("test", true, new InMemorySpanExporter(), 16, 16, Duration.ofMillis(50));
+        IssuedTokenCache cache = new IssuedTokenCache(true, 0.5, 100, TimeSource.SYSTEM);
+        TokenManager tokenManager = new TokenManager(keyManager, cache, false,
+                new PlatformMetrics(), tracer, new IdGenerator(), new RevocationFeed(), TimeSource.SYSTEM);
+
+        String traced;
+        TraceContext request;
+        try (Span span = tracer.startSpan("login", null)) {
+            tokenManager.preIssueToken(null, "session-1", "player-1", "game-slots");
+        }
+        String preIssued = tokenManager.issueToken("session-1", "player-1", "game-slots");
+        try (Span span = tracer.startSpan("issue", null)) {
+            request = span.context();
+            traced = tokenManager.issueToken("session-1", "player-1", "game-slots");
+        }
+        String reused = tokenManager.issueToken("session-1", "player-1", "game-slots");
+
+        assertNull(SignedJWT.parse(preIssued).getJWTClaimsSet().getClaim("traceparent"));
+        assertNotEquals(preIssued, traced, "Traced requests should not reuse cached tokens");
+        assertEquals(request.traceparent(), SignedJWT.parse(traced).getJWTClaimsSet().getStringClaim("traceparent"));
+        assertEquals(preIssued, reused, "Tokens of traced requests should not be cached");
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void testLogoutRevokesSessionClaimOfIssuedTokens() throws Exception {
+        FakeTimeSource clock = new FakeTimeSource(1_000_000);
+        RevocationFeed feed = new RevocationFeed(true, new IdGenerator(), clock);
+        TokenManager tokenManager = new TokenManager(keyManager, IssuedTokenCache.disabled(), true,
+                new PlatformMetrics(), new Tracer(), new IdGenerator(), feed, clock);
+
+        SignedJWT jwt = SignedJWT.parse(tokenManager.issueToken("session-1", "player-1", "game-slots"));
+        tokenManager.revokeSession(null, "session-1");
+
+        String sid = jwt.getJWTClaimsSet().getStringClaim("sid");
+        assertEquals(22, sid.length());
+        assertFalse(sid.contains("session-1"));
+        List<Revocation> revocations = feed.read(keyManager.getTenants().getDefault(), 0, 10).revocations();
+        assertEquals(1, revocations.size());
+        assertEquals(Revocation.Type.SESSION, revocations.get(0).type());
+        assertEquals(sid, revocations.get(0).id());
+        assertEquals(clock.currentTimeMillis() + Duration.ofMinutes(20).toMillis(), revocations.get(0).expiresAtMillis(),
+                "Revocations should expire after the lifetime of the session's tokens, on the manager's clock");
+        assertNull(SignedJWT.parse(newTokenManager(false).issueToken("session-1", "player-1", "game-slots"))
+                .getJWTClaimsSet().getClaim("sid"), "Tokens should carry no sid while the feed is disabled");
+    }
+}
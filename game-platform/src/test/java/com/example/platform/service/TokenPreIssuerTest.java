@@ -0,0 +1,82 @@
+package com.example.platform.service;
+
+import com.example.common.time.TimeSource;
+import com.example.platform.model.PlatformSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenPreIssuerTest {
+
+    @Mock
+    TokenManager tokenManager;
+
+    @Mock
+    PlatformSessionManager sessionManager;
+
+    private final IssuedTokenCache issuedTokenCache = new IssuedTokenCache(true, 0.5, 100, TimeSource.SYSTEM);
+    private TokenPreIssuer preIssuer;
+
+    @BeforeEach
+    void setUp() {
+        preIssuer = new TokenPreIssuer(tokenManager, issuedTokenCache, sessionManager, true, 2, 100);
+    }
+
+    @Test
+    void shouldRankGamesByLaunchCount() {
+        preIssuer.recordLaunch("player-1", "game-slots");
+        preIssuer.recordLaunch("player-1", "game-roulette");
+        preIssuer.recordLaunch("player-1", "game-roulette");
+        preIssuer.recordLaunch("player-1", "game-poker");
+        preIssuer.recordLaunch("player-1", "game-poker");
+        preIssuer.recordLaunch("player-1", "game-poker");
+
+        assertEquals(List.of("game-poker", "game-roulette"), preIssuer.topGames("player-1"));
+        assertEquals(List.of(), preIssuer.topGames("player-2"));
+    }
+
+    @Test
+    void shouldPreIssueTokensForTopGamesOfPlayer() {
+        preIssuer.recordLaunch("player-1", "game-slots");
+        preIssuer.recordLaunch("player-1", "game-roulette");
+        when(sessionManager.getSession("session-1", false)).thenReturn(mock(PlatformSession.class));
+        when(tokenManager.preIssueToken(isNull(), eq("session-1"), eq("player-1"), anyString())).thenReturn(true);
+
+        preIssuer.preIssue("session-1", "player-1");
+
+        verify(tokenManager).preIssueToken(null, "session-1", "player-1", "game-slots");
+        verify(tokenManager).preIssueToken(null, "session-1", "player-1", "game-roulette");
+        assertEquals(2, preIssuer.getPreIssued());
+    }
+
+    @Test
+    void shouldStopPreIssuingWhenSessionIsGone() {
+        preIssuer.recordLaunch("player-1", "game-slots");
+        when(sessionManager.getSession("session-1", false)).thenReturn(null);
+
+        preIssuer.preIssue("session-1", "player-1");
+
+        verifyNoInteractions(tokenManager);
+        assertEquals(0, preIssuer.getPreIssued());
+    }
+
+    @Test
+    void shouldNotTrackLaunchesWhenDisabled() {
+        TokenPreIssuer disabled = new TokenPreIssuer(tokenManager, issuedTokenCache, sessionManager, false, 2, 100);
+        disabled.recordLaunch("player-1", "game-slots");
+
+        disabled.onLogin("session-1", "player-1");
+
+        assertEquals(List.of(), disabled.topGames("player-1"));
+        verifyNoInteractions(tokenManager, sessionManager);
+    }
+}
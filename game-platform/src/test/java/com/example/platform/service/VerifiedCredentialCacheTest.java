@@ -0,0 +1,68 @@
+package com.example.platform.service;
+
+import com.example.common.time.FakeTimeSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedCredentialCacheTest {
+
+    private final FakeTimeSource time = new FakeTimeSource();
+
+    @Test
+    void testRememberedVerificationIsHit() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60, 100, time);
+
+        assertFalse(cache.isVerified("user", "secret", "hash-1"), "Empty cache should miss");
+        cache.remember("user", "secret", "hash-1", 1_000_000);
+
+        assertTrue(cache.isVerified("user", "secret", "hash-1"), "Remembered verification should hit");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio());
+        assertEquals(1_000_000, cache.getSavedNanos(), "A hit should account for the measured verification time");
+    }
+
+    @Test
+    void testDifferentPasswordOrChangedHashMisses() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60, 100, time);
+        cache.remember("user", "secret", "hash-1", 1_000_000);
+
+        assertFalse(cache.isVerified("user", "other", "hash-1"), "Different password must not hit");
+        assertFalse(cache.isVerified("user", "secret", "hash-2"), "Entry verified against an old hash must not hit");
+    }
+
+    @Test
+    void testExpiredEntryMisses() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60, 100, time);
+        cache.remember("user", "secret", "hash-1", 1_000_000);
+
+        time.advance(Duration.ofSeconds(59));
+        assertTrue(cache.isVerified("user", "secret", "hash-1"));
+        time.advance(Duration.ofSeconds(1));
+
+        assertFalse(cache.isVerified("user", "secret", "hash-1"), "Expired entry should miss");
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60, 10, time);
+
+        for (int i = 0; i < 100; i++) {
+            cache.remember("user" + i, "secret", "hash", 1_000_000);
+        }
+
+        assertTrue(cache.size() <= 10, "Cache should not grow beyond its bound");
+    }
+
+    @Test
+    void testDisabledCacheNeverHits() {
+        VerifiedCredentialCache cache = VerifiedCredentialCache.disabled();
+        cache.remember("user", "secret", "hash-1", 1_000_000);
+
+        assertFalse(cache.isVerified("user", "secret", "hash-1"), "Disabled cache should never hit");
+        assertEquals(0, cache.size());
+    }
+}
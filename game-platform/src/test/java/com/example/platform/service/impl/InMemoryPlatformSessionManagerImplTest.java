@@ -1,19 +1,28 @@
 package com.example.platform.service.impl;
 
 import com.example.platform.model.PlatformSession;
+import com.example.platform.service.IdGenerator;
+import com.example.common.time.FakeTimeSource;
+import com.example.common.time.TimeSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryPlatformSessionManagerImplTest {
 
+    private static InMemoryPlatformSessionManagerImpl newSessionManager(TimeSource timeSource) {
+        return new InMemoryPlatformSessionManagerImpl(new IdGenerator(), timeSource, Duration.ofSeconds(10));
+    }
+
     @Test
     void createSession_WithValidUsernameAndCustomTTL() {
         String username = "testUser";
         long customTTL = 600L; // 10 minutes
-        InMemoryPlatformSessionManagerImpl sessionManager = new InMemoryPlatformSessionManagerImpl();
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(TimeSource.SYSTEM);
 
         PlatformSession session = sessionManager.createSession(username, customTTL);
 
@@ -22,7 +31,7 @@ class InMemoryPlatformSessionManagerImplTest {
         assertNotNull(session.getSessionId(), "Session ID should not be null");
         assertNotNull(session.getExpiresAt(), "Expiration time should not be null");
         assertNotNull(session.getLastAccessed(), "Last accessed time should not be null");
-        assertFalse(session.isExpired(), "Session should not be expired immediately after creation");
+        assertFalse(session.isExpired(System.currentTimeMillis()), "Session should not be expired immediately after creation");
 
         Instant now = Instant.now();
         assertTrue(session.getExpiresAt().isAfter(now), "Expiration time should be in the future");
@@ -31,7 +40,7 @@ class InMemoryPlatformSessionManagerImplTest {
     @Test
     void createSession_WithValidUsernameAndDefaultTTL() {
         String username = "defaultUser";
-        InMemoryPlatformSessionManagerImpl sessionManager = new InMemoryPlatformSessionManagerImpl();
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(TimeSource.SYSTEM);
 
         PlatformSession session = sessionManager.createSession(username, null);
 
@@ -39,7 +48,7 @@ class InMemoryPlatformSessionManagerImplTest {
         assertEquals(username, session.getUsername(), "Username should match");
         assertNotNull(session.getSessionId(), "Session ID should not be null");
         assertNotNull(session.getExpiresAt(), "Expiration time should not be null");
-        assertFalse(session.isExpired(), "Session should not be expired immediately after creation");
+        assertFalse(session.isExpired(System.currentTimeMillis()), "Session should not be expired immediately after creation");
 
         Instant now = Instant.now();
         assertTrue(session.getExpiresAt().isAfter(now), "Expiration time should be in the future");
@@ -49,7 +58,7 @@ class InMemoryPlatformSessionManagerImplTest {
     void createSession_GeneratesUniqueSessionIds() {
         String username1 = "user1";
         String username2 = "user2";
-        InMemoryPlatformSessionManagerImpl sessionManager = new InMemoryPlatformSessionManagerImpl();
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(TimeSource.SYSTEM);
 
         PlatformSession session1 = sessionManager.createSession(username1, null);
         PlatformSession session2 = sessionManager.createSession(username2, null);
@@ -58,4 +67,58 @@ class InMemoryPlatformSessionManagerImplTest {
         assertNotNull(session2, "Second session should not be null");
         assertNotEquals(session1.getSessionId(), session2.getSessionId(), "Session IDs should be unique");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSession_CountsLookupsAndDropsExpiredSessions() {
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(TimeSource.SYSTEM);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sessionManager.bindTo(registry);
+        PlatformSession live = sessionManager.createSession("user1", null);
+        PlatformSession stale = sessionManager.createSession("user2", -1L);
+
+        assertEquals(2, registry.get("platform.sessions.active").gauge().value());
+        assertNotNull(sessionManager.getSession(live.getSessionId(), true));
+        assertNull(sessionManager.getSession(stale.getSessionId(), false));
+        assertNull(sessionManager.getSession("unknown", false));
+
+        assertEquals(1, registry.get("platform.sessions.active").gauge().value(), "Expired session should be dropped");
+        assertEquals(2, registry.get("platform.sessions.created").functionCounter().count());
+        assertEquals(1, registry.get("platform.sessions.lookups").tag("result", "found").functionCounter().count());
+        assertEquals(1, registry.get("platform.sessions.lookups").tag("result", "expired").functionCounter().count());
+        assertEquals(1, registry.get("platform.sessions.lookups").tag("result", "missing").functionCounter().count());
+        assertEquals(1, registry.get("platform.sessions.touches").functionCounter().count());
+    }
+
+    @Test
+    void getSession_ExpiresSessionAfterTtlUnlessTouched() {
+        FakeTimeSource time = new FakeTimeSource();
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(time);
+        PlatformSession touched = sessionManager.createSession("user1", 600L);
+        PlatformSession idle = sessionManager.createSession("user2", 600L);
+
+        time.advance(Duration.ofMinutes(9));
+        assertNotNull(sessionManager.getSession(touched.getSessionId(), true), "Touching extends the session");
+        time.advance(Duration.ofMinutes(2));
+
+        assertNull(sessionManager.getSession(idle.getSessionId(), false), "Session should expire after its TTL");
+        assertNotNull(sessionManager.getSession(touched.getSessionId(), false));
+        assertEquals(time.currentTimeMillis() - Duration.ofMinutes(2).toMillis(), touched.getLastAccessed().toEpochMilli());
+    }
+
+    @Test
+    void purgeExpired_DropsExpiredSessionsOffTheLoginPath() {
+        FakeTimeSource time = new FakeTimeSource();
+        InMemoryPlatformSessionManagerImpl sessionManager = newSessionManager(time);
+        sessionManager.createSession("user1", 60L);
+        PlatformSession live = sessionManager.createSession("user2", 600L);
+
+        time.advance(Duration.ofMinutes(5));
+        sessionManager.createSession("user3", 600L);
+        assertEquals(3, sessionManager.size(), "Creating a session should not purge expired ones");
+
+        sessionManager.purgeExpired();
+
+        assertEquals(2, sessionManager.size());
+        assertNotNull(sessionManager.getSession(live.getSessionId(), false));
+    }
+}
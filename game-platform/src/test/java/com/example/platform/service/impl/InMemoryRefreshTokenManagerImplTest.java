@@ -0,0 +1,63 @@
+package com.example.platform.service.impl;
+
+import com.example.common.time.FakeTimeSource;
+import com.example.platform.model.RefreshCredential;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRefreshTokenManagerImplTest {
+
+    private final FakeTimeSource time = new FakeTimeSource();
+
+    @Test
+    void issue_ReturnsCredentialForUser() {
+        InMemoryRefreshTokenManagerImpl manager = new InMemoryRefreshTokenManagerImpl(3600, time);
+
+        RefreshCredential credential = manager.issue("testUser");
+
+        assertNotNull(credential.value(), "Credential value should not be null");
+        assertEquals("testUser", credential.username(), "Username should match");
+        assertTrue(credential.expiresAt().isAfter(time.now()), "Expiration time should be in the future");
+    }
+
+    @Test
+    void rotate_ReturnsNextCredentialAndInvalidatesPresentedOne() {
+        InMemoryRefreshTokenManagerImpl manager = new InMemoryRefreshTokenManagerImpl(3600, time);
+        RefreshCredential first = manager.issue("testUser");
+
+        RefreshCredential second = manager.rotate(first.value());
+
+        assertNotNull(second, "Rotation of a fresh credential should succeed");
+        assertEquals("testUser", second.username(), "Username should be carried over");
+        assertNotEquals(first.value(), second.value(), "Rotation should produce a new value");
+        assertNull(manager.rotate(first.value()), "An exchanged credential must not be usable again");
+    }
+
+    @Test
+    void rotate_ReplayOfExchangedCredentialRevokesFamily() {
+        InMemoryRefreshTokenManagerImpl manager = new InMemoryRefreshTokenManagerImpl(3600, time);
+        RefreshCredential first = manager.issue("testUser");
+        RefreshCredential second = manager.rotate(first.value());
+
+        manager.rotate(first.value());
+
+        assertNull(manager.rotate(second.value()), "Replay should revoke every credential of the family");
+    }
+
+    @Test
+    void rotate_RejectsRevokedExpiredAndMalformedCredentials() {
+        InMemoryRefreshTokenManagerImpl manager = new InMemoryRefreshTokenManagerImpl(3600, time);
+        RefreshCredential revoked = manager.issue("testUser");
+        manager.revoke(revoked.value());
+        RefreshCredential expired = manager.issue("testUser");
+        time.advance(Duration.ofHours(1));
+
+        assertNull(manager.rotate(revoked.value()), "Revoked credential should be rejected");
+        assertNull(manager.rotate(expired.value()), "Expired credential should be rejected");
+        assertNull(manager.rotate("no-separator"), "Malformed credential should be rejected");
+        assertNull(manager.rotate(null), "Null credential should be rejected");
+    }
+}
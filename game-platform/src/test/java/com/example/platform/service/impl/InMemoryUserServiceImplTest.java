@@ -1,7 +1,11 @@
 package com.example.platform.service.impl;
 
+import com.example.common.time.TimeSource;
+import com.example.platform.service.PlatformMetrics;
+import com.example.platform.service.VerifiedCredentialCache;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -9,7 +13,7 @@ class InMemoryUserServiceImplTest {
 
     @Test
     void testVerifyPasswordWithCorrectCredentials() {
-        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl();
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(VerifiedCredentialCache.disabled(), new PlatformMetrics());
         String username = "test";
         String password = "test";
 
@@ -20,7 +24,7 @@ class InMemoryUserServiceImplTest {
 
     @Test
     void testVerifyPasswordWithIncorrectPassword() {
-        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl();
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(VerifiedCredentialCache.disabled(), new PlatformMetrics());
         String username = "test";
         String password = "wrongPassword";
 
@@ -31,7 +35,7 @@ class InMemoryUserServiceImplTest {
 
     @Test
     void testVerifyPasswordWithNonExistentUsername() {
-        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl();
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(VerifiedCredentialCache.disabled(), new PlatformMetrics());
         String username = "nonExistentUser";
         String password = "test";
 
@@ -42,7 +46,7 @@ class InMemoryUserServiceImplTest {
 
     @Test
     void testVerifyPasswordWithNullPassword() {
-        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl();
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(VerifiedCredentialCache.disabled(), new PlatformMetrics());
         String username = "test";
         String password = null;
 
@@ -53,7 +57,7 @@ class InMemoryUserServiceImplTest {
 
     @Test
     void testVerifyPasswordWithNullUsername() {
-        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl();
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(VerifiedCredentialCache.disabled(), new PlatformMetrics());
         String username = null;
         String password = "test";
 
@@ -62,4 +66,15 @@ class InMemoryUserServiceImplTest {
         assertFalse(result, "Password verification should fail when the username is null.");
     }
 
-}
\ No newline at end of file
+    @Test
+    void testVerifyPasswordIsAnsweredFromCacheOnRepeat() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(true, 60, 100, TimeSource.SYSTEM);
+        InMemoryUserServiceImpl userService = new InMemoryUserServiceImpl(cache, new PlatformMetrics());
+
+        assertTrue(userService.verifyPassword("test", "test"));
+        assertTrue(userService.verifyPassword("test", "test"));
+        assertFalse(userService.verifyPassword("test", "wrongPassword"));
+
+        assertEquals(1, cache.getHits(), "Repeated correct credentials should be served from the cache");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.provider.client;
+
+import java.time.Duration;
+
+/**
+ * CircuitBreaker guards calls to a single remote endpoint. After a number of consecutive failures
+ * the circuit opens and calls are rejected without touching the network for the open duration.
+ * Afterwards the circuit is half-open: exactly one caller is let through as a probe, and its
+ * outcome decides whether the circuit closes again or stays open for another period.
+ * All callers of {@link #tryAcquire()} that are granted a call must report its outcome through
+ * {@link #onSuccess()} or {@link #onFailure()}.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    /**
+     * @param failureThreshold the number of consecutive failures that open the circuit
+     * @param openDuration how long the circuit stays open before a probe is allowed
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Returns whether a call may be made now. In the half-open state only the first caller is
+     * admitted until it reports its outcome.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -1,72 +1,617 @@
 package com.example.provider.client;
 
 import com.example.provider.exception.JwksClientException;
+import com.example.provider.jfr.JwksFetchEvent;
 import com.example.provider.model.CachedJwks;
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.Tracer;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * JwksClient is responsible for retrieving JSON Web Key Sets (JWKS) from given URLs and caching them
- * for a specified time-to-live (TTL) to minimize repeated network requests.
+ * for the time-to-live (TTL) announced by the server to minimize repeated network requests.
  * This class uses an internal concurrent cache to store the fetched JWKS and associate it
- * with the corresponding URL. The cache is automatically invalidated after the defined TTL.
- * Subsequent requests for the same URL will trigger a new HTTP fetch if the cache is expired.
+ * with the corresponding URL. The TTL is taken from the Cache-Control max-age of the response and
+ * falls back to a default when the server does not send one.
+ * Once the cache is expired, the next request revalidates it with If-None-Match; a 304 Not Modified
+ * answer extends the cached entry without transferring or parsing the document again.
+ * When a snapshot directory is configured, every successfully fetched or revalidated key set is
+ * also written to disk and used to fill the cache after a restart. If a refresh fails, an expired
+ * entry keeps being served for up to the configured maximum staleness instead of failing the request.
+ * Each URL has its own circuit breaker: after repeated failures, refreshes are skipped for a while
+ * and the cached entry is served, so a failing platform does not cost a network call per request.
+ * At most one refresh per URL is in flight: a lookup that finds the cached key set expired while another
+ * thread refreshes it is served that key set if it is still within the maximum staleness, and otherwise
+ * waits for the refresh, as does a lookup for a kid the cached set does not contain. A slow or flaky
+ * platform thus blocks a single request thread per URL instead of every request that arrives meanwhile.
+ * Per URL, cache hits and misses, stale responses, rejected refreshes, lookups that joined a refresh
+ * in flight and the latency of every refresh by outcome are exposed as metrics. Every lookup and every refresh is also emitted as a
+ * {@link JwksFetchEvent} to Flight Recorder, including the time spent in the HTTP request. Refreshes
+ * made while a traced request is processed are recorded as spans of that request.
+ * Cache expiry is checked in epoch milliseconds against the injected TimeSource.
  * The primary functionality is to fetch and parse JWKS from a provided URL.
  */
 @ApplicationScoped
-public class JwksClient {
+public class JwksClient implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(JwksClient.class);
+
+    static final long DEFAULT_TTL_SECONDS = 300;
+    static final long MAX_TTL_SECONDS = 24 * 60 * 60;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final int MAX_PREFETCH_THREADS = 8;
+    private static final int MAX_UNKNOWN_KIDS = 1024;
+    private static final String HIT = "hit";
+    private static final String STALE = "stale";
+    private static final String JOINED = "joined";
 
-    private static final long TTL_SECONDS = 300;
     private final Map<String, CachedJwks> cache = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    private final Map<String, CompletableFuture<CachedJwks>> refreshes = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastKidMissRefresh = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> unknownKids = new ConcurrentHashMap<>();
+    private final Map<String, UrlMetrics> urlMetrics = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+    private final Path snapshotDir;
+    private final long maxStaleMillis;
+    private final long kidMissRefreshIntervalNanos;
+    private final long unknownKidTtlNanos;
+    private final int failureThreshold;
+    private final Duration breakerOpenDuration;
+    private final Tracer tracer;
+    private final TimeSource timeSource;
+
+    /**
+     * Constructs a JwksClient that traces refreshes and checks cache expiry against the given time source.
+     *
+     * @param snapshotDir the directory holding the last good key set per URL; empty disables snapshots
+     * @param maxStale how long past its expiry a cached key set may still be served when the refresh fails
+     * @param kidMissRefreshInterval the minimum time between two refreshes of a URL caused by an unknown kid
+     * @param unknownKidTtl how long a kid that was still missing after a refresh is not looked up again
+     * @param failureThreshold the number of consecutive failed refreshes that open a URL's circuit
+     * @param breakerOpenDuration how long an open circuit rejects refreshes before probing the URL again
+     * @param tracer the tracer recording refreshes within traced requests
+     * @param timeSource the time source cached key sets expire by
+     */
+    @Inject
+    public JwksClient(@ConfigProperty(name = "provider.jwks.snapshot-dir") Optional<String> snapshotDir,
+                      @ConfigProperty(name = "provider.jwks.max-stale", defaultValue = "PT6H") Duration maxStale,
+                      @ConfigProperty(name = "provider.jwks.kid-miss-refresh-interval", defaultValue = "PT30S") Duration kidMissRefreshInterval,
+                      @ConfigProperty(name = "provider.jwks.unknown-kid-ttl", defaultValue = "PT5M") Duration unknownKidTtl,
+                      @ConfigProperty(name = "provider.jwks.breaker.failure-threshold", defaultValue = "5") int failureThreshold,
+                      @ConfigProperty(name = "provider.jwks.breaker.open-duration", defaultValue = "PT30S") Duration breakerOpenDuration,
+                      Tracer tracer, TimeSource timeSource) {
+        this.snapshotDir = snapshotDir.map(Path::of).orElse(null);
+        this.maxStaleMillis = maxStale.toMillis();
+        this.kidMissRefreshIntervalNanos = kidMissRefreshInterval.toNanos();
+        this.unknownKidTtlNanos = unknownKidTtl.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.breakerOpenDuration = breakerOpenDuration;
+        this.tracer = tracer;
+        this.timeSource = timeSource;
+    }
 
     /**
      * Fetches the JSON Web Key Set (JWKS) from the specified URL. If a cached version of the JWKS
-     * exists and has not expired, it is returned. Otherwise, a network call is made to fetch the latest
-     * JWKS, which is then cached for future use.
+     * exists and has not expired, it is returned. Otherwise, a conditional network call is made to
+     * revalidate or fetch the latest JWKS, which is then cached for future use.
+     * If that call fails, an expired cached version is returned while it is within the maximum staleness.
      *
      * @param jwksUrl the URL from which the JWKS should be fetched
      * @return the JSON Web Key Set (JWKS) fetched from the given URL
      * @throws JwksClientException if there is an error during the HTTP request or response processing
+     *         and no usable cached version exists
      * @throws ParseException if the fetched JWKS cannot be parsed
      */
     public JWKSet fetch(String jwksUrl) throws JwksClientException, ParseException {
         CachedJwks cached = cache.get(jwksUrl);
-        if (cached != null && Instant.now().isBefore(cached.fetchedAt().plusSeconds(TTL_SECONDS))) {
+        if (cached == null) {
+            cached = loadSnapshot(jwksUrl);
+        }
+        JwksFetchEvent event = new JwksFetchEvent();
+        event.begin();
+        long now = timeSource.currentTimeMillis();
+        UrlMetrics metrics = metrics(jwksUrl);
+        if (cached != null && now < cached.expiresAt().toEpochMilli()) {
+            metrics.hits.increment();
+            event.outcome = HIT;
+            commit(event, jwksUrl, true);
             return cached.jwkSet();
-        } else {
-            JWKSet jwkSet = JWKSet.parse(getHttpResponse(jwksUrl).body());
-            cache.put(jwksUrl, new CachedJwks(jwkSet, Instant.now()));
-            return jwkSet;
         }
+        metrics.misses.increment();
+        try {
+            return refreshOrStale(jwksUrl, cached, now, event, true);
+        } finally {
+            commit(event, jwksUrl, false);
+        }
+    }
+
+    /**
+     * Looks up the key with the given key ID in the JWKS of the specified URL. A kid that is not in
+     * the cached set triggers a refresh, at most once per URL and configured interval, so that keys
+     * published after the last fetch are found. A kid that is still missing after a refresh is
+     * remembered as unknown for a while and answered without further lookups.
+     * A token without a kid is verified with the first key of the set.
+     *
+     * @param jwksUrl the URL from which the JWKS should be fetched
+     * @param kid the key ID from the token header, may be null
+     * @return the matching key; null if the key set does not contain it
+     * @throws JwksClientException if the JWKS cannot be fetched and no usable cached version exists
+     * @throws ParseException if the fetched JWKS cannot be parsed
+     */
+    public JWK getKey(String jwksUrl, String kid) throws JwksClientException, ParseException {
+        JWKSet jwkSet = fetch(jwksUrl);
+        if (kid == null) {
+            return jwkSet.getKeys().isEmpty() ? null : jwkSet.getKeys().get(0);
+        }
+        JWK jwk = jwkSet.getKeyByKeyId(kid);
+        if (jwk != null || isKnownUnknownKid(jwksUrl, kid) || !tryKidMissRefresh(jwksUrl)) {
+            return jwk;
+        }
+        JwksFetchEvent event = new JwksFetchEvent();
+        event.begin();
+        try {
+            jwk = refreshOrStale(jwksUrl, cache.get(jwksUrl), timeSource.currentTimeMillis(), event, false)
+                    .getKeyByKeyId(kid);
+        } finally {
+            commit(event, jwksUrl, false);
+        }
+        if (jwk == null) {
+            rememberUnknownKid(jwksUrl, kid);
+        }
+        return jwk;
+    }
+
+    /**
+     * Caches the given key set for the URL as if it had just been fetched, so that lookups are answered
+     * from the cache until it expires. Nothing is fetched or written to the snapshot directory. This serves
+     * key sets that are not published over HTTP, such as the stand-in key set of the startup warmup.
+     *
+     * @param jwksUrl the URL the key set is cached for
+     * @param jwkSet the key set
+     * @param ttl how long the key set is served from the cache
+     */
+    public void seed(String jwksUrl, JWKSet jwkSet, Duration ttl) {
+        Instant now = timeSource.now();
+        cache.put(jwksUrl, new CachedJwks(jwkSet, now, now.plus(ttl), null));
+    }
+
+    /**
+     * Refreshes the key sets of the given URLs in parallel, regardless of whether their cached
+     * versions have expired. Snapshots are loaded first, so a URL whose refresh fails is still
+     * served from its snapshot.
+     *
+     * @param jwksUrls the URLs to refresh
+     * @param timeout the maximum time to wait for all refreshes
+     * @return the number of URLs that were refreshed successfully
+     */
+    public int prefetch(Collection<String> jwksUrls, Duration timeout) throws InterruptedException {
+        if (jwksUrls.isEmpty()) return 0;
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (String url : jwksUrls) {
+            tasks.add(() -> {
+                CachedJwks cached = cache.get(url);
+                JwksFetchEvent event = new JwksFetchEvent();
+                event.begin();
+                try {
+                    sharedRefresh(url, cached != null ? cached : loadSnapshot(url), event, false);
+                    return true;
+                } catch (JwksClientException | ParseException e) {
+                    return false;
+                } finally {
+                    commit(event, url, false);
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), MAX_PREFETCH_THREADS), r -> {
+            Thread t = new Thread(r, "jwks-prefetch");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            int refreshed = 0;
+            for (Future<Boolean> f : executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                if (!f.isCancelled() && Boolean.TRUE.equals(getQuietly(f))) refreshed++;
+            }
+            return refreshed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Boolean getQuietly(Future<Boolean> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private JWKSet refreshOrStale(String jwksUrl, CachedJwks cached, long now, JwksFetchEvent event,
+                                  boolean serveCachedWhileRefreshing) throws ParseException {
+        boolean usable = cached != null && now < cached.expiresAt().toEpochMilli() + maxStaleMillis;
+        try {
+            return sharedRefresh(jwksUrl, cached, event, serveCachedWhileRefreshing && usable).jwkSet();
+        } catch (JwksClientException e) {
+            if (usable) {
+                LOG.debugf("Serving key set of %s fetched at %s: %s", jwksUrl, cached.fetchedAt(), e.getMessage());
+                metrics(jwksUrl).stale.increment();
+                event.outcome = STALE;
+                return cached.jwkSet();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Refreshes the key set of a URL unless another thread is refreshing it already. In that case the
+     * given cached key set is returned right away if {@code serveCached} is set, and otherwise the
+     * refresh in flight is awaited and its result or failure shared.
+     */
+    private CachedJwks sharedRefresh(String jwksUrl, CachedJwks cached, JwksFetchEvent event, boolean serveCached)
+            throws ParseException {
+        CompletableFuture<CachedJwks> refresh = new CompletableFuture<>();
+        CompletableFuture<CachedJwks> inFlight = refreshes.putIfAbsent(jwksUrl, refresh);
+        if (inFlight != null) {
+            metrics(jwksUrl).joined.increment();
+            event.outcome = JOINED;
+            return serveCached ? cached : await(jwksUrl, inFlight);
+        }
+        try {
+            CachedJwks current = cache.get(jwksUrl);
+            CachedJwks refreshed = (current != cached && current != null
+                    && timeSource.currentTimeMillis() < current.expiresAt().toEpochMilli())
+                    ? current // refreshed by another thread since the caller looked
+                    : guardedRefresh(jwksUrl, cached, event);
+            refresh.complete(refreshed);
+            return refreshed;
+        } catch (RuntimeException | ParseException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshes.remove(jwksUrl, refresh);
+        }
+    }
+
+    private static CachedJwks await(String jwksUrl, CompletableFuture<CachedJwks> refresh) throws ParseException {
+        try {
+            return refresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JwksClientException("Interrupted while waiting for the refresh of " + jwksUrl);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ParseException parse) throw parse;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new JwksClientException("Failed to fetch JWKS: " + e.getCause());
+        }
+    }
+
+    private CachedJwks guardedRefresh(String jwksUrl, CachedJwks cached, JwksFetchEvent event) throws ParseException {
+        CircuitBreaker breaker = breakers.computeIfAbsent(jwksUrl,
+                url -> new CircuitBreaker(failureThreshold, breakerOpenDuration));
+        if (!breaker.tryAcquire()) {
+            metrics(jwksUrl).rejected.increment();
+            event.outcome = UrlMetrics.OUTCOMES[UrlMetrics.FAILED];
+            throw new JwksClientException("Circuit open for " + jwksUrl);
+        }
+        try {
+            CachedJwks refreshed = refresh(jwksUrl, cached, event);
+            breaker.onSuccess();
+            return refreshed;
+        } catch (RuntimeException | ParseException e) {
+            breaker.onFailure();
+            LOG.warnf("JWKS refresh from %s failed (circuit %s): %s", jwksUrl, breaker.getState(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private boolean tryKidMissRefresh(String jwksUrl) {
+        AtomicLong last = lastKidMissRefresh.computeIfAbsent(jwksUrl, url -> new AtomicLong(System.nanoTime() - kidMissRefreshIntervalNanos));
+        long previous = last.get();
+        long now = System.nanoTime();
+        return now - previous >= kidMissRefreshIntervalNanos && last.compareAndSet(previous, now);
     }
 
-    private HttpResponse<String> getHttpResponse(String jwksUrl) {
+    private boolean isKnownUnknownKid(String jwksUrl, String kid) {
+        Map<String, Long> kids = unknownKids.get(jwksUrl);
+        Long until = (kids != null) ? kids.get(kid) : null;
+        if (until == null) return false;
+        if (System.nanoTime() - until < 0) return true;
+        kids.remove(kid, until);
+        return false;
+    }
+
+    private void rememberUnknownKid(String jwksUrl, String kid) {
+        Map<String, Long> kids = unknownKids.computeIfAbsent(jwksUrl, url -> new ConcurrentHashMap<>());
+        if (kids.size() >= MAX_UNKNOWN_KIDS) {
+            kids.clear();
+        }
+        kids.put(kid, System.nanoTime() + unknownKidTtlNanos);
+    }
+
+    private CachedJwks refresh(String jwksUrl, CachedJwks cached, JwksFetchEvent event) throws ParseException {
+        try (Span span = tracer.startChildSpan("jwks.refresh")) {
+            span.setAttribute("url", jwksUrl);
+            try {
+                return fetchAndCache(jwksUrl, cached, event);
+            } finally {
+                span.setAttribute("outcome", event.outcome);
+            }
+        }
+    }
+
+    private CachedJwks fetchAndCache(String jwksUrl, CachedJwks cached, JwksFetchEvent event) throws ParseException {
+        String etag = (cached != null) ? cached.etag() : null;
+        long start = System.nanoTime();
+        boolean modified;
+        CachedJwks refreshed;
+        event.outcome = UrlMetrics.OUTCOMES[UrlMetrics.FAILED];
+        try {
+            HttpResponse<String> resp;
+            try {
+                resp = getHttpResponse(jwksUrl, etag);
+            } finally {
+                event.httpDuration = System.nanoTime() - start;
+            }
+            Instant now = timeSource.now();
+            Instant expiresAt = now.plusSeconds(ttlSeconds(resp));
+            modified = resp.statusCode() != 304;
+            if (modified) {
+                JWKSet jwkSet = JWKSet.parse(resp.body());
+                refreshed = new CachedJwks(jwkSet, now, expiresAt, resp.headers().firstValue("ETag").orElse(null));
+            } else {
+                refreshed = new CachedJwks(cached.jwkSet(), now, expiresAt, etag);
+            }
+        } catch (RuntimeException | ParseException e) {
+            metrics(jwksUrl).recordRefresh(UrlMetrics.FAILED, System.nanoTime() - start);
+            throw e;
+        }
+        int outcome = modified ? UrlMetrics.UPDATED : UrlMetrics.NOT_MODIFIED;
+        metrics(jwksUrl).recordRefresh(outcome, System.nanoTime() - start);
+        event.outcome = UrlMetrics.OUTCOMES[outcome];
+        if (modified) {
+            unknownKids.remove(jwksUrl);
+        }
+        cache.put(jwksUrl, refreshed);
+        saveSnapshot(jwksUrl, refreshed);
+        return refreshed;
+    }
+
+    private HttpResponse<String> getHttpResponse(String jwksUrl, String etag) {
         HttpResponse<String> resp;
         try {
-             resp = HttpClient.newHttpClient().send(createHttpRequest(jwksUrl), HttpResponse.BodyHandlers.ofString());
+             resp = httpClient.send(createHttpRequest(jwksUrl, etag), HttpResponse.BodyHandlers.ofString());
         } catch (InterruptedException | IOException e) {
-             throw new JwksClientException();
+             throw new JwksClientException("Failed to fetch JWKS: " + e);
         }
-        if (resp.statusCode() != 200) {
+        if (resp.statusCode() != 200 && !(resp.statusCode() == 304 && etag != null)) {
             throw new JwksClientException("Failed to fetch JWKS, status=" + resp.statusCode());
         }
         return resp;
     }
 
-    private HttpRequest createHttpRequest(String jwksUrl) {
-        return HttpRequest.newBuilder()
+    private HttpRequest createHttpRequest(String jwksUrl, String etag) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(jwksUrl))
-                .GET()
-                .build();
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder.build();
+    }
+
+    private CachedJwks loadSnapshot(String jwksUrl) {
+        if (snapshotDir == null) return null;
+        Path file = snapshotFile(jwksUrl);
+        if (!Files.exists(file)) return null;
+        try {
+            Map<String, Object> json = JSONObjectUtils.parse(Files.readString(file, StandardCharsets.UTF_8));
+            if (!jwksUrl.equals(JSONObjectUtils.getString(json, "url"))) return null;
+            CachedJwks snapshot = new CachedJwks(
+                    JWKSet.parse(JSONObjectUtils.getJSONObject(json, "jwks")),
+                    Instant.ofEpochSecond(JSONObjectUtils.getLong(json, "fetchedAt")),
+                    Instant.ofEpochSecond(JSONObjectUtils.getLong(json, "expiresAt")),
+                    JSONObjectUtils.getString(json, "etag"));
+            CachedJwks existing = cache.putIfAbsent(jwksUrl, snapshot);
+            return existing != null ? existing : snapshot;
+        } catch (IOException | ParseException e) {
+            LOG.warnf("Ignoring unreadable JWKS snapshot %s: %s", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveSnapshot(String jwksUrl, CachedJwks jwks) {
+        if (snapshotDir == null) return;
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("url", jwksUrl);
+        json.put("etag", jwks.etag());
+        json.put("fetchedAt", jwks.fetchedAt().getEpochSecond());
+        json.put("expiresAt", jwks.expiresAt().getEpochSecond());
+        json.put("jwks", jwks.jwkSet().toJSONObject());
+        Path file = snapshotFile(jwksUrl);
+        try {
+            Files.createDirectories(snapshotDir);
+            Path tmp = Files.createTempFile(snapshotDir, file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(tmp, JSONObjectUtils.toJSONString(json), StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            LOG.warnf("Could not write JWKS snapshot %s: %s", file, e.getMessage());
+        }
+    }
+
+    private Path snapshotFile(String jwksUrl) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwksUrl.getBytes(StandardCharsets.UTF_8));
+            return snapshotDir.resolve(Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void commit(JwksFetchEvent event, String jwksUrl, boolean cacheHit) {
+        if (event.shouldCommit()) {
+            event.url = jwksUrl;
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the metrics of a URL, registering them with the meter registry the first time the URL
+     * is seen.
+     */
+    private UrlMetrics metrics(String jwksUrl) {
+        UrlMetrics metrics = urlMetrics.get(jwksUrl);
+        if (metrics == null) {
+            metrics = urlMetrics.computeIfAbsent(jwksUrl, UrlMetrics::new);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) metrics.register(registry);
+        }
+        return metrics;
+    }
+
+    UrlMetrics getUrlMetrics(String jwksUrl) {
+        return urlMetrics.get(jwksUrl);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        for (UrlMetrics metrics : urlMetrics.values()) {
+            metrics.register(registry);
+        }
+    }
+
+    /**
+     * Derives the cache TTL from the Cache-Control header of a response: {@code no-cache} and
+     * {@code no-store} yield zero, {@code max-age} is honoured up to one day, and the default
+     * applies when neither is present.
+     */
+    static long ttlSeconds(HttpResponse<?> resp) {
+        String cacheControl = resp.headers().firstValue("Cache-Control").orElse(null);
+        if (cacheControl == null) return DEFAULT_TTL_SECONDS;
+        long ttl = DEFAULT_TTL_SECONDS;
+        for (String directive : cacheControl.split(",")) {
+            String d = directive.trim().toLowerCase();
+            if (d.equals("no-cache") || d.equals("no-store")) {
+                return 0;
+            } else if (d.startsWith("max-age=")) {
+                try {
+                    ttl = Math.min(Math.max(Long.parseLong(d.substring(8).trim()), 0), MAX_TTL_SECONDS);
+                } catch (NumberFormatException e) {
+                    ttl = DEFAULT_TTL_SECONDS;
+                }
+            }
+        }
+        return ttl;
+    }
+
+    static final class UrlMetrics {
+        static final int UPDATED = 0;
+        static final int NOT_MODIFIED = 1;
+        static final int FAILED = 2;
+        static final String[] OUTCOMES = {"updated", "not_modified", "failed"};
+
+        final String url;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder stale = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder joined = new LongAdder();
+        private volatile Timer[] refreshTimers;
+
+        UrlMetrics(String url) {
+            this.url = url;
+        }
+
+        void recordRefresh(int outcome, long nanos) {
+            Timer[] timers = refreshTimers;
+            if (timers != null) {
+                timers[outcome].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void register(MeterRegistry registry) {
+            if (refreshTimers != null) return;
+            FunctionCounter.builder("provider.jwks.cache.requests", hits, LongAdder::sum)
+                    .description("Key set lookups by whether the cached key set was fresh")
+                    .tags("url", url, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("provider.jwks.cache.requests", misses, LongAdder::sum)
+                    .description("Key set lookups by whether the cached key set was fresh")
+                    .tags("url", url, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("provider.jwks.stale.served", stale, LongAdder::sum)
+                    .description("Expired key sets served because the refresh failed")
+                    .tag("url", url)
+                    .register(registry);
+            FunctionCounter.builder("provider.jwks.refresh.rejected", rejected, LongAdder::sum)
+                    .description("Refreshes skipped because the URL's circuit was open")
+                    .tag("url", url)
+                    .register(registry);
+            FunctionCounter.builder("provider.jwks.refresh.joined", joined, LongAdder::sum)
+                    .description("Lookups that found a refresh of the URL in flight and did not start another one")
+                    .tag("url", url)
+                    .register(registry);
+            Timer[] timers = new Timer[OUTCOMES.length];
+            for (int i = 0; i < OUTCOMES.length; i++) {
+                timers[i] = Timer.builder("provider.jwks.refresh")
+                        .description("Duration of key set refreshes by outcome")
+                        .tags("url", url, "outcome", OUTCOMES[i])
+                        .register(registry);
+            }
+            refreshTimers = timers;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package com.example.provider.client;
+
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.service.PlatformRegistry;
+import com.example.provider.service.RevocationList;
+import com.example.common.time.TimeSource;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the {@link RevocationList} up to date by polling the revocation feed of every registered
+ * platform that has one. Each poll asks only for the revocations published after the cursor of the
+ * previous one, so an idle feed costs a small request per platform and interval, and page after page is
+ * read until the feed has been caught up with. When a platform restarts, its feed changes its epoch and
+ * is read from the beginning; revocations received before stay in the list until they expire.
+ * A platform whose feed cannot be reached keeps its revocations received so far, and tokens are not
+ * rejected because of the failure; the first failure is logged as a warning, following ones at debug level.
+ */
+@Startup
+@ApplicationScoped
+public class RevocationFeedClient implements MeterBinder {
+
+    private static final Logger LOG = Logger.getLogger(RevocationFeedClient.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    private final Map<String, FeedState> feeds = new ConcurrentHashMap<>();
+    private final LongAdder polled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final PlatformRegistry platformRegistry;
+    private final RevocationList revocationList;
+    private final TimeSource timeSource;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int pageSize;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param platformRegistry the registry whose platforms' feeds are polled
+     * @param revocationList the list receiving the revocations
+     * @param timeSource the time source revocations expire by
+     * @param enabled whether the feeds are polled at all
+     * @param pollInterval the time between two polls of all feeds
+     * @param pageSize the maximum number of revocations requested at once
+     */
+    @Inject
+    public RevocationFeedClient(PlatformRegistry platformRegistry, RevocationList revocationList, TimeSource timeSource,
+                                @ConfigProperty(name = "provider.revocations.enabled", defaultValue = "true") boolean enabled,
+                                @ConfigProperty(name = "provider.revocations.poll-interval", defaultValue = "PT2S") Duration pollInterval,
+                                @ConfigProperty(name = "provider.revocations.page-size", defaultValue = "1000") int pageSize) {
+        this.platformRegistry = platformRegistry;
+        this.revocationList = revocationList;
+        this.timeSource = timeSource;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.pageSize = pageSize;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled || pollInterval.isZero()) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "revocation-feed-poll");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /**
+     * Reads the new revocations of every platform with a feed and drops the expired ones.
+     */
+    public void pollAll() {
+        for (PlatformInfo platform : platformRegistry.getPlatforms()) {
+            if (platform.revocationsUrl() != null) {
+                poll(platform);
+            }
+        }
+        revocationList.removeExpired(timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Reads the revocations published by the platform since its last poll.
+     *
+     * @return false if the feed could not be read
+     */
+    boolean poll(PlatformInfo platform) {
+        FeedState state = feeds.computeIfAbsent(platform.platformId(), id -> new FeedState());
+        try {
+            boolean more;
+            do {
+                more = readPage(platform, state);
+            } while (more);
+            polled.increment();
+            if (state.failing) {
+                LOG.infof("Revocation feed of %s is reachable again", platform.platformId());
+                state.failing = false;
+            }
+            return true;
+        } catch (IOException | ParseException | RuntimeException e) {
+            failed.increment();
+            if (!state.failing) {
+                LOG.warnf("Cannot read revocation feed of %s from %s: %s", platform.platformId(),
+                        platform.revocationsUrl(), e.getMessage());
+                state.failing = true;
+            } else {
+                LOG.debugf("Revocation feed of %s still unreachable: %s", platform.platformId(), e.getMessage());
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registerPolls(registry, "ok", polled);
+        registerPolls(registry, "failed", failed);
+        FunctionCounter.builder("provider.revocations.received", received, LongAdder::sum)
+                .description("Revocations received from the platforms' feeds")
+                .register(registry);
+    }
+
+    private static void registerPolls(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("provider.revocations.polls", adder, LongAdder::sum)
+                .description("Polls of a platform's revocation feed by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private boolean readPage(PlatformInfo platform, FeedState state)
+            throws IOException, InterruptedException, ParseException {
+        HttpResponse<String> resp = httpClient.send(createHttpRequest(platform.revocationsUrl(), state),
+                HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() != 200) {
+            throw new IOException("status=" + resp.statusCode());
+        }
+        Map<String, Object> page = JSONObjectUtils.parse(resp.body());
+        String epoch = JSONObjectUtils.getString(page, "epoch");
+        if (state.epoch != null && !state.epoch.equals(epoch)) {
+            LOG.infof("Revocation feed of %s restarted, reading it from the beginning", platform.platformId());
+        }
+        for (Object entry : JSONObjectUtils.getJSONArray(page, "revocations")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> revocation = (Map<String, Object>) entry;
+            String id = JSONObjectUtils.getString(revocation, "sid");
+            if (id == null) id = JSONObjectUtils.getString(revocation, "jti");
+            if (id == null) throw new ParseException("Revocation without sid or jti", 0);
+            revocationList.add(platform.platformId(), id, JSONObjectUtils.getLong(revocation, "exp"));
+            received.increment();
+        }
+        state.epoch = epoch;
+        state.cursor = JSONObjectUtils.getLong(page, "cursor");
+        return JSONObjectUtils.getBoolean(page, "more");
+    }
+
+    private HttpRequest createHttpRequest(String url, FeedState state) {
+        StringBuilder uri = new StringBuilder(url)
+                .append(url.indexOf('?') < 0 ? '?' : '&')
+                .append("after=").append(state.cursor)
+                .append("&limit=").append(pageSize);
+        if (state.epoch != null) {
+            uri.append("&epoch=").append(URLEncoder.encode(state.epoch, StandardCharsets.UTF_8));
+        }
+        return HttpRequest.newBuilder()
+                .uri(URI.create(uri.toString()))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    /**
+     * How far the feed of one platform has been read. Only accessed by the polling thread.
+     */
+    private static final class FeedState {
+        String epoch;
+        long cursor;
+        boolean failing;
+    }
+}
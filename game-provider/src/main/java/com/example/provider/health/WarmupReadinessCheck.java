@@ -0,0 +1,27 @@
+package com.example.provider.health;
+
+import com.example.provider.service.ProviderWarmup;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Reports the provider as ready only after the platforms' key sets have been prefetched and the
+ * validation path has been warmed up, so the first requests after a deploy are not slowed down.
+ */
+@Readiness
+public class WarmupReadinessCheck implements HealthCheck {
+
+    private final ProviderWarmup warmup;
+
+    public WarmupReadinessCheck(ProviderWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("warmup")
+                .status(warmup.isComplete())
+                .build();
+    }
+}
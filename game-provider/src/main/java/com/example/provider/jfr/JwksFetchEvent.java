@@ -0,0 +1,42 @@
+package com.example.provider.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event covering one key set lookup of the JwksClient, either answered from the cache
+ * or requiring a refresh, including the time spent in the HTTP request.
+ * Without a recording, or with the event disabled, emitting it costs a check of a static flag.
+ * By default only lookups slower than the threshold, i.e. refreshes, are recorded;
+ * {@code jfr/game-provider.jfc} records all of them.
+ */
+@Name("com.example.provider.JwksFetch")
+@Label("JWKS Fetch")
+@Category({"Game Provider", "JWKS"})
+@Description("Key set lookup, served from the cache or refreshed from the platform")
+@StackTrace(false)
+@Threshold("10 ms")
+public class JwksFetchEvent extends Event {
+
+    @Label("JWKS URL")
+    public String url;
+
+    @Label("Cache Hit")
+    @Description("Whether a fresh cached key set was returned without a request")
+    public boolean cacheHit;
+
+    @Label("Outcome")
+    @Description("hit, updated, not_modified, stale, joined or failed")
+    public String outcome;
+
+    @Label("HTTP Duration")
+    @Description("Time spent in the HTTP request; zero for cache hits and skipped refreshes")
+    @Timespan(Timespan.NANOSECONDS)
+    public long httpDuration;
+}
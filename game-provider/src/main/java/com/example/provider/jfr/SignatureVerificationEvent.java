@@ -0,0 +1,36 @@
+package com.example.provider.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event covering the key lookup and the RSA verification of one token signature.
+ * Without a recording, or with the event disabled, emitting it costs a check of a static flag.
+ * By default only verifications slower than the threshold are recorded; {@code jfr/game-provider.jfc}
+ * records all of them.
+ */
+@Name("com.example.provider.SignatureVerification")
+@Label("Signature Verification")
+@Category({"Game Provider", "Tokens"})
+@Description("Key lookup and verification of a token signature")
+@StackTrace(false)
+@Threshold("20 ms")
+public class SignatureVerificationEvent extends Event {
+
+    @Label("JWKS URL")
+    public String url;
+
+    @Label("Key ID")
+    public String kid;
+
+    @Label("Key Found")
+    public boolean keyFound;
+
+    @Label("Verified")
+    public boolean verified;
+}
@@ -0,0 +1,36 @@
+package com.example.provider.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event covering the validation of one token by /play, so that CPU samples can be
+ * attributed to issuers, games and validation results.
+ * Without a recording, or with the event disabled, emitting it costs a check of a static flag.
+ * By default only validations slower than the threshold are recorded; {@code jfr/game-provider.jfc}
+ * records all of them.
+ */
+@Name("com.example.provider.TokenValidation")
+@Label("Token Validation")
+@Category({"Game Provider", "Tokens"})
+@Description("Validation of a token presented to /play")
+@StackTrace(false)
+@Threshold("20 ms")
+public class TokenValidationEvent extends Event {
+
+    @Label("Game")
+    public String game;
+
+    @Label("Issuer")
+    @Description("Issuer of a valid token; empty if the token was rejected")
+    public String issuer;
+
+    @Label("Error")
+    @Description("Error code of a rejected token; empty if the token was valid")
+    public String error;
+}
@@ -14,8 +14,12 @@ import java.time.Instant;
  * URLs, ensuring that cached entries are checked for freshness before being utilized for cryptographic
  * operations such as signature validation.
  *
- * @param jwkSet   The JWKS object that contains cryptographic keys used for token validation.
- * @param fetchedAt The timestamp indicating when the JWKS was last retrieved.
+ * @param jwkSet    The JWKS object that contains cryptographic keys used for token validation.
+ * @param fetchedAt The timestamp indicating when the JWKS was last retrieved or revalidated.
+ * @param expiresAt The timestamp until which the JWKS may be used without revalidation,
+ *                  derived from the Cache-Control max-age of the response.
+ * @param etag      The entity tag of the response the JWKS was parsed from, sent back as
+ *                  If-None-Match on revalidation; null if the server did not provide one.
  */
-public record CachedJwks(JWKSet jwkSet, Instant fetchedAt) {
-}
\ No newline at end of file
+public record CachedJwks(JWKSet jwkSet, Instant fetchedAt, Instant expiresAt, String etag) {
+}
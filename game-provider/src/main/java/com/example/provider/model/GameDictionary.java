@@ -0,0 +1,73 @@
+package com.example.provider.model;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * GameDictionary assigns every game ID known to a registry a dense integer ID. Each distinct game
+ * ID string is stored once, and the per-platform {@link GameSet}s refer to games by their integer
+ * ID only, which keeps the memory of large catalogs proportional to the number of distinct games
+ * rather than to the number of platform-game registrations.
+ * Lookups use an open-addressing table of at most half load, so resolving a game ID costs one hash
+ * and usually a single string comparison, without boxing.
+ * The dictionary is immutable; a registry builds a new one whenever its content changes.
+ */
+public final class GameDictionary {
+
+    private final String[] keys;
+    private final int[] slotIds;
+    private final String[] names;
+    private final int shift;
+
+    private GameDictionary(String[] names) {
+        this.names = names;
+        int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+        this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        this.keys = new String[capacity];
+        this.slotIds = new int[capacity];
+        for (int id = 0; id < names.length; id++) {
+            int slot = slot(names[id]);
+            while (keys[slot] != null) slot = (slot + 1) & (capacity - 1);
+            keys[slot] = names[id];
+            slotIds[slot] = id;
+        }
+    }
+
+    /**
+     * Builds a dictionary containing every game ID of the given collections.
+     */
+    public static GameDictionary of(Collection<? extends Collection<String>> gameIds) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (Collection<String> games : gameIds) {
+            distinct.addAll(games);
+        }
+        return new GameDictionary(distinct.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the integer ID of a game, or -1 if the game is not in the dictionary.
+     */
+    public int idOf(String gameId) {
+        if (gameId == null) return -1;
+        int mask = keys.length - 1;
+        for (int slot = slot(gameId); ; slot = (slot + 1) & mask) {
+            String key = keys[slot];
+            if (key == null) return -1;
+            if (key.equals(gameId)) return slotIds[slot];
+        }
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private int slot(String key) {
+        // Fibonacci hashing spreads the near-consecutive hash codes of similar IDs across the table
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.provider.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * GameSet is an immutable set of game IDs stored as a bitset over a shared {@link GameDictionary}.
+ * A platform registered for thousands of games costs one bit per game in the dictionary instead of
+ * a hash set entry per game, and a membership check is a dictionary lookup followed by a bit test.
+ * Callers that check the same game against several sets can resolve its integer ID once with
+ * {@link GameDictionary#idOf(String)} and use {@link #containsId(int)}.
+ */
+public final class GameSet extends AbstractSet<String> {
+
+    private final GameDictionary dictionary;
+    private final long[] bits;
+    private final int size;
+
+    private GameSet(GameDictionary dictionary, long[] bits, int size) {
+        this.dictionary = dictionary;
+        this.bits = bits;
+        this.size = size;
+    }
+
+    /**
+     * Creates a set of the given games.
+     *
+     * @throws IllegalArgumentException if a game is not in the dictionary
+     */
+    public static GameSet of(GameDictionary dictionary, Collection<String> gameIds) {
+        long[] bits = new long[(dictionary.size() + 63) >>> 6];
+        int size = 0;
+        for (String game : gameIds) {
+            int id = dictionary.idOf(game);
+            if (id < 0) throw new IllegalArgumentException("Game " + game + " is not in the dictionary");
+            long mask = 1L << id;
+            if ((bits[id >>> 6] & mask) == 0) {
+                bits[id >>> 6] |= mask;
+                size++;
+            }
+        }
+        return new GameSet(dictionary, bits, size);
+    }
+
+    public GameDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns whether the game with the given dictionary ID is in this set; false for a negative ID.
+     */
+    public boolean containsId(int id) {
+        return id >= 0 && (id >>> 6) < bits.length && (bits[id >>> 6] & (1L << id)) != 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String gameId && containsId(dictionary.idOf(gameId));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int next = nextId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (next < 0) throw new NoSuchElementException();
+                String name = dictionary.nameOf(next);
+                next = nextId(next + 1);
+                return name;
+            }
+        };
+    }
+
+    private int nextId(int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) return -1;
+        long w = bits[word] & (-1L << from);
+        while (true) {
+            if (w != 0) return (word << 6) + Long.numberOfTrailingZeros(w);
+            if (++word == bits.length) return -1;
+            w = bits[word];
+        }
+    }
+}
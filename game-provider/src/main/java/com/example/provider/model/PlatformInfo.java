@@ -10,9 +10,19 @@ import java.util.Set;
  * 1. platformId - The unique identifier of the platform.
  * 2. jwksUrl - The URL where the platform's JSON Web Key Set (JWKS) can be fetched.
  * 3. registeredGames - A set of games that are registered and authorized for this platform.
+ *    The registries store it as a {@link GameSet}, a bitset over a game dictionary shared by all
+ *    platforms, so large catalogs do not keep a hash set per platform.
+ * 4. quota - The rate and concurrency limits of the platform's traffic; unlimited if not configured.
+ * 5. revocationsUrl - The URL of the platform's revocation feed, which is polled in the background;
+ *    null if the platform does not publish revocations.
  * This record is primarily leveraged by various components, such as the TokenValidator and
  * TokenSignatureVerifier, to enforce platform-specific constraints, including verifying platform
  * JWTs, validating token audience, and authorizing game access based on platform registrations.
  */
-public record PlatformInfo(String platformId, String jwksUrl, Set<String> registeredGames) {
+public record PlatformInfo(String platformId, String jwksUrl, Set<String> registeredGames, PlatformQuota quota,
+                           String revocationsUrl) {
+
+    public PlatformInfo {
+        if (quota == null) quota = PlatformQuota.UNLIMITED;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.provider.model;
+
+/**
+ * PlatformQuota limits the /play traffic a single platform may send to the provider, so that one
+ * misbehaving platform cannot degrade the service for all others.
+ *
+ * @param requestsPerSecond The sustained request rate; zero or less means unlimited.
+ * @param burst             The number of requests that may arrive at once on top of the sustained rate;
+ *                          at least one.
+ * @param maxConcurrent     The number of requests of the platform that may be processed at the same time;
+ *                          zero or less means unlimited.
+ */
+public record PlatformQuota(double requestsPerSecond, int burst, int maxConcurrent) {
+
+    public static final PlatformQuota UNLIMITED = new PlatformQuota(0, 1, 0);
+
+    public PlatformQuota {
+        burst = Math.max(burst, 1);
+    }
+
+    public boolean isRateLimited() {
+        return requestsPerSecond > 0;
+    }
+
+    public boolean isConcurrencyLimited() {
+        return maxConcurrent > 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.provider.model;
+
+/**
+ * QuotaPermit represents a request admitted under its platform's concurrency quota. It must be
+ * released exactly once when the request has been processed.
+ */
+@FunctionalInterface
+public interface QuotaPermit {
+
+    /**
+     * Permit for requests that do not count against a concurrency quota.
+     */
+    QuotaPermit NONE = () -> { };
+
+    void release();
+}
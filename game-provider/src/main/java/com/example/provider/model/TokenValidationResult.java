@@ -10,6 +10,15 @@ import com.nimbusds.jwt.JWTClaimsSet;
  *
  * @param error  A string representing the error encountered during validation. If no error occurred, this is null.
  * @param claims The JWTClaimsSet associated with the token if it was successfully validated. If validation fails, this is null.
+ * @param permit The concurrency permit of the token's platform, to be released once the request has been processed.
  */
-public record TokenValidationResult(String error, JWTClaimsSet claims) {
+public record TokenValidationResult(String error, JWTClaimsSet claims, QuotaPermit permit) {
+
+    public TokenValidationResult {
+        if (permit == null) permit = QuotaPermit.NONE;
+    }
+
+    public TokenValidationResult(String error, JWTClaimsSet claims) {
+        this(error, claims, QuotaPermit.NONE);
+    }
 }
\ No newline at end of file
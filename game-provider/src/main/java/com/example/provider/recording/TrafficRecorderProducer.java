@@ -0,0 +1,40 @@
+package com.example.provider.recording;
+
+import com.example.common.recording.TrafficRecorder;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Produces the {@link TrafficRecorder} of the {@code /play} requests from the {@code provider.recording.*} configuration.
+ * The recording is started with the application and the requests still queued are written on shutdown.
+ */
+@ApplicationScoped
+public class TrafficRecorderProducer {
+
+    private static final Logger LOG = Logger.getLogger(TrafficRecorderProducer.class);
+
+    @Produces
+    @Singleton
+    TrafficRecorder trafficRecorder(@ConfigProperty(name = "provider.recording.enabled", defaultValue = "false") boolean enabled,
+                                    @ConfigProperty(name = "provider.recording.dir", defaultValue = "data/recording/provider") String dir,
+                                    @ConfigProperty(name = "provider.recording.queue-size", defaultValue = "8192") int queueSize) {
+        return new TrafficRecorder("provider", enabled, Path.of(dir), queueSize);
+    }
+
+    void onStart(@Observes StartupEvent event, TrafficRecorder recorder) {
+        if (recorder.isEnabled()) LOG.infof("Recording /play requests to %s", recorder.getFile().toAbsolutePath());
+    }
+
+    void close(@Disposes TrafficRecorder recorder) throws InterruptedException {
+        if (recorder.isEnabled()) recorder.flush(Duration.ofSeconds(2));
+    }
+}
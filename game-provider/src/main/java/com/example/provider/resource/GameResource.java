@@ -1,10 +1,18 @@
 package com.example.provider.resource;
 
+import com.example.common.json.JsonOutput;
 import com.example.provider.model.TokenValidationResult;
+import com.example.common.recording.RecordedRequest;
+import com.example.common.recording.TrafficRecorder;
+import com.example.provider.service.AdaptiveConcurrencyLimiter;
 import com.example.provider.service.TokenValidator;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * GameResource provides RESTful endpoints for managing game-related operations.
@@ -12,13 +20,31 @@ import java.util.*;
  * to ensure secure access control to game resources.
  * This resource consumes and produces JSON and handles token validation errors
  * and success responses appropriately.
+ * Every request is traced, continuing the trace of its {@code traceparent} header or, without one,
+ * the trace the token was issued in. When traffic recording is enabled, the outcome and latency of
+ * every request is handed to the {@link TrafficRecorder}.
+ * The request path avoids per-request garbage: the bearer prefix is matched in place, error bodies are
+ * encoded once and the success body is streamed by {@link com.example.common.json.JsonBodyWriter}.
  */
 @Path("/")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class GameResource {
 
+    private static final String TRACEPARENT = "traceparent";
+    private static final String TRACERESPONSE = "traceresponse";
+    private static final String BEARER = "bearer ";
+    private static final String OK = "ok";
+    private static final byte[] MISSING_TOKEN = JsonOutput.object("error", "missing_token", "message", "Authorization header missing");
+    private static final byte[] OVERLOADED = errorBody("overloaded");
+    private static final Map<String, byte[]> ERROR_BODIES = errorBodies("unknown_issuer", "invalid_token",
+            "expired_token", "internal_error", "invalid_audience", "game_request_mismatch", "game_mismatch",
+            "game_not_allowed_for_platform", "quota_exceeded", "revoked_token");
+
     private final TokenValidator tokenValidator;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Tracer tracer;
+    private final TrafficRecorder recorder;
 
     /**
      * Constructs a new GameResource instance.
@@ -26,9 +52,17 @@ public class GameResource {
      * @param tokenValidator The TokenValidator instance responsible for validating
      *                       JSON Web Tokens (JWTs) to ensure authentication and
      *                       authorization for game requests.
+     * @param concurrencyLimiter The limiter that bounds the number of requests processed
+     *                           at the same time and sheds the excess.
+     * @param tracer The tracer recording every request.
+     * @param recorder The recorder of the request shapes, for replaying production traffic.
      */
-    public GameResource(TokenValidator tokenValidator) {
+    public GameResource(TokenValidator tokenValidator, AdaptiveConcurrencyLimiter concurrencyLimiter, Tracer tracer,
+                        TrafficRecorder recorder) {
         this.tokenValidator = tokenValidator;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.tracer = tracer;
+        this.recorder = recorder;
     }
 
     /**
@@ -40,6 +74,8 @@ public class GameResource {
      * @return A Response object indicating the outcome of the operation.
      *         - Returns a 401 UNAUTHORIZED status with an error message if the Authorization header is missing or invalid.
      *         - Returns a 401 UNAUTHORIZED or 403 FORBIDDEN status with an error message when token validation fails.
+     *         - Returns a 429 TOO MANY REQUESTS status when the token's platform exceeds its quota.
+     *         - Returns a 503 SERVICE UNAVAILABLE status when the provider is at its concurrency limit.
      *         - Returns a 500 INTERNAL SERVER ERROR status for internal errors during token validation.
      *         - Returns a 200 OK status with game details on successful execution.
      */
@@ -47,38 +83,101 @@ public class GameResource {
     @Path("/{gameId}/play")
     public Response play(@PathParam("gameId") String gameId,
                          @Context HttpHeaders headers) {
+        long start = System.nanoTime();
+        TraceContext parent = tracer.isEnabled() ? TraceContext.parse(headers.getHeaderString(TRACEPARENT)) : null;
+        try (Span span = tracer.startSpan("play", parent)) {
+            span.setAttribute("game", gameId);
+            Response response = authorizeAndPlay(gameId, headers, start);
+            if (!span.isRecording()) return response;
+            return Response.fromResponse(response).header(TRACERESPONSE, span.context().traceparent()).build();
+        }
+    }
 
+    private Response authorizeAndPlay(String gameId, HttpHeaders headers, long start) {
         String hdr = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
-        if (hdr == null || !hdr.toLowerCase().startsWith("bearer ")) {
-            return Response.status(Response.Status.UNAUTHORIZED)
-                    .entity(Map.of("error", "missing_token", "message", "Authorization header missing")).build();
+        if (hdr == null || !hdr.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            recorder.record(RecordedRequest.Endpoint.PLAY, start, gameId, "missing_token", 401, 0);
+            return Response.status(Response.Status.UNAUTHORIZED).entity(MISSING_TOKEN).build();
+        }
+        String token = bearerToken(hdr);
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            recorder.record(RecordedRequest.Endpoint.PLAY, start, gameId, "overloaded", 503, token.length());
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .entity(OVERLOADED).build();
+        }
+        long admitted = System.nanoTime();
+        try {
+            return play(gameId, token, start);
+        } finally {
+            concurrencyLimiter.release(admitted);
         }
+    }
 
-        TokenValidationResult tokenValidationResult = tokenValidator.validate(hdr.substring(7).trim(), gameId);
+    private Response play(String gameId, String token, long start) {
+        TokenValidationResult tokenValidationResult = tokenValidator.validate(token, gameId);
 
-        if (tokenValidationResult.error() != null) {
-            return generateErrorResponse(tokenValidationResult);
-        } else {
-            return Response.ok(Map.of(
-                    "status", "ok",
-                    "gameId", gameId
-            )).build();
+        try {
+            Response response;
+            if (tokenValidationResult.error() != null) {
+                response = generateErrorResponse(tokenValidationResult);
+            } else {
+                response = Response.ok(new PlayResponse(gameId)).build();
+            }
+            String outcome = (tokenValidationResult.error() != null) ? tokenValidationResult.error() : OK;
+            recorder.record(RecordedRequest.Endpoint.PLAY, start, gameId, outcome, response.getStatus(), token.length());
+            return response;
+        } finally {
+            tokenValidationResult.permit().release();
         }
     }
 
+    /**
+     * Returns the token after the case-insensitive {@code Bearer } prefix, without surrounding whitespace.
+     */
+    private static String bearerToken(String hdr) {
+        int begin = BEARER.length();
+        int end = hdr.length();
+        while (begin < end && hdr.charAt(begin) <= ' ') begin++;
+        while (end > begin && hdr.charAt(end - 1) <= ' ') end--;
+        return hdr.substring(begin, end);
+    }
+
     private Response generateErrorResponse(TokenValidationResult tokenValidationResult) {
         String error = tokenValidationResult.error();
+        byte[] body = ERROR_BODIES.get(error);
+        if (body == null) {
+            body = errorBody(error);
+        }
         if ("internal_error".equals(error)) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(Map.of("error", error, "message", error)).build();
+                    .entity(body).build();
+        }
+        else if ("quota_exceeded".equals(error)) {
+            return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .entity(body).build();
         }
         else if ("game_mismatch".equals(error) || "game_not_allowed_for_platform".equals(error)) {
             return Response.status(Response.Status.FORBIDDEN)
-                    .entity(Map.of("error", error, "message", error)).build();
+                    .entity(body).build();
         }
         else {
             return Response.status(Response.Status.UNAUTHORIZED)
-                    .entity(Map.of("error", error, "message", error)).build();
+                    .entity(body).build();
+        }
+    }
+
+    private static byte[] errorBody(String error) {
+        return JsonOutput.object("error", error, "message", error);
+    }
+
+    private static Map<String, byte[]> errorBodies(String... errors) {
+        Map<String, byte[]> bodies = new HashMap<>();
+        for (String error : errors) {
+            bodies.put(error, errorBody(error));
         }
+        return Map.copyOf(bodies);
     }
 }
\ No newline at end of file
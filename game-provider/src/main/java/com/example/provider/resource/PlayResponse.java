@@ -0,0 +1,21 @@
+package com.example.provider.resource;
+
+import com.example.common.json.JsonBody;
+import com.example.common.json.JsonOutput;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The body of a successful play request: {@code {"status":"ok","gameId":"..."}}.
+ */
+public record PlayResponse(String gameId) implements JsonBody {
+
+    private static final byte[] PREFIX = "{\"status\":\"ok\",\"gameId\":".getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public void writeTo(JsonOutput out) {
+        out.write(PREFIX);
+        out.writeString(gameId);
+        out.write('}');
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.provider.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of /play requests processed at the same time with a limit that adapts to the
+ * observed latency, so that overload is answered by shedding requests instead of by queueing them
+ * until every request is slow.
+ * The limit follows a gradient algorithm: latency is averaged over short windows and compared with
+ * a long-term average. While the short-term latency stays within a tolerance of the long-term one
+ * the limit grows by about its square root per window, as long as the requests actually use it;
+ * when latency rises because requests start to queue, the limit shrinks in proportion.
+ * Admission is a single atomic increment; the limit is recomputed by at most one thread per window.
+ */
+@ApplicationScoped
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double LONG_WINDOWS = 100;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    @Inject
+    public AdaptiveConcurrencyLimiter(
+            @ConfigProperty(name = "provider.limiter.enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "provider.limiter.initial-limit", defaultValue = "20") int initialLimit,
+            @ConfigProperty(name = "provider.limiter.min-limit", defaultValue = "4") int minLimit,
+            @ConfigProperty(name = "provider.limiter.max-limit", defaultValue = "1000") int maxLimit) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Admits a request if fewer requests than the current limit are in flight. Every admitted
+     * request must be completed with {@link #release(long)}.
+     *
+     * @return true if the request may proceed, false if it should be shed
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (enabled && current > limit) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return false;
+        }
+        if (current > maxInFlight.get()) {
+            maxInFlight.accumulateAndGet(current, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * Completes an admitted request and records its latency.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the request was admitted
+     */
+    public void release(long startNanos) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        rttSum.add(now - startNanos);
+        rttCount.increment();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long count = rttCount.sumThenReset();
+            long sum = rttSum.sumThenReset();
+            if (count > 0) {
+                update((double) sum / count, maxInFlight.getAndSet(inFlight.get()));
+            }
+        }
+    }
+
+    /**
+     * Recomputes the limit from the average latency of the last window. Called by a single thread
+     * at a time.
+     *
+     * @param shortRtt the average latency of the window in nanoseconds
+     * @param peakInFlight the highest number of requests in flight during the window
+     */
+    void update(double shortRtt, int peakInFlight) {
+        longRtt = (longRtt == 0) ? shortRtt : longRtt + (shortRtt - longRtt) / LONG_WINDOWS;
+        if (longRtt > 2 * shortRtt) {
+            // the load went away; let the baseline recover faster than the long window would
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (target > estimatedLimit && peakInFlight < estimatedLimit / 2) {
+            // requests do not use the current limit, so latency says nothing about a higher one
+            target = estimatedLimit;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("provider.play.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of concurrently processed /play requests")
+                .register(registry);
+        Gauge.builder("provider.play.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("/play requests currently being processed")
+                .register(registry);
+        FunctionCounter.builder("provider.play.shed", this, AdaptiveConcurrencyLimiter::getShed)
+                .description("/play requests rejected with 503 because the concurrency limit was reached")
+                .register(registry);
+    }
+}
@@ -2,10 +2,17 @@ package com.example.provider.service;
 
 import com.example.provider.model.PlatformInfo;
 
+import java.util.Collection;
+
 /**
  * The PlatformRegistry interface defines a contract for managing platform-related information
  * and serves as a lookup mechanism for retrieving details about registered platforms.
  */
 public interface PlatformRegistry {
     PlatformInfo getPlatformInfo(String platformId);
+
+    /**
+     * Returns all registered platforms, e.g. to prefetch their key sets at startup.
+     */
+    Collection<PlatformInfo> getPlatforms();
 }
@@ -0,0 +1,176 @@
+package com.example.provider.service;
+
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.Tracer;
+import com.example.provider.client.JwksClient;
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
+import com.example.provider.model.TokenValidationResult;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepares the provider for traffic right after startup. The JWKS of every registered platform is
+ * loaded from its snapshot and refreshed in parallel, so the first request per platform neither
+ * blocks on nor fails because of the platform's key endpoint. Afterwards, synthetic tokens signed
+ * with a throwaway key are validated so that the validation is compiled by the JIT. They are issued
+ * by a stand-in platform and run through a validator of their own, so that every stage runs, from
+ * the key lookup and the signature verification to the claim checks, without touching the registry,
+ * the quotas or the key sets of the registered platforms. The stand-in validator looks up the key in
+ * a JwksClient of its own whose cache is seeded with the throwaway key, so the cache hit path that
+ * serves requests is warmed as well. It records into metrics of its own, bound to a registry that is
+ * never exported, so requests served while the warmup runs keep their metrics and the timers are
+ * warmed too. The readiness check reports the instance as not ready until both steps have finished.
+ */
+@ApplicationScoped
+public class ProviderWarmup {
+
+    private static final Logger LOG = Logger.getLogger(ProviderWarmup.class);
+    private static final String WARMUP_PLATFORM = "warmup";
+    private static final String WARMUP_GAME = "warmup-game";
+    private static final String WARMUP_JWKS_URL = "warmup:jwks";
+
+    private final JwksClient jwksClient;
+    private final PlatformRegistry platformRegistry;
+    private final TimeSource timeSource;
+    private final boolean enabled;
+    private final int validationIterations;
+    private final Duration prefetchTimeout;
+    private volatile boolean complete;
+    private volatile int validTokens;
+
+    public ProviderWarmup(JwksClient jwksClient, PlatformRegistry platformRegistry, TimeSource timeSource,
+                          @ConfigProperty(name = "provider.warmup.enabled", defaultValue = "true") boolean enabled,
+                          @ConfigProperty(name = "provider.warmup.validation-iterations", defaultValue = "500") int validationIterations,
+                          @ConfigProperty(name = "provider.warmup.prefetch-timeout", defaultValue = "PT10S") Duration prefetchTimeout) {
+        this.jwksClient = jwksClient;
+        this.platformRegistry = platformRegistry;
+        this.timeSource = timeSource;
+        this.enabled = enabled;
+        this.validationIterations = validationIterations;
+        this.prefetchTimeout = prefetchTimeout;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread thread = new Thread(this::run, "provider-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the warmup has finished, or was disabled.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns how many of the synthetic tokens the warmup validated were accepted.
+     */
+    int getValidTokens() {
+        return validTokens;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        try {
+            Set<String> urls = new LinkedHashSet<>();
+            for (PlatformInfo platform : platformRegistry.getPlatforms()) {
+                urls.add(platform.jwksUrl());
+            }
+            int refreshed = jwksClient.prefetch(urls, prefetchTimeout);
+            long prefetchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            RSAKey key = new RSAKeyGenerator(2048).keyID("warmup").generate();
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                    new JWTClaimsSet.Builder()
+                            .issuer(WARMUP_PLATFORM)
+                            .audience("game-provider")
+                            .claim("game", WARMUP_GAME)
+                            .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+                            .build());
+            jwt.sign(new RSASSASigner(key));
+            String token = jwt.serialize();
+            TokenValidator validator = standInValidator(new JWKSet(key.toPublicJWK()));
+            int valid = 0;
+            for (int i = 0; i < validationIterations; i++) {
+                TokenValidationResult result = validator.validate(token, WARMUP_GAME);
+                if (result.error() == null) {
+                    result.permit().release();
+                    valid++;
+                }
+            }
+            validTokens = valid;
+            if (valid < validationIterations) {
+                LOG.warnf("Only %d of %d warmup tokens were valid", valid, validationIterations);
+            }
+            LOG.infof("Warmup finished in %d ms: refreshed %d of %d JWKS in %d ms, validated %d tokens; ready %d ms after JVM start",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    refreshed, urls.size(), prefetchMillis, valid,
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JOSEException | RuntimeException e) {
+            LOG.warn("Warmup failed, reporting ready anyway", e);
+        } finally {
+            complete = true;
+        }
+    }
+
+    /**
+     * Returns a validator that accepts the tokens of the stand-in platform, signed with a key of the given set.
+     */
+    private TokenValidator standInValidator(JWKSet keySet) {
+        PlatformInfo platform = new PlatformInfo(WARMUP_PLATFORM, WARMUP_JWKS_URL, Set.of(WARMUP_GAME),
+                PlatformQuota.UNLIMITED, null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ValidationMetrics metrics = new ValidationMetrics();
+        metrics.bindTo(meterRegistry);
+        Tracer tracer = new Tracer();
+        JwksClient keys = new JwksClient(Optional.empty(), Duration.ZERO, Duration.ofSeconds(30), Duration.ofMinutes(5),
+                5, Duration.ofSeconds(30), tracer, timeSource);
+        keys.bindTo(meterRegistry);
+        keys.seed(WARMUP_JWKS_URL, keySet, Duration.ofHours(1));
+        PlatformRegistry registry = new PlatformRegistry() {
+            @Override
+            public PlatformInfo getPlatformInfo(String platformId) {
+                return WARMUP_PLATFORM.equals(platformId) ? platform : null;
+            }
+
+            @Override
+            public Collection<PlatformInfo> getPlatforms() {
+                return List.of(platform);
+            }
+        };
+        return new TokenValidator(new TokenSignatureVerifier(keys, metrics, tracer), registry,
+                new QuotaEnforcer(), metrics, tracer, timeSource, new RevocationList());
+    }
+}
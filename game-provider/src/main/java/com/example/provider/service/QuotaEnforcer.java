@@ -0,0 +1,123 @@
+package com.example.provider.service;
+
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
+import com.example.provider.model.QuotaPermit;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * QuotaEnforcer applies the {@link PlatformQuota} of each platform. The request rate is limited
+ * with the generic cell rate algorithm, a token bucket that only stores the theoretical arrival
+ * time of the next request and is updated with a single compare-and-set; concurrency is limited
+ * with an atomic in-flight counter. Neither takes a lock nor allocates on the request path.
+ * The limiter state of a platform is replaced when its quota changes, e.g. after a registry reload; a reload
+ * that yields an equal quota keeps the state and the lookup stays on the lock-free path.
+ * <p>
+ * The platform of a request is only known from the issuer its token names, which anyone can forge
+ * until the signature has been verified. Requests are therefore charged only once their signature
+ * is valid; before that, {@link #isExhausted} sheds them without taking anything from the quota
+ * while the platform's budget is used up. The trade-off is that forged tokens naming a platform
+ * with quota left still cost a signature verification each, which the quota does not bound; they
+ * cannot, however, use up the budget of the platform they name.
+ */
+@ApplicationScoped
+public class QuotaEnforcer {
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Admits a request of the given platform if it is within the platform's quota.
+     *
+     * @param platformInfo the platform the request was issued by
+     * @return a permit to release once the request has been processed, or null if the quota is exceeded
+     */
+    public QuotaPermit tryAcquire(PlatformInfo platformInfo) {
+        PlatformQuota quota = platformInfo.quota();
+        if (!quota.isRateLimited() && !quota.isConcurrencyLimited()) {
+            return QuotaPermit.NONE;
+        }
+        Limiter limiter = limiters.get(platformInfo.platformId());
+        if (limiter == null || !limiter.quota.equals(quota)) {
+            limiter = limiters.compute(platformInfo.platformId(),
+                    (id, existing) -> (existing != null && existing.quota.equals(quota)) ? existing : new Limiter(quota));
+        }
+        return limiter.tryAcquire();
+    }
+
+    /**
+     * Tells whether a request of the given platform would currently be refused, without admitting it
+     * or otherwise changing the platform's quota.
+     *
+     * @param platformInfo the platform the request claims to be issued by
+     * @return true if the platform's rate or concurrency quota is used up
+     */
+    public boolean isExhausted(PlatformInfo platformInfo) {
+        Limiter limiter = limiters.get(platformInfo.platformId());
+        return limiter != null && limiter.quota.equals(platformInfo.quota()) && limiter.isExhausted();
+    }
+
+    private static final class Limiter implements QuotaPermit {
+
+        private final PlatformQuota quota;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Limiter(PlatformQuota quota) {
+            this.quota = quota;
+            this.intervalNanos = quota.isRateLimited() ? Math.max((long) (1_000_000_000L / quota.requestsPerSecond()), 1) : 0;
+            this.toleranceNanos = intervalNanos * quota.burst();
+        }
+
+        QuotaPermit tryAcquire() {
+            if (quota.isConcurrencyLimited() && inFlight.incrementAndGet() > quota.maxConcurrent()) {
+                inFlight.decrementAndGet();
+                return null;
+            }
+            if (quota.isRateLimited() && !tryConsume()) {
+                release();
+                return null;
+            }
+            return quota.isConcurrencyLimited() ? this : QuotaPermit.NONE;
+        }
+
+        boolean isExhausted() {
+            if (quota.isConcurrencyLimited() && inFlight.get() >= quota.maxConcurrent()) {
+                return true;
+            }
+            long now = System.nanoTime();
+            return quota.isRateLimited() && nextArrival(theoreticalArrival.get(), now) - now > toleranceNanos;
+        }
+
+        private long nextArrival(long tat, long now) {
+            return (tat - now < 0 ? now : tat) + intervalNanos;
+        }
+
+        private boolean tryConsume() {
+            long now = System.nanoTime();
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long next = nextArrival(tat, now);
+                if (next - now > toleranceNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void release() {
+            if (quota.isConcurrencyLimited()) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
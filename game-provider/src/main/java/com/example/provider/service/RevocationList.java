@@ -0,0 +1,76 @@
+package com.example.provider.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sessions and tokens revoked by each platform, as received from the platforms' revocation feeds.
+ * A token is revoked if its {@code jti} or its {@code sid} claim is listed for its issuer; IDs are only
+ * compared within the platform that published them. Every entry is kept until the time by which all
+ * tokens it matches have expired and is then dropped. Lookups take no lock, and a platform without
+ * revocations costs a single map lookup per validation.
+ */
+@ApplicationScoped
+public class RevocationList implements MeterBinder {
+
+    private final Map<String, Map<String, Long>> byPlatform = new ConcurrentHashMap<>();
+
+    /**
+     * Returns whether the platform has revoked the token with the given ID or session claim.
+     *
+     * @param platformId the issuer of the token
+     * @param jti the ID of the token, may be null
+     * @param sid the session claim of the token, may be null
+     */
+    public boolean isRevoked(String platformId, String jti, String sid) {
+        Map<String, Long> revoked = byPlatform.get(platformId);
+        if (revoked == null || revoked.isEmpty()) return false;
+        return (jti != null && revoked.containsKey(jti)) || (sid != null && revoked.containsKey(sid));
+    }
+
+    /**
+     * Adds a revocation of the platform.
+     *
+     * @param platformId the platform that published the revocation
+     * @param id the revoked token ID or session claim
+     * @param expiresAtMillis the time in epoch milliseconds by which every token matched has expired
+     */
+    public void add(String platformId, String id, long expiresAtMillis) {
+        byPlatform.computeIfAbsent(platformId, p -> new ConcurrentHashMap<>()).merge(id, expiresAtMillis, Math::max);
+    }
+
+    /**
+     * Drops the revocations whose tokens have all expired at the given time.
+     *
+     * @return the number of revocations dropped
+     */
+    public int removeExpired(long nowMillis) {
+        int removed = 0;
+        for (Map<String, Long> revoked : byPlatform.values()) {
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt < nowMillis);
+            removed += before - revoked.size();
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Long> revoked : byPlatform.values()) {
+            size += revoked.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("provider.revocations.active", this, RevocationList::size)
+                .description("Revoked sessions and tokens whose tokens may not have expired yet")
+                .register(registry);
+    }
+}
@@ -3,38 +3,59 @@ package com.example.provider.service;
 import com.example.provider.client.JwksClient;
 import com.example.provider.exception.JwksClientException;
 import com.example.provider.exception.TokenSignatureVerifierException;
+import com.example.provider.jfr.SignatureVerificationEvent;
 import com.example.provider.model.PlatformInfo;
+import com.example.provider.service.ValidationMetrics.Stage;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.Tracer;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.SignedJWT;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.security.interfaces.RSAPublicKey;
+import jakarta.inject.Inject;
 import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TokenSignatureVerifier is responsible for verifying the cryptographic signature
  * of signed JSON Web Tokens (JWTs) using public keys fetched from a JSON Web Key Set (JWKS).
  * This class leverages a JwksClient to retrieve the necessary JWKS for a given platform
  * and uses those keys to validate the signature of a received token. It supports retrieving
- * keys by the Key ID (kid) present in the token's header and falls back to using the
- * first available key in the key set if no matching key is found.
+ * keys by the Key ID (kid) present in the token's header; a token whose kid is not in the key set,
+ * even after the JwksClient refreshed it, fails verification. Only a token without a kid is verified
+ * with the first available key.
+ * The key lookup and the RSA verification are timed as separate stages in {@link ValidationMetrics}
+ * and emitted together as a {@link SignatureVerificationEvent} to Flight Recorder; the verification is
+ * traced as a span of its own.
+ * The verifier of a key, which holds the decoded public key, is built once per JWKS URL and key and reused
+ * until a refresh of the key set replaces the key; platforms that happen to use the same kid get verifiers of their own.
  */
 @ApplicationScoped
 public class TokenSignatureVerifier {
 
+    private static final int MAX_VERIFIERS = 1024;
+
+    private final Map<VerifierKey, KeyVerifier> verifiers = new ConcurrentHashMap<>();
     private final JwksClient jwksClient;
+    private final ValidationMetrics metrics;
+    private final Tracer tracer;
 
     /**
-     * Constructs a new TokenSignatureVerifier instance to verify JSON Web Token (JWT) signatures
-     * using public keys fetched from a JSON Web Key Set (JWKS).
+     * Constructs a new TokenSignatureVerifier instance that records the duration of the key lookup
+     * and of the signature verification and traces the verification.
      *
      * @param jwksClient the JwksClient instance
+     * @param metrics the ValidationMetrics instance receiving the stage timings
+     * @param tracer the Tracer instance recording the verification
      */
-    public TokenSignatureVerifier(JwksClient jwksClient) {
+    @Inject
+    public TokenSignatureVerifier(JwksClient jwksClient, ValidationMetrics metrics, Tracer tracer) {
         this.jwksClient = jwksClient;
+        this.metrics = metrics;
+        this.tracer = tracer;
     }
 
     /**
@@ -50,23 +71,73 @@ public class TokenSignatureVerifier {
      * @throws JOSEException if the signature verification process encounters an error
      */
     public boolean verifySignature(SignedJWT jwt, PlatformInfo platformInfo) throws TokenSignatureVerifierException, ParseException, JOSEException {
+        SignatureVerificationEvent event = new SignatureVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            RSAKey rsa = (RSAKey) selectJwk(jwt, platformInfo);
-            RSAPublicKey pub = rsa.toRSAPublicKey();
-            return jwt.verify(new RSASSAVerifier(pub));
+            JWK jwk = jwksClient.getKey(platformInfo.jwksUrl(), jwt.getHeader().getKeyID());
+            long lookedUp = System.nanoTime();
+            metrics.record(Stage.KEY_LOOKUP, lookedUp - start);
+            start = lookedUp;
+            if (!(jwk instanceof RSAKey rsa)) {
+                commit(event, platformInfo, jwt, false, false);
+                return false;
+            }
+            boolean verified;
+            try (Span span = tracer.startChildSpan("signature.verify")) {
+                verified = jwt.verify(verifier(platformInfo.jwksUrl(), rsa));
+                span.setAttribute("kid", rsa.getKeyID());
+            }
+            metrics.record(Stage.SIGNATURE, System.nanoTime() - start);
+            commit(event, platformInfo, jwt, true, verified);
+            return verified;
         } catch (JwksClientException e) {
             throw new TokenSignatureVerifierException();
         }
     }
 
-    private JWK selectJwk(SignedJWT jwt, PlatformInfo platformInfo) throws ParseException {
-        JWKSet jwkSet = jwksClient.fetch(platformInfo.jwksUrl());
-        String kid = jwt.getHeader().getKeyID();
-        JWK jwk = (kid != null) ? jwkSet.getKeyByKeyId(kid) : null;
-        if (jwk == null && !jwkSet.getKeys().isEmpty()) {
-            jwk = jwkSet.getKeys().get(0);
+    /**
+     * Returns the number of cached verifiers.
+     */
+    int getVerifierCount() {
+        return verifiers.size();
+    }
+
+    private RSASSAVerifier verifier(String jwksUrl, RSAKey rsa) throws JOSEException {
+        VerifierKey key = new VerifierKey(jwksUrl, (rsa.getKeyID() != null) ? rsa.getKeyID() : "");
+        KeyVerifier cached = verifiers.get(key);
+        if (cached != null && cached.key() == rsa) {
+            return cached.verifier();
+        }
+        if (verifiers.size() >= MAX_VERIFIERS) {
+            verifiers.clear();
+        }
+        RSASSAVerifier verifier = new RSASSAVerifier(rsa);
+        verifiers.put(key, new KeyVerifier(rsa, verifier));
+        return verifier;
+    }
+
+    /**
+     * The key set and kid a verifier is cached under.
+     */
+    private record VerifierKey(String jwksUrl, String kid) {
+    }
+
+    /**
+     * The verifier built for a key instance of a fetched key set.
+     */
+    private record KeyVerifier(RSAKey key, RSASSAVerifier verifier) {
+    }
+
+    private static void commit(SignatureVerificationEvent event, PlatformInfo platformInfo, SignedJWT jwt,
+                               boolean keyFound, boolean verified) {
+        if (event.shouldCommit()) {
+            event.url = platformInfo.jwksUrl();
+            event.kid = jwt.getHeader().getKeyID();
+            event.keyFound = keyFound;
+            event.verified = verified;
+            event.commit();
         }
-        return jwk;
     }
 
 }
@@ -1,23 +1,44 @@
 package com.example.provider.service;
 
 import com.example.provider.exception.TokenSignatureVerifierException;
+import com.example.provider.jfr.TokenValidationEvent;
 import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.QuotaPermit;
 import com.example.provider.model.TokenValidationResult;
+import com.example.provider.service.ValidationMetrics.Stage;
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import java.text.ParseException;
-import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 
 /**
  * The TokenValidator class is responsible for validating JSON Web Tokens (JWTs) used within the system.
  * It performs a series of checks on the token to ensure its authenticity, validity, and adherence to
  * platform-specific constraints. These validations include signature verification, issuer checks,
  * expiration checks, audience validation, game request validation, and platform registration checks.
+ * The request is charged to the rate and concurrency quota of the token's platform once its signature
+ * has been verified; a platform whose quota is already used up is refused before the signature check.
+ * See {@link QuotaEnforcer} for why forged tokens are not charged.
+ * Tokens in the standard profile and in the compact profile, which differ in the audience value, the
+ * jti encoding and the header, are both accepted.
  * Validation results are encapsulated in a TokenValidationResult object, which communicates either
  * a validation error or the successfully extracted claims contained in the token.
+ * The duration of every stage and the result of every validation are recorded in {@link ValidationMetrics};
+ * every validation is also emitted as a {@link TokenValidationEvent} to Flight Recorder.
+ * A traced request without a trace context of its own continues the trace carried in the token's
+ * {@code traceparent} claim.
+ * Expiry is checked in epoch milliseconds against the injected TimeSource.
+ * A token whose {@code jti} or {@code sid} claim its platform has revoked, e.g. because the player
+ * logged out, is rejected with {@code revoked_token}; revocations are looked up in the
+ * {@link RevocationList}, which is filled from the platforms' feeds in the background.
  */
 @ApplicationScoped
 public class TokenValidator {
@@ -29,21 +50,44 @@ public class TokenValidator {
     private static final String INVALID_AUDIENCE = "invalid_audience";
     private static final String GAME_REQUEST_MISMATCH = "game_request_mismatch";
     private static final String GAME_NOT_ALLOWED_FOR_PLATFORM = "game_not_allowed_for_platform";
+    private static final String QUOTA_EXCEEDED = "quota_exceeded";
+    private static final String REVOKED_TOKEN = "revoked_token";
+    private static final String AUDIENCE = "game-provider";
+    private static final String COMPACT_AUDIENCE = "gp";
 
     private final TokenSignatureVerifier tokenSignatureVerifier;
     private final PlatformRegistry platformRegistry;
+    private final QuotaEnforcer quotaEnforcer;
+    private final ValidationMetrics metrics;
+    private final Tracer tracer;
+    private final TimeSource timeSource;
+    private final RevocationList revocationList;
 
     /**
-     * Constructs a new instance of TokenValidator for handling token validation.
+     * Constructs a new instance of TokenValidator that rejects tokens revoked by their platform.
      *
      * @param tokenSignatureVerifier An instance of {@link TokenSignatureVerifier} used to verify
      *        the cryptographic signature of JWTs against the appropriate key set.
      * @param platformRegistry An instance of {@link PlatformRegistry} responsible for retrieving platform-related
      *        information associated with the token being validated.
+     * @param quotaEnforcer An instance of {@link QuotaEnforcer} that admits a request only within the
+     *        rate and concurrency quota of the token's platform.
+     * @param metrics The {@link ValidationMetrics} receiving stage timings and validation results.
+     * @param tracer The {@link Tracer} whose current span is moved into the token's trace.
+     * @param timeSource The {@link TimeSource} the token's expiration time is compared with.
+     * @param revocationList The {@link RevocationList} holding the sessions and tokens revoked by each platform.
      */
-    public TokenValidator(TokenSignatureVerifier tokenSignatureVerifier, PlatformRegistry platformRegistry) {
+    @Inject
+    public TokenValidator(TokenSignatureVerifier tokenSignatureVerifier, PlatformRegistry platformRegistry,
+                          QuotaEnforcer quotaEnforcer, ValidationMetrics metrics, Tracer tracer,
+                          TimeSource timeSource, RevocationList revocationList) {
         this.tokenSignatureVerifier = tokenSignatureVerifier;
         this.platformRegistry = platformRegistry;
+        this.quotaEnforcer = quotaEnforcer;
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.timeSource = timeSource;
+        this.revocationList = revocationList;
     }
 
     /**
@@ -56,37 +100,116 @@ public class TokenValidator {
      * @param requiredGame The unique identifier of the game for which the token is being validated.
      * @return A {@link TokenValidationResult} containing an error message if validation fails, or the
      *         associated {@link JWTClaimsSet} if the token is valid. If validation fails, the claims will be null.
+     *         A valid result carries the platform's quota permit, which the caller must release once the
+     *         request has been processed. A platform over its quota gets {@code quota_exceeded} before the
+     *         signature is verified.
      */
     public TokenValidationResult validate(String token, String requiredGame) {
+        TokenValidationEvent event = new TokenValidationEvent();
+        event.begin();
+        TokenValidationResult result = validateAndTime(token, requiredGame);
+        metrics.countResult(result.error());
+        tracer.currentSpan().setAttribute("error", result.error());
+        if (event.shouldCommit()) {
+            event.game = requiredGame;
+            event.issuer = (result.claims() != null) ? result.claims().getIssuer() : null;
+            event.error = result.error();
+            event.commit();
+        }
+        return result;
+    }
+
+    private void continueTrace(JWTClaimsSet claimsSet) {
+        Span span = tracer.currentSpan();
+        if (!span.isRecording()) return;
+        Object traceparent = claimsSet.getClaim("traceparent");
+        span.continueTrace(TraceContext.parse((traceparent instanceof String s) ? s : null));
+        span.setAttribute("issuer", claimsSet.getIssuer());
+    }
+
+    private TokenValidationResult validateAndTime(String token, String requiredGame) {
+        long start = System.nanoTime();
+        SignedJWT jwt;
+        JWTClaimsSet claimsSet;
         try {
-            SignedJWT jwt = SignedJWT.parse(token);
-            JWTClaimsSet claimsSet = jwt.getJWTClaimsSet();
-
-            String error = validateToken(requiredGame, claimsSet, jwt);
-            if (error != null) {
-                return new TokenValidationResult(error, null);
-            } else {
-                return new TokenValidationResult(null, claimsSet);
-            }
-        } catch (ParseException | JOSEException e) {
+            jwt = SignedJWT.parse(token);
+            claimsSet = jwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            lap(Stage.PARSE, start);
             return new TokenValidationResult(INVALID_TOKEN, null);
+        }
+        start = lap(Stage.PARSE, start);
+        continueTrace(claimsSet);
+
+        String issuer = claimsSet.getIssuer();
+        PlatformInfo platformInfo = (issuer != null) ? platformRegistry.getPlatformInfo(issuer) : null;
+        start = lap(Stage.ISSUER, start);
+        if (platformInfo == null) {
+            return new TokenValidationResult(UNKNOWN_ISSUER, null);
+        }
+        boolean exhausted = quotaEnforcer.isExhausted(platformInfo);
+        long quotaNanos = System.nanoTime() - start;
+        if (exhausted) {
+            metrics.record(Stage.QUOTA, quotaNanos);
+            return new TokenValidationResult(QUOTA_EXCEEDED, null);
+        }
+
+        String error;
+        try {
+            error = verifySignature(jwt, platformInfo) ? null : INVALID_TOKEN;
+        } catch (ParseException | JOSEException e) {
+            error = INVALID_TOKEN;
         } catch (TokenSignatureVerifierException e) {
-            return new TokenValidationResult(INTERNAL_ERROR, null);
+            error = INTERNAL_ERROR;
+        }
+        if (error != null) {
+            metrics.record(Stage.QUOTA, quotaNanos);
+            return new TokenValidationResult(error, null);
         }
+
+        start = System.nanoTime();
+        QuotaPermit permit = quotaEnforcer.tryAcquire(platformInfo);
+        metrics.record(Stage.QUOTA, quotaNanos + System.nanoTime() - start);
+        if (permit == null) {
+            return new TokenValidationResult(QUOTA_EXCEEDED, null);
+        }
+        return validateWithinQuota(requiredGame, claimsSet, platformInfo, permit);
     }
 
-    private String validateToken(String requiredGame, JWTClaimsSet claimsSet, SignedJWT jwt)
-            throws ParseException, JOSEException {
-        String issuer = claimsSet.getIssuer();
-        PlatformInfo platformInfo = platformRegistry.getPlatformInfo(issuer);
-        if (issuer == null) {
-            return UNKNOWN_ISSUER;
-        } else if (platformInfo == null) {
-            return UNKNOWN_ISSUER;
-        } else if (!verifySignature(jwt, platformInfo)) {
-            return INVALID_TOKEN;
-        } else if (isExpired(claimsSet)) {
+    /**
+     * Records the time since {@code start} for the stage and returns the current time.
+     */
+    private long lap(Stage stage, long start) {
+        long now = System.nanoTime();
+        metrics.record(stage, now - start);
+        return now;
+    }
+
+    private TokenValidationResult validateWithinQuota(String requiredGame, JWTClaimsSet claimsSet,
+                                                      PlatformInfo platformInfo, QuotaPermit permit) {
+        long start = System.nanoTime();
+        String error;
+        try {
+            error = validateClaims(requiredGame, claimsSet, platformInfo);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        } finally {
+            lap(Stage.CLAIMS, start);
+        }
+        if (error != null) {
+            permit.release();
+            return new TokenValidationResult(error, null);
+        } else {
+            return new TokenValidationResult(null, claimsSet, permit);
+        }
+    }
+
+    private String validateClaims(String requiredGame, JWTClaimsSet claimsSet, PlatformInfo platformInfo) {
+        if (isExpired(claimsSet)) {
             return EXPIRED_TOKEN;
+        } else if (isRevoked(claimsSet, platformInfo)) {
+            return REVOKED_TOKEN;
         } else if (!isAudienceMatches(claimsSet)) {
             return INVALID_AUDIENCE;
         } else if (!isGameRequestMatches(claimsSet, requiredGame)) {
@@ -103,7 +226,13 @@ public class TokenValidator {
 
     private boolean isExpired(JWTClaimsSet claimsSet) {
         Date exp = claimsSet.getExpirationTime();
-        return exp == null || exp.toInstant().isBefore(Instant.now());
+        return exp == null || exp.getTime() < timeSource.currentTimeMillis();
+    }
+
+    private boolean isRevoked(JWTClaimsSet claimsSet, PlatformInfo platformInfo) {
+        Object sid = claimsSet.getClaim("sid");
+        return revocationList.isRevoked(platformInfo.platformId(), claimsSet.getJWTID(),
+                (sid instanceof String s) ? s : null);
     }
 
     private boolean isGameRequestMatches(JWTClaimsSet claimsSet, String requiredGame) {
@@ -117,6 +246,7 @@ public class TokenValidator {
     }
 
     private boolean isAudienceMatches(JWTClaimsSet claimsSet) {
-        return claimsSet.getAudience().contains("game-provider");
+        List<String> audience = claimsSet.getAudience();
+        return audience.contains(AUDIENCE) || audience.contains(COMPACT_AUDIENCE);
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.example.provider.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per stage of the token validation and counters per validation result, so that
+ * a slow /play can be attributed to parsing, key lookup, RSA verification or the claim checks.
+ * The meters are created once when the registry is bound; recording a stage is a lookup in a fixed
+ * array and a timer update, and counting a result increments a pre-allocated adder. Before the
+ * registry is bound, stage timings are dropped. Synthetic validations, e.g. during the startup
+ * warmup, record into an instance of their own so that requests served meanwhile keep their metrics.
+ */
+@ApplicationScoped
+public class ValidationMetrics implements MeterBinder {
+
+    /**
+     * The stages of a token validation, in the order in which they run.
+     */
+    public enum Stage {
+        PARSE("parse"),
+        ISSUER("issuer"),
+        QUOTA("quota"),
+        KEY_LOOKUP("key_lookup"),
+        SIGNATURE("signature"),
+        CLAIMS("claims");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    static final String OK = "ok";
+    static final String OTHER = "other";
+    private static final String[] RESULTS = {
+            OK, "unknown_issuer", "invalid_token", "expired_token", "internal_error", "invalid_audience",
+            "game_request_mismatch", "game_not_allowed_for_platform", "quota_exceeded", "revoked_token", OTHER
+    };
+
+    private final Map<String, LongAdder> results;
+    private volatile Timer[] stageTimers;
+
+    public ValidationMetrics() {
+        Map<String, LongAdder> adders = new HashMap<>();
+        for (String result : RESULTS) {
+            adders.put(result, new LongAdder());
+        }
+        this.results = Map.copyOf(adders);
+    }
+
+    /**
+     * Records the duration of a validation stage.
+     *
+     * @param stage the stage that ran
+     * @param nanos its duration in nanoseconds
+     */
+    public void record(Stage stage, long nanos) {
+        Timer[] timers = stageTimers;
+        if (timers != null) {
+            timers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts the outcome of a validation.
+     *
+     * @param error the error code of the validation, or null if the token was valid
+     */
+    public void countResult(String error) {
+        LongAdder adder = results.get(error != null ? error : OK);
+        (adder != null ? adder : results.get(OTHER)).increment();
+    }
+
+    public long getCount(String result) {
+        LongAdder adder = results.get(result);
+        return (adder != null) ? adder.sum() : 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Stage[] stages = Stage.values();
+        Timer[] timers = new Timer[stages.length];
+        for (Stage stage : stages) {
+            timers[stage.ordinal()] = Timer.builder("provider.token.validation.stage")
+                    .description("Duration of a stage of the /play token validation")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(500))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(registry);
+        }
+        stageTimers = timers;
+        for (String result : RESULTS) {
+            FunctionCounter.builder("provider.token.validation.results", results.get(result), LongAdder::sum)
+                    .description("Token validations by result: ok or the error code")
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.provider.service.impl;
+
+import com.example.provider.model.GameDictionary;
+import com.example.provider.model.GameSet;
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.service.PlatformRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry backed by a JSON file that can be edited while the provider is running.
+ * The file contains an array of platforms, each with {@code platformId}, {@code jwksUrl},
+ * {@code registeredGames} and an optional {@code quota} and {@code revocationsUrl}. It is polled for changes; a changed file is parsed into a new immutable
+ * snapshot that replaces the previous one in a single volatile write, so lookups never lock and
+ * never see a partially applied update. A file that cannot be parsed is rejected and the previous
+ * snapshot stays in effect.
+ * Selected at build time with {@code provider.registry.source=file}.
+ */
+@Startup
+@ApplicationScoped
+@IfBuildProperty(name = "provider.registry.source", stringValue = "file")
+public class FilePlatformRegistryImpl implements PlatformRegistry {
+
+    private static final Logger LOG = Logger.getLogger(FilePlatformRegistryImpl.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final Duration pollInterval;
+    private ScheduledExecutorService scheduler;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), null);
+
+    @Inject
+    public FilePlatformRegistryImpl(ObjectMapper objectMapper,
+                                    @ConfigProperty(name = "provider.registry.file", defaultValue = "platforms.json") String file,
+                                    @ConfigProperty(name = "provider.registry.poll-interval", defaultValue = "PT5S") Duration pollInterval) {
+        this.objectMapper = objectMapper;
+        this.file = Path.of(file);
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Loads the file and starts polling it. A missing or invalid file at startup is a configuration
+     * error and fails the start.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load platform registry from " + file, e);
+        }
+        if (!pollInterval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "platform-registry-reload");
+                t.setDaemon(true);
+                return t;
+            });
+            long millis = pollInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::reloadIfChanged, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    @Override
+    public PlatformInfo getPlatformInfo(String platformId) {
+        return snapshot.platforms().get(platformId);
+    }
+
+    @Override
+    public Collection<PlatformInfo> getPlatforms() {
+        return snapshot.platforms().values();
+    }
+
+    /**
+     * Parses the file and swaps in the resulting snapshot.
+     *
+     * @throws IOException if the file cannot be read or does not describe a valid set of platforms
+     */
+    public void reload() throws IOException {
+        long start = System.nanoTime();
+        FileVersion version = FileVersion.of(file);
+        PlatformInfo[] entries = objectMapper.readValue(file.toFile(), PlatformInfo[].class);
+        List<Collection<String>> gameIds = new ArrayList<>(entries.length);
+        for (PlatformInfo entry : entries) {
+            if (entry == null || entry.platformId() == null || entry.jwksUrl() == null) {
+                throw new IOException("Every platform in " + file + " needs a platformId and a jwksUrl");
+            }
+            gameIds.add(entry.registeredGames() != null ? entry.registeredGames() : List.of());
+        }
+        GameDictionary games = GameDictionary.of(gameIds);
+        Map<String, PlatformInfo> platforms = new HashMap<>(entries.length * 2);
+        for (int i = 0; i < entries.length; i++) {
+            PlatformInfo entry = entries[i];
+            PlatformInfo info = new PlatformInfo(entry.platformId(), entry.jwksUrl(), GameSet.of(games, gameIds.get(i)), entry.quota(),
+                    entry.revocationsUrl());
+            if (platforms.put(entry.platformId(), info) != null) {
+                throw new IOException("Duplicate platform " + entry.platformId() + " in " + file);
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(platforms), version);
+        LOG.infof("Loaded %d platforms from %s in %d us", platforms.size(), file,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    void reloadIfChanged() {
+        try {
+            if (!FileVersion.of(file).equals(snapshot.version())) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf("Keeping previous platform registry, reloading %s failed: %s", file, e.getMessage());
+        }
+    }
+
+    private record Snapshot(Map<String, PlatformInfo> platforms, FileVersion version) {
+    }
+
+    private record FileVersion(long lastModifiedMillis, long size) {
+        static FileVersion of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileVersion(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+    }
+}
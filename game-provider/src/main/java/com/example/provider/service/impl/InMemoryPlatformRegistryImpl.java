@@ -1,7 +1,11 @@
 package com.example.provider.service.impl;
 
+import com.example.provider.model.GameDictionary;
+import com.example.provider.model.GameSet;
 import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
 import com.example.provider.service.PlatformRegistry;
+import io.quarkus.arc.properties.UnlessBuildProperty;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.util.*;
@@ -9,23 +13,32 @@ import java.util.*;
 /**
  * Injectable in-memory registry for POC.
  * Two platforms registered for local testing.
+ * Used unless {@code provider.registry.source=file} selects {@link FilePlatformRegistryImpl}.
  */
 @ApplicationScoped
+@UnlessBuildProperty(name = "provider.registry.source", stringValue = "file", enableIfMissing = true)
 public class InMemoryPlatformRegistryImpl implements PlatformRegistry {
 
     private static final Map<String, PlatformInfo> registry = new HashMap<>();
 
     // populate statically (simple and predictable for the test task)
     static {
+        Set<String> platformAGames = new HashSet<>(Arrays.asList("game-roulette", "game-slots"));
+        Set<String> platformBGames = new HashSet<>(Collections.singletonList("game-slots"));
+        GameDictionary games = GameDictionary.of(List.of(platformAGames, platformBGames));
         registry.put("platform-A", new PlatformInfo(
                 "platform-A",
                 "http://localhost:8081/.well-known/jwks.json",
-                new HashSet<>(Arrays.asList("game-roulette", "game-slots"))
+                GameSet.of(games, platformAGames),
+                null,
+                "http://localhost:8081/revocations/platform-A"
         ));
         registry.put("platform-B", new PlatformInfo(
                 "platform-B",
-                "http://localhost:8081/.well-known/jwks.json",
-                new HashSet<>(Collections.singletonList("game-slots"))
+                "http://localhost:8081/.well-known/jwks/platform-B.json",
+                GameSet.of(games, platformBGames),
+                new PlatformQuota(50, 100, 16),
+                "http://localhost:8081/revocations/platform-B"
         ));
     }
 
@@ -39,4 +52,9 @@ public class InMemoryPlatformRegistryImpl implements PlatformRegistry {
     public PlatformInfo getPlatformInfo(String platformId) {
         return registry.get(platformId);
     }
+
+    @Override
+    public Collection<PlatformInfo> getPlatforms() {
+        return Collections.unmodifiableCollection(registry.values());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.provider.time;
+
+import com.example.common.time.CoarseTimeSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+/**
+ * Produces the time source of the game-provider from {@code provider.clock.resolution} and stops its ticker on shutdown.
+ */
+@ApplicationScoped
+public class TimeSourceProducer {
+
+    @Produces
+    @Singleton
+    CoarseTimeSource timeSource(@ConfigProperty(name = "provider.clock.resolution", defaultValue = "PT0.01S") Duration resolution) {
+        return new CoarseTimeSource(resolution);
+    }
+
+    void close(@Disposes CoarseTimeSource timeSource) {
+        timeSource.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.provider.tracing;
+
+import com.example.common.tracing.FileSpanExporter;
+import com.example.common.tracing.SpanExporter;
+import com.example.common.tracing.Tracer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Produces the {@link Tracer} of the game-provider from the {@code provider.tracing.*} configuration and
+ * exports the spans still queued on shutdown.
+ */
+@ApplicationScoped
+public class TracerProducer {
+
+    static final String SERVICE = "game-provider";
+
+    @Produces
+    @Singleton
+    Tracer tracer(@ConfigProperty(name = "provider.tracing.enabled", defaultValue = "false") boolean enabled,
+                  @ConfigProperty(name = "provider.tracing.file") Optional<String> file,
+                  @ConfigProperty(name = "provider.tracing.queue-size", defaultValue = "2048") int queueSize,
+                  @ConfigProperty(name = "provider.tracing.batch-size", defaultValue = "256") int batchSize,
+                  @ConfigProperty(name = "provider.tracing.flush-interval", defaultValue = "PT1S") Duration flushInterval) {
+        SpanExporter exporter = file.<SpanExporter>map(f -> new FileSpanExporter(Path.of(f), SERVICE)).orElse(null);
+        return new Tracer("provider", enabled, exporter, queueSize, batchSize, flushInterval);
+    }
+
+    void close(@Disposes Tracer tracer) throws InterruptedException {
+        if (tracer.isEnabled()) tracer.flush(Duration.ofSeconds(2));
+    }
+}
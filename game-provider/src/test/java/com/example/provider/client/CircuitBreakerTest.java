@@ -0,0 +1,54 @@
+package com.example.provider.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire(), "Circuit should stay closed below the threshold");
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldResetFailureCountOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldAdmitSingleProbeWhenHalfOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquire(), "First caller after the open duration should probe");
+        assertFalse(breaker.tryAcquire(), "Concurrent callers should be rejected while probing");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ZERO);
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "A single failed probe should reopen the circuit");
+    }
+}
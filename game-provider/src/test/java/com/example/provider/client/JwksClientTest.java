@@ -0,0 +1,343 @@
+package com.example.provider.client;
+
+import com.example.provider.exception.JwksClientException;
+import com.example.common.time.FakeTimeSource;
+import com.example.common.time.TimeSource;
+import com.example.common.tracing.Tracer;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwksClientTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+    private String jwksUrl;
+    private volatile String cacheControl;
+    private volatile int failureStatus;
+    private volatile String etag = ETAG;
+    private volatile byte[] body;
+    private volatile long delayMillis;
+    private final List<String> ifNoneMatchSeen = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        body = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jwks.json", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchSeen.add(ifNoneMatch);
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failureStatus != 0) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (cacheControl != null) exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        jwksUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/jwks.json";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldServeFromCacheWithinMaxAge() throws Exception {
+        cacheControl = "max-age=60";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+
+        JWKSet first = client.fetch(jwksUrl);
+        JWKSet second = client.fetch(jwksUrl);
+
+        assertSame(first, second);
+        assertEquals(1, ifNoneMatchSeen.size(), "Only one request should reach the server");
+        assertNull(ifNoneMatchSeen.get(0), "First request should be unconditional");
+    }
+
+    @Test
+    void shouldRevalidateOnceMaxAgeHasPassed() throws Exception {
+        cacheControl = "max-age=60";
+        FakeTimeSource time = new FakeTimeSource();
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 5, Duration.ofSeconds(30), new Tracer(), time);
+        client.fetch(jwksUrl);
+
+        time.advance(Duration.ofSeconds(59));
+        client.fetch(jwksUrl);
+        assertEquals(1, ifNoneMatchSeen.size(), "The key set should be cached for its max-age");
+
+        time.advance(Duration.ofSeconds(2));
+        client.fetch(jwksUrl);
+        assertEquals(2, ifNoneMatchSeen.size(), "An expired key set should be revalidated");
+        assertEquals(ETAG, ifNoneMatchSeen.get(1));
+    }
+
+    @Test
+    void shouldStopServingStaleKeySetAfterMaxStale() throws Exception {
+        cacheControl = "max-age=60";
+        FakeTimeSource time = new FakeTimeSource();
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 100, Duration.ofSeconds(30), new Tracer(), time);
+        client.fetch(jwksUrl);
+        failureStatus = 500;
+
+        time.advance(Duration.ofMinutes(30));
+        assertNotNull(client.fetch(jwksUrl), "A stale key set should be served within max-stale");
+        time.advance(Duration.ofMinutes(31));
+
+        assertThrows(JwksClientException.class, () -> client.fetch(jwksUrl));
+    }
+
+    @Test
+    void shouldRecordCacheAndRefreshMetricsPerUrl() throws Exception {
+        cacheControl = "max-age=60";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        client.bindTo(registry);
+
+        client.fetch(jwksUrl);
+        client.fetch(jwksUrl);
+        client.fetch(jwksUrl);
+
+        assertEquals(2, registry.get("provider.jwks.cache.requests").tags("url", jwksUrl, "result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("provider.jwks.cache.requests").tags("url", jwksUrl, "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("provider.jwks.refresh").tags("url", jwksUrl, "outcome", "updated").timer().count());
+        assertEquals(0, registry.get("provider.jwks.refresh").tags("url", jwksUrl, "outcome", "failed").timer().count());
+    }
+
+    @Test
+    void shouldRevalidateWithEtagAndKeepKeysOnNotModified() throws Exception {
+        cacheControl = "max-age=0";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+
+        JWKSet first = client.fetch(jwksUrl);
+        JWKSet second = client.fetch(jwksUrl);
+
+        assertSame(first, second, "304 should keep the cached key set");
+        assertEquals(2, ifNoneMatchSeen.size());
+        assertEquals(ETAG, ifNoneMatchSeen.get(1), "Revalidation should send the cached ETag");
+        assertNotNull(second.getKeyByKeyId("kid-1"));
+    }
+
+    @Test
+    void shouldHonourNoCacheDirective() throws Exception {
+        cacheControl = "no-cache";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+
+        client.fetch(jwksUrl);
+        client.fetch(jwksUrl);
+
+        assertEquals(2, ifNoneMatchSeen.size(), "no-cache should revalidate on every fetch");
+    }
+
+    @Test
+    void shouldServeSnapshotAfterRestartWhenPlatformIsDown(@TempDir Path dir) throws Exception {
+        cacheControl = "max-age=0";
+        client(Optional.of(dir.toString()), Duration.ofHours(1)).fetch(jwksUrl);
+        server.stop(0);
+
+        JwksClient restarted = client(Optional.of(dir.toString()), Duration.ofHours(1));
+        JWKSet jwkSet = restarted.fetch(jwksUrl);
+
+        assertNotNull(jwkSet.getKeyByKeyId("kid-1"), "Snapshot should be served while the platform is down");
+    }
+
+    @Test
+    void shouldFailWhenSnapshotIsTooStale(@TempDir Path dir) throws Exception {
+        cacheControl = "max-age=0";
+        client(Optional.of(dir.toString()), Duration.ZERO).fetch(jwksUrl);
+        server.stop(0);
+
+        JwksClient restarted = client(Optional.of(dir.toString()), Duration.ZERO);
+
+        assertThrows(JwksClientException.class, () -> restarted.fetch(jwksUrl));
+    }
+
+    @Test
+    void shouldPrefetchIntoCache() throws Exception {
+        cacheControl = "max-age=60";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+
+        int refreshed = client.prefetch(List.of(jwksUrl, "http://127.0.0.1:1/unreachable"), Duration.ofSeconds(5));
+        client.fetch(jwksUrl);
+
+        assertEquals(1, refreshed, "Only the reachable URL should be refreshed");
+        assertEquals(1, ifNoneMatchSeen.size(), "Fetch after prefetch should be served from the cache");
+    }
+
+    @Test
+    void shouldRefreshOnceForUnknownKidAndRememberIt() throws Exception {
+        cacheControl = "max-age=60";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+        client.fetch(jwksUrl);
+
+        assertNull(client.getKey(jwksUrl, "kid-unknown"));
+        assertNull(client.getKey(jwksUrl, "kid-unknown"));
+        assertNull(client.getKey(jwksUrl, "kid-other"));
+
+        assertEquals(2, ifNoneMatchSeen.size(), "Only the first miss should refresh within the interval");
+    }
+
+    @Test
+    void shouldFindKeyPublishedAfterLastFetch() throws Exception {
+        cacheControl = "max-age=60";
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+        client.fetch(jwksUrl);
+        RSAKey next = new RSAKeyGenerator(2048).keyID("kid-2").generate();
+        body = new JWKSet(next.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        etag = "\"v2\"";
+
+        assertNotNull(client.getKey(jwksUrl, "kid-2"), "Unknown kid should trigger a refresh");
+        assertEquals(2, ifNoneMatchSeen.size());
+    }
+
+    @Test
+    void shouldNotFallBackToFirstKeyForUnknownKid() throws Exception {
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+
+        assertNull(client.getKey(jwksUrl, "kid-unknown"));
+        assertNotNull(client.getKey(jwksUrl, null), "A token without kid should use the first key");
+    }
+
+    @Test
+    void shouldStopCallingFailingEndpointOnceCircuitIsOpen() throws Exception {
+        cacheControl = "max-age=0";
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 2, Duration.ofMinutes(1), new Tracer(), TimeSource.SYSTEM);
+        client.fetch(jwksUrl);
+        failureStatus = 500;
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(client.fetch(jwksUrl).getKeyByKeyId("kid-1"), "Stale key set should be served");
+        }
+
+        assertEquals(3, ifNoneMatchSeen.size(), "Only the failures up to the threshold should reach the server");
+    }
+
+    @Test
+    void shouldProbeAgainAfterOpenDuration() throws Exception {
+        cacheControl = "max-age=0";
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 1, Duration.ofMillis(50), new Tracer(), TimeSource.SYSTEM);
+        client.fetch(jwksUrl);
+        failureStatus = 500;
+        client.fetch(jwksUrl);
+        failureStatus = 0;
+
+        Thread.sleep(100);
+        client.fetch(jwksUrl);
+        client.fetch(jwksUrl);
+
+        assertEquals(4, ifNoneMatchSeen.size(), "A successful probe should close the circuit");
+    }
+
+    @Test
+    void shouldMergeConcurrentRefreshesOfAnExpiredKeySet() throws Exception {
+        cacheControl = "max-age=60";
+        FakeTimeSource time = new FakeTimeSource();
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 5, Duration.ofSeconds(30), new Tracer(), time);
+        JWKSet initial = client.fetch(jwksUrl);
+        time.advance(Duration.ofMinutes(2));
+        delayMillis = 300;
+
+        List<JWKSet> served = fetchConcurrently(client, 8);
+
+        assertEquals(2, ifNoneMatchSeen.size(), "Lookups arriving during a refresh should not start another one");
+        assertEquals(8, served.size());
+        assertTrue(served.contains(initial), "Lookups arriving during the refresh should be served the cached key set");
+    }
+
+    @Test
+    void shouldLetConcurrentFirstLookupsWaitForOneRefresh() throws Exception {
+        JwksClient client = client(Optional.empty(), Duration.ofHours(6));
+        delayMillis = 300;
+
+        List<JWKSet> served = fetchConcurrently(client, 8);
+
+        assertEquals(1, ifNoneMatchSeen.size(), "Lookups without a cached key set should wait for the refresh in flight");
+        assertEquals(8, served.size());
+        assertEquals(1, served.stream().distinct().count(), "Every lookup should get the refreshed key set");
+    }
+
+    @Test
+    void shouldServeSeededKeySetWithoutFetching() throws Exception {
+        FakeTimeSource time = new FakeTimeSource();
+        JwksClient client = new JwksClient(Optional.empty(), Duration.ZERO, Duration.ofSeconds(30),
+                Duration.ofMinutes(5), 5, Duration.ofSeconds(30), new Tracer(), time);
+        RSAKey key = new RSAKeyGenerator(2048).keyID("seeded").generate();
+
+        client.seed(jwksUrl, new JWKSet(key.toPublicJWK()), Duration.ofMinutes(1));
+
+        assertEquals(key.toPublicJWK(), client.getKey(jwksUrl, "seeded"));
+        assertTrue(ifNoneMatchSeen.isEmpty(), "A seeded key set should be served from the cache");
+        time.advance(Duration.ofMinutes(2));
+        assertNull(client.getKey(jwksUrl, "seeded"));
+        assertFalse(ifNoneMatchSeen.isEmpty(), "An expired seeded key set should be refreshed");
+    }
+
+    private List<JWKSet> fetchConcurrently(JwksClient client, int threads) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<JWKSet> served = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    served.add(client.fetch(jwksUrl));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return served;
+    }
+
+    private static JwksClient client(Optional<String> snapshotDir, Duration maxStale) {
+        return new JwksClient(snapshotDir, maxStale, Duration.ofSeconds(30), Duration.ofMinutes(5), 5, Duration.ofSeconds(30),
+                new Tracer(), TimeSource.SYSTEM);
+    }
+}
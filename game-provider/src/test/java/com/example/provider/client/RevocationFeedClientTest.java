@@ -0,0 +1,105 @@
+package com.example.provider.client;
+
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.service.PlatformRegistry;
+import com.example.provider.service.RevocationList;
+import com.example.common.time.FakeTimeSource;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationFeedClientTest {
+
+    private final FakeTimeSource clock = new FakeTimeSource(1_000_000);
+    private final RevocationList revocationList = new RevocationList();
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private volatile List<String> pages = List.of();
+    private volatile int status = 200;
+    private HttpServer server;
+    private PlatformInfo platform;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/revocations/platform-A", exchange -> {
+            queries.add(exchange.getRequestURI().getQuery());
+            int page = Math.min(queries.size() - 1, pages.size() - 1);
+            byte[] body = (status == 200) ? pages.get(page).getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.sendResponseHeaders(status, (body.length > 0) ? body.length : -1);
+            if (body.length > 0) exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        platform = new PlatformInfo("platform-A", "http://127.0.0.1/jwks.json", Set.of("game-slots"), null,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/revocations/platform-A");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReadPagesUntilCaughtUpAndContinueFromCursor() {
+        long exp = clock.currentTimeMillis() + 60_000;
+        pages = List.of(
+                "{\"epoch\":\"e1\",\"cursor\":1,\"more\":true,\"revocations\":[{\"sid\":\"sid-1\",\"exp\":" + exp + "}]}",
+                "{\"epoch\":\"e1\",\"cursor\":2,\"more\":false,\"revocations\":[{\"jti\":\"jti-2\",\"exp\":" + exp + "}]}",
+                "{\"epoch\":\"e1\",\"cursor\":2,\"more\":false,\"revocations\":[]}");
+        RevocationFeedClient client = newClient();
+
+        client.pollAll();
+
+        assertTrue(revocationList.isRevoked("platform-A", null, "sid-1"));
+        assertTrue(revocationList.isRevoked("platform-A", "jti-2", null));
+        assertFalse(revocationList.isRevoked("platform-B", null, "sid-1"));
+        assertEquals(List.of("after=0&limit=100", "after=1&limit=100&epoch=e1"), queries);
+
+        client.pollAll();
+
+        assertEquals("after=2&limit=100&epoch=e1", queries.get(2));
+        clock.advance(Duration.ofSeconds(61));
+        client.pollAll();
+        assertEquals(0, revocationList.size(), "Expired revocations should be dropped");
+    }
+
+    @Test
+    void shouldKeepRevocationsWhileFeedIsUnreachable() {
+        pages = List.of("{\"epoch\":\"e1\",\"cursor\":1,\"more\":false,\"revocations\":[{\"sid\":\"sid-1\",\"exp\":"
+                + (clock.currentTimeMillis() + 60_000) + "}]}");
+        RevocationFeedClient client = newClient();
+        assertTrue(client.poll(platform));
+
+        status = 503;
+
+        assertFalse(client.poll(platform));
+        assertTrue(revocationList.isRevoked("platform-A", null, "sid-1"));
+    }
+
+    private RevocationFeedClient newClient() {
+        PlatformRegistry registry = new PlatformRegistry() {
+            @Override
+            public PlatformInfo getPlatformInfo(String platformId) {
+                return platform.platformId().equals(platformId) ? platform : null;
+            }
+
+            @Override
+            public Collection<PlatformInfo> getPlatforms() {
+                return List.of(platform);
+            }
+        };
+        return new RevocationFeedClient(registry, revocationList, clock, true, Duration.ZERO, 100);
+    }
+}
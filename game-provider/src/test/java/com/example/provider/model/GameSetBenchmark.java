@@ -0,0 +1,88 @@
+package com.example.provider.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the per-platform HashSet layout with GameSet bitsets for a large catalog.
+ * Not a unit test; run it manually, e.g. with
+ * {@code java -Xmx4g -cp target/test-classes:target/classes com.example.provider.model.GameSetBenchmark 10000 5000}.
+ * Arguments: platforms, games (default 10000 and 5000), and optionally {@code hashset} or {@code gameset}
+ * to measure a single layout; run each layout in its own JVM for lookup times that do not share a
+ * call-site profile. Every platform registers a random half of the games.
+ */
+public class GameSetBenchmark {
+
+    private static final int LOOKUPS = 10_000_000;
+
+    public static void main(String[] args) {
+        int platforms = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        String layout = args.length > 2 ? args[2] : "both";
+        List<String> catalog = new ArrayList<>(games);
+        for (int g = 0; g < games; g++) catalog.add("game-" + g);
+
+        if (!layout.equals("gameset")) measureHashSets(platforms, catalog);
+        if (!layout.equals("hashset")) measureGameSets(platforms, catalog);
+    }
+
+    private static void measureHashSets(int platforms, List<String> catalog) {
+        long base = usedMemory();
+        List<Set<String>> hashSets = new ArrayList<>(platforms);
+        Random random = new Random(42);
+        for (int p = 0; p < platforms; p++) {
+            Set<String> set = new HashSet<>();
+            for (String game : catalog) if (random.nextBoolean()) set.add(new String(game));
+            hashSets.add(set);
+        }
+        report("HashSet", usedMemory() - base, lookupNanos(hashSets, catalog));
+    }
+
+    private static void measureGameSets(int platforms, List<String> catalog) {
+        long base = usedMemory();
+        GameDictionary dictionary = GameDictionary.of(List.of(catalog));
+        List<Set<String>> gameSets = new ArrayList<>(platforms);
+        Random random = new Random(42);
+        List<String> members = new ArrayList<>(catalog.size());
+        for (int p = 0; p < platforms; p++) {
+            members.clear();
+            for (String game : catalog) if (random.nextBoolean()) members.add(game);
+            gameSets.add(GameSet.of(dictionary, members));
+        }
+        report("GameSet", usedMemory() - base, lookupNanos(gameSets, catalog));
+    }
+
+    private static double lookupNanos(List<Set<String>> sets, List<String> catalog) {
+        Random random = new Random(7);
+        String[] requests = new String[1024];
+        int[] platforms = new int[1024];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new String(catalog.get(random.nextInt(catalog.size())));
+            platforms[i] = random.nextInt(sets.size());
+        }
+        int hits = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (sets.get(platforms[i & 1023]).contains(requests[i & 1023])) hits++;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (sets.get(platforms[i & 1023]).contains(requests[i & 1023])) hits++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (hits == 42) System.out.println();
+        return (double) elapsed / LOOKUPS;
+    }
+
+    private static void report(String name, long bytes, double nanosPerLookup) {
+        System.out.printf("%-8s retained %,d MB, lookup %.1f ns%n", name, bytes >> 20, nanosPerLookup);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
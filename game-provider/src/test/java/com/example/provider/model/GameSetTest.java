@@ -0,0 +1,53 @@
+package com.example.provider.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSetTest {
+
+    @Test
+    void shouldAnswerMembershipByNameAndId() {
+        GameDictionary dictionary = GameDictionary.of(List.of(List.of("game-roulette", "game-slots"), List.of("game-poker")));
+        GameSet games = GameSet.of(dictionary, List.of("game-slots", "game-poker"));
+
+        assertTrue(games.contains("game-slots"));
+        assertFalse(games.contains("game-roulette"));
+        assertFalse(games.contains("game-unknown"), "A game outside the dictionary is never contained");
+        assertTrue(games.containsId(dictionary.idOf("game-poker")));
+        assertFalse(games.containsId(-1));
+    }
+
+    @Test
+    void shouldBehaveLikeASet() {
+        GameDictionary dictionary = GameDictionary.of(List.of(List.of("a", "b", "c")));
+        GameSet games = GameSet.of(dictionary, List.of("c", "a", "a"));
+
+        assertEquals(2, games.size());
+        assertEquals(Set.of("a", "c"), games);
+        assertEquals(Set.of("a", "c"), Set.copyOf(games), "Iteration should yield every member once");
+    }
+
+    @Test
+    void shouldIterateAcrossWordBoundaries() {
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < 200; i++) all.add("game-" + i);
+        GameDictionary dictionary = GameDictionary.of(List.of(all));
+        List<String> members = List.of("game-0", "game-63", "game-64", "game-199");
+
+        GameSet games = GameSet.of(dictionary, members);
+
+        assertEquals(Set.copyOf(members), Set.copyOf(games));
+    }
+
+    @Test
+    void shouldRejectGameOutsideDictionary() {
+        GameDictionary dictionary = GameDictionary.of(List.of(List.of("a")));
+
+        assertThrows(IllegalArgumentException.class, () -> GameSet.of(dictionary, List.of("b")));
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.provider.recording;
+
+import com.example.common.recording.RecordedRequest;
+import com.example.common.recording.TrafficRecorder;
+import com.example.common.recording.TrafficRecording;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays traffic recorded by the {@link TrafficRecorder} of the provider and of the platform against
+ * locally running instances, and reports the throughput and latency percentiles per endpoint next to
+ * those of the recording.
+ * Not a unit test; run it manually, e.g. with
+ * {@code java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.provider.recording.TrafficReplay --speed 2 provider.rec platform.rec}
+ * where cp.txt holds the output of {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ * <p>
+ * {@code /play} requests carry tokens signed by a throwaway key whose JWKS is served by a stand-in
+ * server started here, and shaped like the recorded outcome: valid, expired, for another game or
+ * audience, from an unknown or a restricted issuer, or garbage, padded to the recorded token length.
+ * The provider trusts the stand-in through the registry file written at {@code --registry}; build it
+ * with {@code -Dprovider.registry.source=file} and start it with {@code -Dprovider.registry.file} set to
+ * that file. Revoked tokens are replayed as valid ones, and quota and overload answers are left to the
+ * replayed load. {@code /issue} requests use sessions logged in to the platform up front.
+ * <p>
+ * Requests are sent open-loop at the recorded offsets divided by {@code --speed}; the latency of a
+ * request is measured from when it was due, so a replay that falls behind shows up in the percentiles
+ * instead of silently lowering the rate.
+ */
+public class TrafficReplay {
+
+    private static final String PLATFORM_ID = "replay";
+    private static final String RESTRICTED_PLATFORM_ID = "replay-restricted";
+    private static final String UNKNOWN_PLATFORM_ID = "replay-unknown";
+    private static final String AUDIENCE = "game-provider";
+    private static final int TOKENS_PER_SHAPE = 16;
+    private static final int SIZE_BUCKET = 32;
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999, 1};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9", "max"};
+
+    private final Options options;
+    private final HttpClient client;
+    private final RSAKey key;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, HttpRequest[]> requests = new HashMap<>();
+    private final List<String> sessions = new ArrayList<>();
+
+    TrafficReplay(Options options) throws Exception {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.key = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options == null) {
+            System.err.println("Usage: TrafficReplay [--provider URL] [--platform URL] [--speed FACTOR] [--jwks-port PORT]"
+                    + " [--registry FILE] [--user NAME] [--password PASSWORD] [--sessions N] [--max-outstanding N]"
+                    + " recording...");
+            System.exit(2);
+        }
+        List<RecordedRequest> recorded = merge(options.recordings());
+        if (recorded.isEmpty()) {
+            System.err.println("No requests recorded in " + options.recordings());
+            System.exit(1);
+        }
+        new TrafficReplay(options).run(recorded);
+    }
+
+    /**
+     * Reads the recordings and merges their requests into one timeline, aligned by the start of each
+     * recording and starting at 0.
+     */
+    static List<RecordedRequest> merge(List<Path> files) throws IOException {
+        List<TrafficRecording.Recording> recordings = new ArrayList<>();
+        long start = Long.MAX_VALUE;
+        for (Path file : files) {
+            TrafficRecording.Recording recording = TrafficRecording.read(file);
+            recordings.add(recording);
+            for (RecordedRequest request : recording.requests()) {
+                start = Math.min(start, recording.startEpochMillis() * 1000 + request.offsetMicros());
+            }
+        }
+        List<RecordedRequest> merged = new ArrayList<>();
+        for (TrafficRecording.Recording recording : recordings) {
+            long shift = recording.startEpochMillis() * 1000 - start;
+            for (RecordedRequest r : recording.requests()) {
+                merged.add(new RecordedRequest(r.offsetMicros() + shift, r.endpoint(), r.gameId(), r.outcome(),
+                        r.status(), r.tokenBytes(), r.latencyMicros()));
+            }
+        }
+        merged.sort(Comparator.comparingLong(RecordedRequest::offsetMicros));
+        return merged;
+    }
+
+    void run(List<RecordedRequest> recorded) throws Exception {
+        boolean plays = recorded.stream().anyMatch(r -> r.endpoint() == RecordedRequest.Endpoint.PLAY);
+        boolean issues = recorded.stream().anyMatch(r -> r.endpoint() == RecordedRequest.Endpoint.ISSUE);
+        HttpServer jwks = plays ? startJwksServer() : null;
+        try {
+            if (plays) {
+                writeRegistry(recorded);
+                awaitProvider(recorded);
+            }
+            if (issues) login();
+            for (RecordedRequest r : recorded) {
+                requests.computeIfAbsent(shapeKey(r), k -> prepare(r));
+            }
+            report(recorded, replay(recorded));
+        } finally {
+            if (jwks != null) jwks.stop(0);
+        }
+    }
+
+    private Map<RecordedRequest.Endpoint, Results> replay(List<RecordedRequest> recorded) throws InterruptedException {
+        Map<RecordedRequest.Endpoint, Results> results = new LinkedHashMap<>();
+        for (RecordedRequest.Endpoint endpoint : RecordedRequest.Endpoint.values()) {
+            int count = (int) recorded.stream().filter(r -> r.endpoint() == endpoint).count();
+            if (count > 0) results.put(endpoint, new Results(count));
+        }
+        Semaphore outstanding = new Semaphore(options.maxOutstanding());
+        AtomicInteger round = new AtomicInteger();
+        System.out.printf("Replaying %d requests over %.1f s at speed %.2f%n", recorded.size(),
+                recorded.get(recorded.size() - 1).offsetMicros() / 1e6 / options.speed(), options.speed());
+        long start = System.nanoTime();
+        for (RecordedRequest r : recorded) {
+            long due = start + (long) (r.offsetMicros() * 1000 / options.speed());
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            outstanding.acquire();
+            HttpRequest[] pool = requests.get(shapeKey(r));
+            HttpRequest request = pool[Math.floorMod(round.getAndIncrement(), pool.length)];
+            Results result = results.get(r.endpoint());
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                result.add(System.nanoTime() - due, r, (response != null) ? response.statusCode() : -1);
+                outstanding.release();
+            });
+        }
+        outstanding.acquire(options.maxOutstanding());
+        long elapsed = System.nanoTime() - start;
+        results.values().forEach(result -> result.elapsedNanos = elapsed);
+        return results;
+    }
+
+    private void report(List<RecordedRequest> recorded, Map<RecordedRequest.Endpoint, Results> results) {
+        for (Map.Entry<RecordedRequest.Endpoint, Results> entry : results.entrySet()) {
+            Results result = entry.getValue();
+            long[] replayed = result.latencies();
+            long[] original = recorded.stream().filter(r -> r.endpoint() == entry.getKey())
+                    .mapToLong(r -> r.latencyMicros() * 1000).sorted().toArray();
+            System.out.printf("%n%s: %d requests in %.1f s, %.0f req/s, %d failed%n", entry.getKey(), replayed.length,
+                    result.elapsedNanos / 1e9, replayed.length / (result.elapsedNanos / 1e9), result.failed.sum());
+            System.out.printf("  %-8s %10s %10s   (replayed: client side, from when due; recorded: server side)%n",
+                    "latency", "replayed", "recorded");
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                System.out.printf("  %-8s %7.2f ms %7.2f ms%n", PERCENTILE_NAMES[i], percentile(replayed, PERCENTILES[i]) / 1e6,
+                        percentile(original, PERCENTILES[i]) / 1e6);
+            }
+            result.mismatches.forEach((shape, count) ->
+                    System.out.printf("  status differs from recording: %s x%d%n", shape, count.sum()));
+        }
+    }
+
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+
+    private HttpServer startJwksServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", options.jwksPort()), 0);
+        byte[] body = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        server.createContext("/jwks.json", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=300");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * Writes the registry the provider is started with: the stand-in platform, allowed to play every
+     * recorded game, and a restricted one, allowed none, both with the stand-in JWKS.
+     */
+    private void writeRegistry(List<RecordedRequest> recorded) throws IOException {
+        Set<String> games = new TreeSet<>();
+        for (RecordedRequest r : recorded) {
+            if (r.endpoint() == RecordedRequest.Endpoint.PLAY && r.gameId() != null) games.add(r.gameId());
+        }
+        String jwksUrl = "http://localhost:" + options.jwksPort() + "/jwks.json";
+        List<Map<String, Object>> platforms = List.of(
+                Map.of("platformId", PLATFORM_ID, "jwksUrl", jwksUrl, "registeredGames", new ArrayList<>(games)),
+                Map.of("platformId", RESTRICTED_PLATFORM_ID, "jwksUrl", jwksUrl, "registeredGames", List.of()));
+        String json = "[" + String.join(",", platforms.stream().map(JSONObjectUtils::toJSONString).toList()) + "]";
+        Path registry = options.registry().toAbsolutePath();
+        if (registry.getParent() != null) Files.createDirectories(registry.getParent());
+        Files.writeString(registry, json);
+        System.out.println("Wrote provider registry " + registry);
+    }
+
+    /**
+     * Waits until the provider accepts a valid token of the stand-in platform, i.e. has picked up the registry.
+     */
+    private void awaitProvider(List<RecordedRequest> recorded) throws Exception {
+        String game = recorded.stream().filter(r -> r.endpoint() == RecordedRequest.Endpoint.PLAY && r.gameId() != null)
+                .map(RecordedRequest::gameId).findFirst().orElse("game");
+        HttpRequest probe = playRequest(game, sign(PLATFORM_ID, game, AUDIENCE, Instant.now().plusSeconds(600), 0));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        int status = -1;
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) return;
+            } catch (IOException e) {
+                status = -1;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("The provider at " + options.provider() + " does not accept tokens of "
+                + PLATFORM_ID + " (last status " + status + "); is it running with provider.registry.file="
+                + options.registry() + "?");
+    }
+
+    private void login() throws Exception {
+        String body = JSONObjectUtils.toJSONString(Map.of("username", options.user(), "password", options.password()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.platform() + "/player/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        for (int i = 0; i < options.sessions(); i++) {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            String session = response.headers().allValues("Set-Cookie").stream()
+                    .filter(c -> c.startsWith("PLATFORM_SESS="))
+                    .map(c -> c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length()))
+                    .findFirst().orElse(null);
+            if (response.statusCode() != 200 || session == null) {
+                throw new IllegalStateException("Login to " + options.platform() + " failed with status "
+                        + response.statusCode());
+            }
+            sessions.add(session);
+        }
+    }
+
+    private static String shapeKey(RecordedRequest r) {
+        return r.endpoint() + "|" + r.gameId() + "|" + r.outcome() + "|" + (r.tokenBytes() / SIZE_BUCKET);
+    }
+
+    /**
+     * Builds the requests replaying a recorded shape; several tokens per shape, so that the provider
+     * does not see one token over and over.
+     */
+    private HttpRequest[] prepare(RecordedRequest r) {
+        try {
+            if (r.endpoint() == RecordedRequest.Endpoint.ISSUE) return prepareIssue(r);
+            String outcome = String.valueOf(r.outcome());
+            if (outcome.equals("missing_token")) {
+                return new HttpRequest[]{playRequest(r.gameId(), null)};
+            }
+            HttpRequest[] pool = new HttpRequest[TOKENS_PER_SHAPE];
+            for (int i = 0; i < pool.length; i++) {
+                pool[i] = playRequest(r.gameId(), token(r.gameId(), outcome, r.tokenBytes()));
+            }
+            return pool;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot prepare requests of shape " + shapeKey(r), e);
+        }
+    }
+
+    private HttpRequest[] prepareIssue(RecordedRequest r) {
+        String body = (r.gameId() != null && !"missing_gameId".equals(r.outcome()))
+                ? JSONObjectUtils.toJSONString(Map.of("gameId", r.gameId())) : "{}";
+        boolean anonymous = "not_authenticated".equals(r.outcome()) || sessions.isEmpty();
+        HttpRequest[] pool = new HttpRequest[anonymous ? 1 : sessions.size()];
+        for (int i = 0; i < pool.length; i++) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.platform() + "/issue"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (!anonymous) builder.header("Cookie", sessions.get(i));
+            pool[i] = builder.build();
+        }
+        return pool;
+    }
+
+    private HttpRequest playRequest(String gameId, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.provider() + "/"
+                        + (gameId != null ? gameId : "game") + "/play"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.noBody());
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    /**
+     * Returns a token that the provider answers with the given outcome.
+     */
+    private String token(String gameId, String outcome, int tokenBytes) throws Exception {
+        Instant valid = Instant.now().plus(Duration.ofHours(12));
+        return switch (outcome) {
+            case "invalid_token" -> garbage(Math.max(tokenBytes, 32));
+            case "unknown_issuer" -> sign(UNKNOWN_PLATFORM_ID, gameId, AUDIENCE, valid, tokenBytes);
+            case "expired_token" -> sign(PLATFORM_ID, gameId, AUDIENCE, Instant.now().minus(Duration.ofHours(1)), tokenBytes);
+            case "invalid_audience" -> sign(PLATFORM_ID, gameId, "another-provider", valid, tokenBytes);
+            case "game_request_mismatch", "game_mismatch" -> sign(PLATFORM_ID, gameId + "-other", AUDIENCE, valid, tokenBytes);
+            case "game_not_allowed_for_platform" -> sign(RESTRICTED_PLATFORM_ID, gameId, AUDIENCE, valid, tokenBytes);
+            default -> sign(PLATFORM_ID, gameId, AUDIENCE, valid, tokenBytes);
+        };
+    }
+
+    private String sign(String issuer, String gameId, String audience, Instant expiresAt, int tokenBytes) throws Exception {
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("player-" + random.nextInt(100_000))
+                .audience(audience)
+                .claim("game", gameId)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(expiresAt.minus(Duration.ofMinutes(20))))
+                .expirationTime(Date.from(expiresAt));
+        String token = sign(claims.build());
+        int missing = tokenBytes - token.length();
+        if (missing > 16) {
+            token = sign(claims.claim("pad", "x".repeat(missing * 3 / 4 - 8)).build());
+        }
+        return token;
+    }
+
+    private String sign(JWTClaimsSet claims) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID())
+                .type(JOSEObjectType.JWT).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private String garbage(int length) {
+        byte[] bytes = new byte[length * 3 / 4];
+        random.nextBytes(bytes);
+        char[] token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes).toCharArray();
+        token[token.length / 3] = '.';
+        token[token.length * 2 / 3] = '.';
+        return new String(token);
+    }
+
+    /**
+     * Latencies and status mismatches of the replayed requests of one endpoint.
+     */
+    private static final class Results {
+
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final LongAdder failed = new LongAdder();
+        private final Map<String, LongAdder> mismatches = new ConcurrentHashMap<>();
+        private long elapsedNanos;
+
+        Results(int capacity) {
+            latencies = new long[capacity];
+        }
+
+        void add(long latencyNanos, RecordedRequest recorded, int status) {
+            latencies[count.getAndIncrement()] = latencyNanos;
+            if (status < 0) {
+                failed.increment();
+            } else if (status != recorded.status()) {
+                mismatches.computeIfAbsent(recorded.outcome() + " " + recorded.status() + " -> " + status,
+                        k -> new LongAdder()).increment();
+            }
+        }
+
+        long[] latencies() {
+            long[] sorted = Arrays.copyOf(latencies, count.get());
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * The command line options.
+     */
+    record Options(String provider, String platform, double speed, int jwksPort, Path registry, String user,
+                   String password, int sessions, int maxOutstanding, List<Path> recordings) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new TreeMap<>(Map.of("provider", "http://localhost:8080",
+                    "platform", "http://localhost:8081", "speed", "1", "jwks-port", "8099",
+                    "registry", "data/replay/platforms.json", "user", "test", "password", "test", "sessions", "16",
+                    "max-outstanding", "512"));
+            List<Path> recordings = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].startsWith("--")) {
+                    String name = args[i].substring(2);
+                    if (!values.containsKey(name) || i + 1 == args.length) return null;
+                    values.put(name, args[++i]);
+                } else {
+                    recordings.add(Path.of(args[i]));
+                }
+            }
+            if (recordings.isEmpty()) return null;
+            return new Options(values.get("provider"), values.get("platform"), Double.parseDouble(values.get("speed")),
+                    Integer.parseInt(values.get("jwks-port")), Path.of(values.get("registry")), values.get("user"),
+                    values.get("password"), Integer.parseInt(values.get("sessions")),
+                    Integer.parseInt(values.get("max-outstanding")), recordings);
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.provider.resource;
 
+import com.example.common.json.JsonBody;
+import com.example.common.json.JsonOutput;
+import com.example.provider.model.QuotaPermit;
 import com.example.provider.model.TokenValidationResult;
+import com.example.common.recording.RecordedRequest;
+import com.example.common.recording.TrafficRecorder;
+import com.example.provider.service.AdaptiveConcurrencyLimiter;
 import com.example.provider.service.TokenValidator;
+import com.example.common.tracing.Tracer;
+import com.nimbusds.jwt.JWTClaimsSet;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
@@ -19,6 +28,15 @@ public class GameResourceTest {
     @Mock
     TokenValidator tokenValidator;
 
+    @Spy
+    AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(true, 20, 4, 1000);
+
+    @Spy
+    Tracer tracer = new Tracer();
+
+    @Spy
+    TrafficRecorder recorder = new TrafficRecorder();
+
     @InjectMocks
     GameResource gameResource;
 
@@ -30,7 +48,7 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("error", "missing_token", "message", "Authorization header missing"), response.getEntity());
+        assertEquals("{\"error\":\"missing_token\",\"message\":\"Authorization header missing\"}", body(response));
     }
 
     @Test
@@ -41,7 +59,7 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("error", "missing_token", "message", "Authorization header missing"), response.getEntity());
+        assertEquals("{\"error\":\"missing_token\",\"message\":\"Authorization header missing\"}", body(response));
     }
 
     @Test
@@ -54,7 +72,7 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.UNAUTHORIZED.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("error", "unauthorized", "message", "unauthorized"), response.getEntity());
+        assertEquals("{\"error\":\"unauthorized\",\"message\":\"unauthorized\"}", body(response));
     }
 
     @Test
@@ -67,7 +85,7 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.FORBIDDEN.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("error", "game_mismatch", "message", "game_mismatch"), response.getEntity());
+        assertEquals("{\"error\":\"game_mismatch\",\"message\":\"game_mismatch\"}", body(response));
     }
 
     @Test
@@ -80,7 +98,7 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("error", "internal_error", "message", "internal_error"), response.getEntity());
+        assertEquals("{\"error\":\"internal_error\",\"message\":\"internal_error\"}", body(response));
     }
 
     @Test
@@ -93,6 +111,94 @@ public class GameResourceTest {
         Response response = gameResource.play("12345", headers);
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
-        assertEquals(Map.of("status", "ok", "gameId", "12345"), response.getEntity());
+        assertEquals("{\"status\":\"ok\",\"gameId\":\"12345\"}", body(response));
+    }
+
+    @Test
+    public void testPlayRecordsOutcomeAndTokenLength() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer expiredToken");
+        when(tokenValidator.validate("expiredToken", "12345"))
+                .thenReturn(new TokenValidationResult("expired_token", null));
+
+        gameResource.play("12345", headers);
+
+        verify(recorder).record(eq(RecordedRequest.Endpoint.PLAY), anyLong(), eq("12345"), eq("expired_token"),
+                eq(401), eq(12));
+    }
+
+    @Test
+    public void testPlayAcceptsBearerPrefixInAnyCase() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("bEARER   validToken ");
+        when(tokenValidator.validate("validToken", "12345"))
+                .thenReturn(new TokenValidationResult(null, null));
+
+        Response response = gameResource.play("12345", headers);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void testPlaySuccessEscapesGameId() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer validToken");
+        when(tokenValidator.validate("validToken", "a\"b\\c\u00e9"))
+                .thenReturn(new TokenValidationResult(null, null));
+
+        Response response = gameResource.play("a\"b\\c\u00e9", headers);
+
+        assertEquals("{\"status\":\"ok\",\"gameId\":\"a\\\"b\\\\c\\u00e9\"}", body(response));
+    }
+
+    @Test
+    public void testPlayQuotaExceeded() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer validToken");
+        when(tokenValidator.validate("validToken", "12345"))
+                .thenReturn(new TokenValidationResult("quota_exceeded", null));
+
+        Response response = gameResource.play("12345", headers);
+
+        assertEquals(Response.Status.TOO_MANY_REQUESTS.getStatusCode(), response.getStatus());
+        assertEquals("{\"error\":\"quota_exceeded\",\"message\":\"quota_exceeded\"}", body(response));
+    }
+
+    @Test
+    public void testPlayReleasesQuotaPermit() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        QuotaPermit permit = mock(QuotaPermit.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer validToken");
+        when(tokenValidator.validate("validToken", "12345"))
+                .thenReturn(new TokenValidationResult(null, new JWTClaimsSet.Builder().build(), permit));
+
+        gameResource.play("12345", headers);
+
+        verify(permit).release();
+    }
+
+    @Test
+    public void testPlayShedWhenOverloaded() {
+        HttpHeaders headers = mock(HttpHeaders.class);
+        when(headers.getHeaderString(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer validToken");
+        doReturn(false).when(concurrencyLimiter).tryAcquire();
+
+        Response response = gameResource.play("12345", headers);
+
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+        assertEquals("{\"error\":\"overloaded\",\"message\":\"overloaded\"}", body(response));
+        verifyNoInteractions(tokenValidator);
+        verify(recorder).record(eq(RecordedRequest.Endpoint.PLAY), anyLong(), eq("12345"), eq("overloaded"),
+                eq(503), eq(10));
+    }
+
+    private static String body(Response response) {
+        Object entity = response.getEntity();
+        if (entity instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        JsonOutput out = new JsonOutput();
+        ((JsonBody) entity).writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.example.provider.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final double MILLIS = 1_000_000;
+
+    @Test
+    void shouldShedRequestsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(System.nanoTime());
+        assertTrue(limiter.tryAcquire(), "A released slot should be available again");
+        assertEquals(1, limiter.getShed());
+    }
+
+    @Test
+    void shouldNotShedWhenDisabled() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1, 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertEquals(0, limiter.getShed());
+    }
+
+    @Test
+    void shouldGrowLimitWhileLatencyIsStableAndLimitIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 20, 4, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.update(1 * MILLIS, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() > 20, "Limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowLimitThatIsNotUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 20, 4, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.update(1 * MILLIS, 3);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void shouldShrinkLimitWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 100, 4, 1000);
+        for (int i = 0; i < 20; i++) {
+            limiter.update(1 * MILLIS, limiter.getLimit());
+        }
+        int stable = limiter.getLimit();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.update(10 * MILLIS, limiter.getLimit());
+        }
+
+        assertTrue(limiter.getLimit() < stable, "Limit should shrink, was " + limiter.getLimit() + " from " + stable);
+    }
+
+    @Test
+    void shouldStayWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 10, 5, 12);
+
+        for (int i = 0; i < 50; i++) limiter.update(1 * MILLIS, limiter.getLimit());
+        assertEquals(12, limiter.getLimit());
+        for (int i = 0; i < 50; i++) limiter.update(100 * MILLIS, limiter.getLimit());
+        assertEquals(5, limiter.getLimit());
+    }
+}
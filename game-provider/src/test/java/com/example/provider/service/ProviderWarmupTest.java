@@ -0,0 +1,30 @@
+package com.example.provider.service;
+
+import com.example.common.time.TimeSource;
+import com.example.provider.client.JwksClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProviderWarmupTest {
+
+    private final JwksClient jwksClient = mock(JwksClient.class);
+    private final PlatformRegistry platformRegistry = mock(PlatformRegistry.class);
+
+    @Test
+    void shouldValidateWarmupTokensAgainstStandInPlatform() throws Exception {
+        when(platformRegistry.getPlatforms()).thenReturn(List.of());
+        ProviderWarmup warmup = new ProviderWarmup(jwksClient, platformRegistry, TimeSource.SYSTEM, true, 20,
+                Duration.ofSeconds(1));
+
+        warmup.run();
+
+        assertTrue(warmup.isComplete());
+        assertEquals(20, warmup.getValidTokens(), "Warmup tokens should pass every stage of the validation");
+        verify(jwksClient, never()).getKey(anyString(), anyString());
+    }
+}
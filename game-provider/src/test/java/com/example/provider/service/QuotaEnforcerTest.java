@@ -0,0 +1,105 @@
+package com.example.provider.service;
+
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
+import com.example.provider.model.QuotaPermit;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotaEnforcerTest {
+
+    private final QuotaEnforcer quotaEnforcer = new QuotaEnforcer();
+
+    @Test
+    void shouldAlwaysAdmitUnlimitedPlatform() {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), PlatformQuota.UNLIMITED,
+                null);
+
+        for (int i = 0; i < 1000; i++) {
+            assertSame(QuotaPermit.NONE, quotaEnforcer.tryAcquire(platform));
+        }
+    }
+
+    @Test
+    void shouldAdmitBurstThenReject() {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(1, 3, 0),
+                null);
+
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(quotaEnforcer.tryAcquire(platform), "Request " + i + " is within the burst");
+        }
+        assertNull(quotaEnforcer.tryAcquire(platform), "Request beyond the burst should be rejected");
+    }
+
+    @Test
+    void shouldRefillAtConfiguredRate() throws Exception {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(100, 1, 0),
+                null);
+        assertNotNull(quotaEnforcer.tryAcquire(platform));
+        assertNull(quotaEnforcer.tryAcquire(platform));
+
+        Thread.sleep(20);
+
+        assertNotNull(quotaEnforcer.tryAcquire(platform), "A token should be available after one interval");
+    }
+
+    @Test
+    void shouldLimitConcurrencyUntilPermitIsReleased() {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(0, 1, 2),
+                null);
+
+        QuotaPermit first = quotaEnforcer.tryAcquire(platform);
+        assertNotNull(quotaEnforcer.tryAcquire(platform));
+        assertNull(quotaEnforcer.tryAcquire(platform), "Third concurrent request should be rejected");
+
+        first.release();
+
+        assertNotNull(quotaEnforcer.tryAcquire(platform));
+    }
+
+    @Test
+    void shouldTellExhaustedQuotaWithoutChargingIt() {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(0.001, 1, 1),
+                null);
+
+        assertFalse(quotaEnforcer.isExhausted(platform));
+        assertFalse(quotaEnforcer.isExhausted(platform));
+        QuotaPermit permit = quotaEnforcer.tryAcquire(platform);
+        assertNotNull(permit, "Checking the quota should not have charged it");
+        assertTrue(quotaEnforcer.isExhausted(platform));
+
+        permit.release();
+
+        assertTrue(quotaEnforcer.isExhausted(platform), "The request rate should still be used up");
+    }
+
+    @Test
+    void shouldKeepPlatformsIndependent() {
+        PlatformQuota quota = new PlatformQuota(1, 1, 0);
+        PlatformInfo noisy = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), quota, null);
+        PlatformInfo quiet = new PlatformInfo("platform-B", "http://b/jwks.json", Set.of(), quota, null);
+
+        quotaEnforcer.tryAcquire(noisy);
+        assertNull(quotaEnforcer.tryAcquire(noisy));
+
+        assertNotNull(quotaEnforcer.tryAcquire(quiet));
+    }
+
+    @Test
+    void shouldKeepLimiterWhenReloadYieldsEqualQuota() {
+        PlatformInfo platform = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(1, 1, 0),
+                null);
+        PlatformInfo reloaded = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(1, 1, 0),
+                null);
+        PlatformInfo raised = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of(), new PlatformQuota(1, 2, 0),
+                null);
+
+        assertNotNull(quotaEnforcer.tryAcquire(platform));
+        assertNull(quotaEnforcer.tryAcquire(reloaded), "An equal quota should keep the consumed burst");
+
+        assertNotNull(quotaEnforcer.tryAcquire(raised), "A changed quota should start with a fresh limiter");
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.provider.service;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Compares the size and the parse cost of tokens in the standard and in the compact profile, shaped
+ * like the tokens the platform issues.
+ * Not a unit test; run it manually, e.g. with
+ * {@code java -cp target/test-classes:target/classes:$(cat cp.txt) com.example.provider.service.TokenProfileBenchmark standard}
+ * where cp.txt holds the output of {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ * Arguments: {@code standard} or {@code compact} to measure a single profile (default both); run each
+ * profile in its own JVM for times that do not share a call-site profile.
+ */
+public class TokenProfileBenchmark {
+
+    private static final int TOKENS = 1_000;
+    private static final int ROUNDS = 2_000_000;
+    private static final int VERIFY_ROUNDS = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        String profile = args.length > 0 ? args[0] : "both";
+        RSAKey key = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        if (!profile.equals("compact")) measure("standard", key, false);
+        if (!profile.equals("standard")) measure("compact", key, true);
+    }
+
+    private static void measure(String name, RSAKey key, boolean compact) throws Exception {
+        String[] tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) tokens[i] = token(key, compact);
+        long sink = 0;
+        long start = 0;
+        for (int round = -ROUNDS / 4; round < ROUNDS; round++) {
+            if (round == 0) start = System.nanoTime();
+            SignedJWT jwt = SignedJWT.parse(tokens[Math.floorMod(round, TOKENS)]);
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            sink += claims.getAudience().size() + claims.getStringClaim("game").length();
+        }
+        double parseNanos = (double) (System.nanoTime() - start) / ROUNDS;
+
+        RSASSAVerifier verifier = new RSASSAVerifier(key.toRSAPublicKey());
+        for (int round = -VERIFY_ROUNDS / 4; round < VERIFY_ROUNDS; round++) {
+            if (round == 0) start = System.nanoTime();
+            SignedJWT jwt = SignedJWT.parse(tokens[Math.floorMod(round, TOKENS)]);
+            sink += jwt.getJWTClaimsSet().getAudience().size() + (jwt.verify(verifier) ? 1 : 0);
+        }
+        double verifyNanos = (double) (System.nanoTime() - start) / VERIFY_ROUNDS;
+
+        String sample = tokens[0];
+        int header = sample.indexOf('.');
+        int payload = sample.indexOf('.', header + 1) - header - 1;
+        System.out.printf("%-8s token %d bytes (header %d, payload %d); parse %.0f ns; parse+verify %.1f us (%d)%n",
+                name, sample.length(), header, payload, parseNanos, verifyNanos / 1000, sink % 10);
+    }
+
+    private static String token(RSAKey key, boolean compact) throws Exception {
+        Instant now = Instant.now();
+        String jti;
+        if (compact) {
+            byte[] bytes = new byte[16];
+            new SecureRandom().nextBytes(bytes);
+            jti = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        } else {
+            jti = UUID.randomUUID().toString();
+        }
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("platform-A")
+                .subject("player-" + now.getNano() % 100_000)
+                .audience(compact ? "gp" : "game-provider")
+                .claim("game", "game-roulette")
+                .jwtID(jti)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(1200)))
+                .build();
+        JWSHeader.Builder header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID());
+        if (!compact) header.type(JOSEObjectType.JWT);
+        SignedJWT jwt = new SignedJWT(header.build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.provider.service;
+
+import com.example.common.tracing.Tracer;
+import com.example.provider.client.JwksClient;
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenSignatureVerifierTest {
+
+    private static final PlatformInfo PLATFORM = new PlatformInfo("platform-A", "http://a/jwks.json", Set.of("game-slots"),
+            PlatformQuota.UNLIMITED, null);
+
+    private final JwksClient jwksClient = mock(JwksClient.class);
+    private final TokenSignatureVerifier verifier = new TokenSignatureVerifier(jwksClient, new ValidationMetrics(), new Tracer());
+
+    @Test
+    void shouldVerifyRepeatedlyWithSameKey() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        when(jwksClient.getKey(PLATFORM.jwksUrl(), "kid-1")).thenReturn(key.toPublicJWK());
+
+        assertTrue(verifier.verifySignature(token(key), PLATFORM));
+        assertTrue(verifier.verifySignature(token(key), PLATFORM));
+    }
+
+    @Test
+    void shouldNotReuseVerifierOfReplacedKey() throws Exception {
+        RSAKey first = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        RSAKey second = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        when(jwksClient.getKey(PLATFORM.jwksUrl(), "kid-1")).thenReturn(first.toPublicJWK(), second.toPublicJWK());
+
+        assertTrue(verifier.verifySignature(token(first), PLATFORM));
+        assertTrue(verifier.verifySignature(token(second), PLATFORM),
+                "A key replaced under the same kid should get a verifier of its own");
+    }
+
+    @Test
+    void shouldKeepVerifiersOfPlatformsSharingKid() throws Exception {
+        PlatformInfo other = new PlatformInfo("platform-B", "http://b/jwks.json", Set.of("game-slots"),
+                PlatformQuota.UNLIMITED, null);
+        RSAKey keyA = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        RSAKey keyB = new RSAKeyGenerator(2048).keyID("kid-1").generate();
+        when(jwksClient.getKey(PLATFORM.jwksUrl(), "kid-1")).thenReturn(keyA.toPublicJWK());
+        when(jwksClient.getKey(other.jwksUrl(), "kid-1")).thenReturn(keyB.toPublicJWK());
+
+        assertTrue(verifier.verifySignature(token(keyA), PLATFORM));
+        assertTrue(verifier.verifySignature(token(keyB), other));
+        assertFalse(verifier.verifySignature(token(keyB), PLATFORM));
+        assertTrue(verifier.verifySignature(token(keyA), PLATFORM));
+
+        assertEquals(2, verifier.getVerifierCount());
+    }
+
+    private static SignedJWT token(RSAKey key) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder().issuer("platform-A").build());
+        jwt.sign(new RSASSASigner(key));
+        return SignedJWT.parse(jwt.serialize());
+    }
+}
@@ -1,27 +1,46 @@
 package com.example.provider.service;
 
 import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
 import com.example.provider.model.TokenValidationResult;
+import com.example.common.time.FakeTimeSource;
+import com.example.common.tracing.InMemorySpanExporter;
+import com.example.common.tracing.Span;
+import com.example.common.tracing.SpanData;
+import com.example.common.tracing.TraceContext;
+import com.example.common.tracing.Tracer;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class TokenValidatorTest {
@@ -32,6 +51,21 @@ class TokenValidatorTest {
     @Mock
     PlatformRegistry mockPlatformRegistry;
 
+    @Spy
+    QuotaEnforcer quotaEnforcer = new QuotaEnforcer();
+
+    @Spy
+    ValidationMetrics metrics = new ValidationMetrics();
+
+    @Spy
+    Tracer tracer = new Tracer();
+
+    @Spy
+    FakeTimeSource timeSource = new FakeTimeSource();
+
+    @Spy
+    RevocationList revocationList = new RevocationList();
+
     @InjectMocks
     TokenValidator tokenValidator;
 
@@ -67,7 +101,7 @@ class TokenValidatorTest {
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
                 .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", 
-                        new HashSet<>(Collections.singleton("requiredGame"))));
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(false);
 
@@ -87,7 +121,7 @@ class TokenValidatorTest {
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
                 .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", 
-                        new HashSet<>(Collections.singleton("requiredGame"))));
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(true);
 
@@ -108,7 +142,7 @@ class TokenValidatorTest {
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
                 .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", 
-                        new HashSet<>(Collections.singleton("requiredGame"))));
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(true);
 
@@ -130,7 +164,7 @@ class TokenValidatorTest {
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
                 .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", 
-                        new HashSet<>(Collections.singleton("requiredGame"))));
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(true);
 
@@ -151,7 +185,8 @@ class TokenValidatorTest {
         String token = createSignedToken(claimsSet);
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
-                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", new HashSet<>()));
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", new HashSet<>(),
+                        PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(true);
 
@@ -173,7 +208,7 @@ class TokenValidatorTest {
 
         Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
                 .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks", 
-                        new HashSet<>(Collections.singleton("requiredGame"))));
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
         Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class), 
                 any(PlatformInfo.class))).thenReturn(true);
 
@@ -187,6 +222,214 @@ class TokenValidatorTest {
 
     }
 
+    @Test
+    void shouldReturnExpiredTokenOnceExpirationTimeHasPassed() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .expirationTime(new Date(timeSource.currentTimeMillis() + 60_000))
+                .audience("game-provider")
+                .claim("game", "requiredGame")
+                .build();
+        String token = createSignedToken(claimsSet);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+
+        assertNull(tokenValidator.validate(token, "requiredGame").error());
+        timeSource.advance(Duration.ofSeconds(61));
+
+        assertEquals("expired_token", tokenValidator.validate(token, "requiredGame").error());
+    }
+
+    @Test
+    void shouldReturnRevokedTokenOnceSessionOrTokenIsRevokedByItsPlatform() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .jwtID("jti-1")
+                .claim("sid", "sid-1")
+                .expirationTime(new Date(timeSource.currentTimeMillis() + 60_000))
+                .audience("game-provider")
+                .claim("game", "requiredGame")
+                .build();
+        String token = createSignedToken(claimsSet);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+
+        revocationList.add("otherIssuer", "sid-1", timeSource.currentTimeMillis() + 60_000);
+        assertNull(tokenValidator.validate(token, "requiredGame").error(),
+                "Revocations of another platform should not apply");
+
+        revocationList.add("knownIssuer", "sid-1", timeSource.currentTimeMillis() + 60_000);
+        assertEquals("revoked_token", tokenValidator.validate(token, "requiredGame").error());
+
+        revocationList.removeExpired(timeSource.currentTimeMillis() + 120_000);
+        revocationList.add("knownIssuer", "jti-1", timeSource.currentTimeMillis() + 60_000);
+        assertEquals("revoked_token", tokenValidator.validate(token, "requiredGame").error());
+    }
+
+    @Test
+    void shouldRecordStageTimingsAndResults() throws ParseException, JOSEException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+                .audience("game-provider")
+                .claim("game", "requiredGame")
+                .build();
+        String token = createSignedToken(claimsSet);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+
+        tokenValidator.validate(token, "requiredGame");
+        tokenValidator.validate(token, "otherGame");
+        tokenValidator.validate("invalid-token", "requiredGame");
+
+        assertEquals(1, metrics.getCount("ok"));
+        assertEquals(1, metrics.getCount("game_request_mismatch"));
+        assertEquals(1, metrics.getCount("invalid_token"));
+        assertEquals(3, registry.get("provider.token.validation.stage").tag("stage", "parse").timer().count());
+        assertEquals(2, registry.get("provider.token.validation.stage").tag("stage", "claims").timer().count());
+        assertEquals(1, registry.get("provider.token.validation.results").tag("result", "ok").functionCounter().count());
+    }
+
+    @Test
+    void shouldAcceptCompactProfileAudience() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+                .audience("gp")
+                .jwtID("q1lZk3nR8xWm0aYtE7bC4g")
+                .claim("game", "requiredGame")
+                .build();
+        String token = createSignedToken(claimsSet);
+
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+
+        TokenValidationResult result = tokenValidator.validate(token, "requiredGame");
+
+        assertNull(result.error());
+    }
+
+    @Test
+    void shouldReturnQuotaExceededWithoutVerifyingSignature() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .build();
+        String token = createSignedToken(claimsSet);
+        PlatformInfo platformInfo = new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                new HashSet<>(Collections.singleton("requiredGame")), new PlatformQuota(0.001, 1, 0), null);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer")).thenReturn(platformInfo);
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+
+        tokenValidator.validate(token, "requiredGame");
+        TokenValidationResult result = tokenValidator.validate(token, "requiredGame");
+
+        assertEquals("quota_exceeded", result.error());
+        Mockito.verify(mockTokenSignatureVerifier, Mockito.times(1)).verifySignature(any(SignedJWT.class), any(PlatformInfo.class));
+    }
+
+    @Test
+    void shouldNotChargeQuotaForForgedTokens() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .build();
+        String token = createSignedToken(claimsSet);
+        PlatformInfo platformInfo = new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                new HashSet<>(Collections.singleton("requiredGame")), new PlatformQuota(0.001, 1, 0), null);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer")).thenReturn(platformInfo);
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(false, false, true);
+
+        assertEquals("invalid_token", tokenValidator.validate(token, "requiredGame").error());
+        assertEquals("invalid_token", tokenValidator.validate(token, "requiredGame").error());
+        TokenValidationResult result = tokenValidator.validate(token, "requiredGame");
+
+        assertNotEquals("quota_exceeded", result.error(), "Forged tokens should not use up the platform's quota");
+    }
+
+    @Test
+    void shouldReleaseConcurrencyPermitWhenValidationFails() throws ParseException, JOSEException {
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .build();
+        String token = createSignedToken(claimsSet);
+        PlatformInfo platformInfo = new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                new HashSet<>(Collections.singleton("requiredGame")), new PlatformQuota(0, 1, 1), null);
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer")).thenReturn(platformInfo);
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(false);
+
+        tokenValidator.validate(token, "requiredGame");
+        TokenValidationResult result = tokenValidator.validate(token, "requiredGame");
+
+        assertEquals("invalid_token", result.error(), "A rejected token should not keep its permit");
+    }
+
+    @Test
+    void shouldEmitFlightRecorderEventWithErrorCode(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("validation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.provider.TokenValidation").withThreshold(Duration.ZERO);
+            recording.start();
+            tokenValidator.validate("invalid-token", "requiredGame");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.provider.TokenValidation"))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals("requiredGame", events.get(0).getString("game"));
+        assertEquals("invalid_token", events.get(0).getString("error"));
+    }
+
+    @Test
+    void shouldContinueTraceCarriedInToken() throws Exception {
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("knownIssuer")
+                .expirationTime(Date.from(Instant.now().plusSeconds(60)))
+                .audience("game-provider")
+                .claim("game", "requiredGame")
+                .claim("traceparent", traceparent)
+                .build();
+        Mockito.when(mockPlatformRegistry.getPlatformInfo("knownIssuer"))
+                .thenReturn(new PlatformInfo("knownIssuer", "https://example.com/jwks",
+                        new HashSet<>(Collections.singleton("requiredGame")), PlatformQuota.UNLIMITED, null));
+        Mockito.when(mockTokenSignatureVerifier.verifySignature(any(SignedJWT.class),
+                any(PlatformInfo.class))).thenReturn(true);
+        InMemorySpanExporter exporter = new InMemorySpanExporter();
+        Tracer enabled = new Tracer("test", true, exporter, 16, 16, Duration.ofMillis(50));
+        TokenValidator validator = new TokenValidator(mockTokenSignatureVerifier, mockPlatformRegistry,
+                quotaEnforcer, metrics, enabled, timeSource, revocationList);
+
+        try (Span span = enabled.startSpan("play", null)) {
+            assertNull(validator.validate(createSignedToken(claimsSet), "requiredGame").error());
+        }
+        assertTrue(enabled.flush(Duration.ofSeconds(2)));
+
+        SpanData play = exporter.getSpans().get(0);
+        TraceContext parent = TraceContext.parse(traceparent);
+        assertEquals(parent.traceId(), play.traceId());
+        assertEquals(parent.spanId(), play.parentSpanId());
+        assertEquals("knownIssuer", play.attributes().get("issuer"));
+    }
+
     private String createSignedToken(JWTClaimsSet claimsSet) throws JOSEException {
         JWSSigner signer = new MACSigner(SECRET);
         
@@ -0,0 +1,100 @@
+package com.example.provider.service.impl;
+
+import com.example.provider.model.PlatformInfo;
+import com.example.provider.model.PlatformQuota;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePlatformRegistryImplTest {
+
+    @TempDir
+    Path dir;
+
+    private FilePlatformRegistryImpl registry;
+
+    @AfterEach
+    void tearDown() {
+        if (registry != null) registry.shutdown();
+    }
+
+    @Test
+    void shouldLoadPlatformsFromFile() throws Exception {
+        Path file = write("""
+                [{"platformId":"platform-A","jwksUrl":"http://a/jwks.json","registeredGames":["game-slots"],
+                  "quota":{"requestsPerSecond":100,"burst":200,"maxConcurrent":10}}]
+                """);
+        registry = new FilePlatformRegistryImpl(new ObjectMapper(), file.toString(), Duration.ZERO);
+        registry.init();
+
+        PlatformInfo info = registry.getPlatformInfo("platform-A");
+
+        assertEquals("http://a/jwks.json", info.jwksUrl());
+        assertEquals(new PlatformQuota(100, 200, 10), info.quota());
+        assertTrue(info.registeredGames().contains("game-slots"));
+        assertNull(registry.getPlatformInfo("platform-B"));
+    }
+
+    @Test
+    void shouldApplyChangedFile() throws Exception {
+        Path file = write("""
+                [{"platformId":"platform-A","jwksUrl":"http://a/jwks.json","registeredGames":[]}]
+                """);
+        registry = new FilePlatformRegistryImpl(new ObjectMapper(), file.toString(), Duration.ZERO);
+        registry.init();
+
+        write("""
+                [{"platformId":"platform-A","jwksUrl":"http://a/jwks.json","registeredGames":["game-roulette"]},
+                 {"platformId":"platform-B","jwksUrl":"http://b/jwks.json","registeredGames":["game-slots"]}]
+                """);
+        touch(file);
+        registry.reloadIfChanged();
+
+        assertTrue(registry.getPlatformInfo("platform-A").registeredGames().contains("game-roulette"));
+        assertNotNull(registry.getPlatformInfo("platform-B"));
+        assertEquals(2, registry.getPlatforms().size());
+    }
+
+    @Test
+    void shouldKeepPreviousSnapshotWhenFileIsInvalid() throws Exception {
+        Path file = write("""
+                [{"platformId":"platform-A","jwksUrl":"http://a/jwks.json","registeredGames":["game-slots"]}]
+                """);
+        registry = new FilePlatformRegistryImpl(new ObjectMapper(), file.toString(), Duration.ZERO);
+        registry.init();
+
+        write("[{\"platformId\":\"platform-A\"");
+        touch(file);
+        registry.reloadIfChanged();
+
+        assertNotNull(registry.getPlatformInfo("platform-A"), "Invalid file should not replace the registry");
+    }
+
+    @Test
+    void shouldRejectDuplicatePlatforms() throws Exception {
+        Path file = write("""
+                [{"platformId":"platform-A","jwksUrl":"http://a/jwks.json"},
+                 {"platformId":"platform-A","jwksUrl":"http://b/jwks.json"}]
+                """);
+        registry = new FilePlatformRegistryImpl(new ObjectMapper(), file.toString(), Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, registry::init);
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.writeString(dir.resolve("platforms.json"), content);
+    }
+
+    private static void touch(Path file) throws Exception {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+    }
+}